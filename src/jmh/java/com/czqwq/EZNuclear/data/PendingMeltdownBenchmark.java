@@ -0,0 +1,90 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.util.ChunkCoordinates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.czqwq.EZNuclear.Config;
+
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * Scheduling and dispatch through {@link PendingMeltdown} with a steady number of pending tasks.
+ * <p>
+ * Every task schedules itself again when it runs, so the wheel holds {@code pending} tasks for the whole run and each
+ * tick dispatches about {@code pending / DELAY_SPREAD_TICKS} of them. PendingMeltdown is static, so every parameter
+ * runs in its own fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingMeltdownBenchmark {
+
+    // delays are spread over one minute of ticks, like a crowd of reactors melting down at different times
+    private static final int DELAY_SPREAD_TICKS = 1200;
+
+    @Param({ "10", "1000", "100000" })
+    public int pending;
+
+    private final PendingMeltdown handler = new PendingMeltdown();
+    private final TickEvent.ServerTickEvent end = new TickEvent.ServerTickEvent(TickEvent.Phase.END);
+    private ChunkCoordinates[] positions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Config.maxPendingTasks = Integer.MAX_VALUE;
+        // no timeout, the tasks would expire in long runs
+        Config.taskTimeoutMinutes = 0;
+        Random random = new Random(42);
+        positions = new ChunkCoordinates[pending];
+        for (int i = 0; i < pending; i++) {
+            ChunkCoordinates pos = new ChunkCoordinates(i % 1024, 64, i / 1024);
+            positions[i] = pos;
+            reschedule(pos, (1 + random.nextInt(DELAY_SPREAD_TICKS)) * 50L);
+        }
+    }
+
+    private static void reschedule(ChunkCoordinates pos, long delayMs) {
+        PendingMeltdown.scheduleMeltdown(
+            pos,
+            0,
+            MeltdownKind.GENERIC,
+            () -> reschedule(pos, DELAY_SPREAD_TICKS * 50L),
+            delayMs);
+    }
+
+    /**
+     * One server tick: advance the wheel and run the tasks that are due.
+     */
+    @Benchmark
+    public void tick() {
+        handler.onServerTick(end);
+    }
+
+    /**
+     * A meltdown reported again at a position whose task is already pending, as a failing reactor does every tick.
+     */
+    @Benchmark
+    public Object scheduleDuplicate() {
+        ChunkCoordinates pos = positions[next];
+        next = next + 1 == positions.length ? 0 : next + 1;
+        return PendingMeltdown.scheduleMeltdown(pos, 0, MeltdownKind.GENERIC, () -> {}, 5000L);
+    }
+}
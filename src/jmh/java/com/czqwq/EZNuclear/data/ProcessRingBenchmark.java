@@ -0,0 +1,79 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.brandon3055.draconicevolution.common.utils.handlers.IProcess;
+
+/**
+ * Overhead of the DE process tick ({@link ProcessRing}, as driven by {@code ProcessHandlerMixin}) with
+ * {@code processes} live processes whose updates cost next to nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessRingBenchmark {
+
+    @Param({ "1", "16", "256", "4096" })
+    public int processes;
+
+    private ProcessRing ring;
+
+    private static final class NoopProcess implements IProcess {
+
+        private final Blackhole blackhole;
+
+        NoopProcess(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void updateProcess() {
+            blackhole.consume(this);
+        }
+
+        @Override
+        public boolean isDead() {
+            return false;
+        }
+    }
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        ring = new ProcessRing();
+        for (int i = 0; i < processes; i++) {
+            ring.add(new NoopProcess(blackhole));
+        }
+    }
+
+    /**
+     * A tick within budget: every process is updated.
+     */
+    @Benchmark
+    public int tickAll() {
+        return ring.update(Long.MAX_VALUE);
+    }
+
+    /**
+     * A tick over budget: one process is updated and the cursor moves on.
+     */
+    @Benchmark
+    public int tickOverBudget() {
+        return ring.update(Long.MIN_VALUE);
+    }
+}
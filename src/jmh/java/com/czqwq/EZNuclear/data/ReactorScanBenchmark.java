@@ -0,0 +1,105 @@
+package com.czqwq.EZNuclear.data;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brandon3055.draconicevolution.common.tileentities.multiblocktiles.reactor.TileReactorCore;
+/**
+ * The periodic reactor scan against a synthetic {@code loadedTileEntityList} of {@code tileEntities} tile entities with
+ * a few running reactor cores among them, half of them failing.
+ * <p>
+ * {@link #walkLoadedTileEntities} is the scan as it used to be, walking the whole list every second;
+ * {@link #hotReactorRegistry} is the scan {@link PendingMeltdown} runs now, over {@link ReactorRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReactorScanBenchmark {
+
+    private static final int REACTORS = 8;
+
+    @Param({ "1000", "10000", "100000" })
+    public int tileEntities;
+
+    private final List<TileEntity> loadedTileEntityList = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        World world = headlessWorld();
+        for (int i = 0; i < tileEntities; i++) {
+            loadedTileEntityList.add(new TileEntity());
+        }
+        for (int i = 0; i < REACTORS; i++) {
+            TileReactorCore core = new TileReactorCore();
+            core.xCoord = i * 16;
+            core.yCoord = 64;
+            core.setWorldObj(world);
+            core.reactionTemperature = 7000.0;
+            core.isStructureValid = true;
+            core.fieldCharge = i % 2 == 0 ? 0.0 : 5000.0;
+            ReactorRegistry.onReactorUpdate(core);
+            loadedTileEntityList.add(core);
+        }
+        Collections.shuffle(loadedTileEntityList, new Random(42));
+    }
+
+    // A server world with nothing but its provider; the registry only asks it for the dimension
+    private static World headlessWorld() throws Exception {
+        // Unsafe skips the constructor, which needs a running server; it is looked up reflectively to compile on 8
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        World world = (World) unsafeClass.getMethod("allocateInstance", Class.class)
+            .invoke(theUnsafe.get(null), WorldServer.class);
+        Field provider = World.class.getField("provider");
+        provider.setAccessible(true);
+        provider.set(world, new WorldProviderSurface());
+        return world;
+    }
+
+    @Benchmark
+    public int walkLoadedTileEntities() {
+        int hot = 0;
+        for (TileEntity te : loadedTileEntityList) {
+            if (!te.getClass()
+                .getName()
+                .endsWith("TileReactorCore")) continue;
+            if (ReactorRegistry.isFailing(te)) hot++;
+        }
+        return hot;
+    }
+
+    @Benchmark
+    public int hotReactorRegistry() {
+        int hot = 0;
+        if (!ReactorRegistry.hasHotReactors()) return hot;
+        for (TileEntity te : ReactorRegistry.getHotReactors(0)) {
+            if (ReactorRegistry.isFailing(te)) hot++;
+        }
+        return hot;
+    }
+}
@@ -0,0 +1,80 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.util.ChunkCoordinates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-explosion lookups the mixins make in the position table: {@link PendingMeltdown#shouldIgnoreExplosionAt}
+ * and {@link PendingMeltdown#consumeReentry}, against a table holding {@code positions} tracked reactors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerLookupBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int positions;
+
+    private ChunkCoordinates[] tracked;
+    private ChunkCoordinates[] untracked;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tracked = new ChunkCoordinates[positions];
+        untracked = new ChunkCoordinates[positions];
+        for (int i = 0; i < positions; i++) {
+            tracked[i] = new ChunkCoordinates(i % 1024, 64, i / 1024);
+            untracked[i] = new ChunkCoordinates(i % 1024, 128, i / 1024);
+            PendingMeltdown.markReentry(tracked[i], 0);
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == positions ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public boolean shouldIgnoreTracked() {
+        return PendingMeltdown.shouldIgnoreExplosionAt(tracked[nextIndex()], 0);
+    }
+
+    @Benchmark
+    public boolean shouldIgnoreUntracked() {
+        return PendingMeltdown.shouldIgnoreExplosionAt(untracked[nextIndex()], 0);
+    }
+
+    /**
+     * Consume a reentry and mark it again, so the table keeps its size.
+     */
+    @Benchmark
+    public boolean consumeReentryHit() {
+        ChunkCoordinates pos = tracked[nextIndex()];
+        boolean consumed = PendingMeltdown.consumeReentry(pos, 0);
+        PendingMeltdown.markReentry(pos, 0);
+        return consumed;
+    }
+
+    @Benchmark
+    public boolean consumeReentryMiss() {
+        return PendingMeltdown.consumeReentry(untracked[nextIndex()], 0);
+    }
+}
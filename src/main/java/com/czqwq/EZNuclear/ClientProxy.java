@@ -1,8 +1,130 @@
 package com.czqwq.EZNuclear;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import com.czqwq.EZNuclear.explosion.BulkCraterWriter;
+import com.czqwq.EZNuclear.explosion.CraterMask;
+import com.czqwq.EZNuclear.network.CraterMessage;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+import cpw.mods.fml.common.event.FMLInitializationEvent;
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+
 public class ClientProxy extends CommonProxy {
 
     // Override CommonProxy methods here, if you want a different behaviour on the client (e.g. registering renders).
     // Don't forget to call the super methods as well.
 
+    // crater packets arrive on the network thread and are applied on the client thread
+    private final Queue<CraterMessage> craters = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void init(FMLInitializationEvent event) {
+        super.init(event);
+        FMLCommonHandler.instance()
+            .bus()
+            .register(this);
+    }
+
+    @Override
+    public void handleCrater(CraterMessage message) {
+        craters.add(message);
+    }
+
+    @SubscribeEvent
+    public void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.START || craters.isEmpty()) return;
+        World world = Minecraft.getMinecraft().theWorld;
+        CraterMessage message;
+        while ((message = craters.poll()) != null) {
+            if (world == null || world.provider.dimensionId != message.getDimension()) continue;
+            applyCrater(world, message);
+        }
+    }
+
+    // the same section writes the server did; chunks the client has not loaded yet arrive already cleared
+    private void applyCrater(World world, CraterMessage message) {
+        int count = message.getSectionCount();
+        // the keys are sorted, so the sections of a chunk are adjacent and its light is recomputed once
+        for (int from = 0, to; from < count; from = to) {
+            long first = message.getSectionKey(from);
+            int chunkX = CraterMask.sectionChunkX(first);
+            int chunkZ = CraterMask.sectionChunkZ(first);
+            to = from + 1;
+            while (to < count && CraterMask.sectionChunkX(message.getSectionKey(to)) == chunkX
+                && CraterMask.sectionChunkZ(message.getSectionKey(to)) == chunkZ) {
+                to++;
+            }
+            if (!world.getChunkProvider()
+                .chunkExists(chunkX, chunkZ)) continue;
+            applyChunk(world, message, chunkX, chunkZ, from, to);
+        }
+        if (message.getPart() == 0) spawnEffects(world, message);
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Rebuilt crater part " + message.getPart()
+                + " with "
+                + message.getSectionCount()
+                + " sections");
+    }
+
+    private void applyChunk(World world, CraterMessage message, int chunkX, int chunkZ, int from, int to) {
+        Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        if (storage == null) return;
+        boolean changed = false;
+        for (int i = from; i < to; i++) {
+            int sy = CraterMask.sectionY(message.getSectionKey(i));
+            if (sy >= storage.length) continue;
+            ExtendedBlockStorage ebs = storage[sy];
+            if (ebs == null || ebs.isEmpty()) continue;
+            long[] bits = message.getSectionBits(i);
+            removeTileEntities(world, chunk, sy, bits);
+            BulkCraterWriter.clearSection(ebs, bits);
+            int baseX = chunkX << 4, baseY = sy << 4, baseZ = chunkZ << 4;
+            world.markBlockRangeForRenderUpdate(baseX, baseY, baseZ, baseX + 15, baseY + 15, baseZ + 15);
+            changed = true;
+        }
+        if (changed) chunk.generateSkylightMap();
+    }
+
+    private void removeTileEntities(World world, Chunk chunk, int sy, long[] bits) {
+        if (chunk.chunkTileEntityMap == null || chunk.chunkTileEntityMap.isEmpty()) return;
+        List<TileEntity> doomed = new ArrayList<>();
+        for (Object o : chunk.chunkTileEntityMap.values()) {
+            TileEntity te = (TileEntity) o;
+            if (te.yCoord >> 4 != sy) continue;
+            int i = CraterMask.bitIndex(te.xCoord, te.yCoord, te.zCoord);
+            if (bits == null || (bits[i >>> 6] & (1L << i)) != 0) doomed.add(te);
+        }
+        for (TileEntity te : doomed) {
+            world.removeTileEntity(te.xCoord, te.yCoord, te.zCoord);
+        }
+    }
+
+    private void spawnEffects(World world, CraterMessage message) {
+        Random random = new Random(message.getSeed());
+        int count = Math.min(32, 1 + (int) (message.getRadius() / 4.0F));
+        for (int i = 0; i < count; i++) {
+            double spread = message.getRadius() * 0.5;
+            world.spawnParticle(
+                "hugeexplosion",
+                message.getX() + (random.nextDouble() - 0.5) * spread,
+                message.getY() + (random.nextDouble() - 0.5) * spread,
+                message.getZ() + (random.nextDouble() - 0.5) * spread,
+                1.0,
+                0.0,
+                0.0);
+        }
+    }
 }
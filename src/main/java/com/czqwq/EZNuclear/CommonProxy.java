@@ -1,9 +1,16 @@
 package com.czqwq.EZNuclear;
 
+import com.czqwq.EZNuclear.command.EZNuclearCommand;
+import com.czqwq.EZNuclear.data.DEProcesses;
+import com.czqwq.EZNuclear.data.PendingMeltdown;
+import com.czqwq.EZNuclear.network.CraterMessage;
+import com.czqwq.EZNuclear.network.EZNuclearNetwork;
+
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppedEvent;
 
 public class CommonProxy {
 
@@ -14,11 +21,25 @@ public class CommonProxy {
     }
 
     // load "Do your mod setup. Build whatever data structures you care about. Register recipes." (Remove if not needed)
-    public void init(FMLInitializationEvent event) {}
+    public void init(FMLInitializationEvent event) {
+        EZNuclearNetwork.init();
+    }
 
     // postInit "Handle interaction with other mods, complete your setup based on this." (Remove if not needed)
     public void postInit(FMLPostInitializationEvent event) {}
 
     // register server commands in this event handler (Remove if not needed)
-    public void serverStarting(FMLServerStartingEvent event) {}
+    public void serverStarting(FMLServerStartingEvent event) {
+        event.registerServerCommand(new EZNuclearCommand());
+    }
+
+    // Meltdown state and DE's process handler outlive the server; in single player the next world must not run the old
+    // meltdowns and explosions
+    public void serverStopped(FMLServerStoppedEvent event) {
+        PendingMeltdown.reset();
+        DEProcesses.clear();
+    }
+
+    // called from the network thread when a crater packet arrives; nothing to rebuild on a dedicated server
+    public void handleCrater(CraterMessage message) {}
 }
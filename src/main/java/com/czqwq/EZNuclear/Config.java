@@ -4,6 +4,14 @@ import java.io.File;
 
 import net.minecraftforge.common.config.Configuration;
 
+import com.czqwq.EZNuclear.data.AdmissionOrder;
+import com.czqwq.EZNuclear.data.OverflowPolicy;
+import com.czqwq.EZNuclear.data.PowerAggregation;
+import com.czqwq.EZNuclear.explosion.ScalingCurve;
+import com.czqwq.EZNuclear.explosion.UnloadedChunkPolicy;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+import com.czqwq.EZNuclear.util.NotificationScope;
+
 public class Config {
 
     public static boolean IC2Explosion = true;
@@ -13,6 +21,40 @@ public class Config {
     public static double IC2ExplosionPower = 100.0;
     public static double DEExplosionPower = 100.0;
     public static int taskTimeoutMinutes = 10; // Default 10 minutes for scheduled tasks cleanup
+    public static int maxPendingTasks = 256;
+    public static OverflowPolicy pendingTaskOverflowPolicy = OverflowPolicy.DROP;
+    public static boolean incrementalExplosions = false;
+    public static int explosionTickBudgetMs = 10;
+    public static int explosionBlocksPerTick = 4096;
+    public static boolean parallelRayTracing = true;
+    public static int explosionThreads = 0;
+    public static boolean bulkCraterApply = true;
+    public static boolean compactExplosionPackets = true;
+    public static int explosionMemoryBudgetMb = 256;
+    public static boolean rerouteOversizedExplosions = false;
+    public static int maxExplosionsPerTick = 2;
+    public static int explosionAdmissionBudgetMs = 20;
+    public static AdmissionOrder explosionAdmissionOrder = AdmissionOrder.OLDEST;
+    public static int processTickBudgetMs = 20;
+    public static boolean preloadBlastChunks = true;
+    public static int maxPreloadChunks = 256;
+    public static int preloadChunksPerTick = 4;
+    public static UnloadedChunkPolicy unloadedChunkPolicy = UnloadedChunkPolicy.LOAD;
+    public static int maxParkedRays = 65536;
+    public static int meltdownCoalesceRadius = 16;
+    public static int meltdownCoalesceWindowSeconds = 2;
+    public static PowerAggregation meltdownPowerAggregation = PowerAggregation.VOLUME;
+    public static boolean tickLoadScaling = false;
+    public static int tickLoadScalingStartMs = 50;
+    public static int tickLoadScalingEndMs = 150;
+    public static ScalingCurve tickLoadScalingCurve = ScalingCurve.LINEAR;
+    public static double tickLoadPowerFloor = 0.25;
+    public static boolean persistMeltdowns = true;
+    public static int manualTriggerRadius = 0;
+    public static NotificationScope notificationScope = NotificationScope.ALL;
+    public static int notificationRadius = 256;
+    public static int notificationCoalesceSeconds = 10;
+    public static int metricsExportSeconds = 0;
 
     public static void synchronizeConfiguration(File configFile) {
         Configuration configuration = new Configuration(configFile);
@@ -59,9 +101,233 @@ public class Config {
             1,
             1440, // Max 24 hours
             "Timeout in minutes for scheduled tasks before they are removed (default: 10 minutes)");
+        maxPendingTasks = configuration.getInt(
+            "maxPendingTasks",
+            Configuration.CATEGORY_GENERAL,
+            maxPendingTasks,
+            1,
+            65536,
+            "Maximum number of scheduled meltdown tasks pending at once (default: 256)");
+        pendingTaskOverflowPolicy = getEnum(
+            configuration,
+            "pendingTaskOverflowPolicy",
+            pendingTaskOverflowPolicy,
+            "What to do with a new task when maxPendingTasks is reached: drop = discard it, merge = run it together with a pending task of the same kind, detonate_oldest = run the oldest pending task now to make room (default: drop)");
+        incrementalExplosions = configuration.getBoolean(
+            "incrementalExplosions",
+            Configuration.CATEGORY_GENERAL,
+            incrementalExplosions,
+            "Replace nuclear reactor and DE reactor explosions with this mod's own crater explosion, computed and applied over several ticks instead of in one tick. It does not try to match IC2 or DE: rays lose 0.5 power per block of air, so they reach twice the power in blocks; each block costs (explosion resistance + 4) * 0.3 more; DE reactor power is taken as the crater radius; there is no IC2 radiation and none of DE's reactor explosion effects; entities take vanilla explosion damage, falling off linearly to the edge of the reach (default: false)");
+        explosionTickBudgetMs = configuration.getInt(
+            "explosionTickBudgetMs",
+            Configuration.CATEGORY_GENERAL,
+            explosionTickBudgetMs,
+            1,
+            1000,
+            "Milliseconds per tick incremental explosions may use (default: 10)");
+        explosionBlocksPerTick = configuration.getInt(
+            "explosionBlocksPerTick",
+            Configuration.CATEGORY_GENERAL,
+            explosionBlocksPerTick,
+            1,
+            1000000,
+            "Maximum block changes per tick made by incremental explosions (default: 4096)");
+        parallelRayTracing = configuration.getBoolean(
+            "parallelRayTracing",
+            Configuration.CATEGORY_GENERAL,
+            parallelRayTracing,
+            "Trace the rays of incremental explosions on background threads against a copy of the affected chunks (default: true)");
+        explosionThreads = configuration.getInt(
+            "explosionThreads",
+            Configuration.CATEGORY_GENERAL,
+            explosionThreads,
+            0,
+            256,
+            "Threads used for parallel ray tracing, 0 = one less than the number of CPU cores (default: 0)");
+        bulkCraterApply = configuration.getBoolean(
+            "bulkCraterApply",
+            Configuration.CATEGORY_GENERAL,
+            bulkCraterApply,
+            "Apply incremental explosion craters by rewriting chunk sections directly instead of setting blocks one by one. Skips neighbour updates and block explosion hooks (default: true)");
+        compactExplosionPackets = configuration.getBoolean(
+            "compactExplosionPackets",
+            Configuration.CATEGORY_GENERAL,
+            compactExplosionPackets,
+            "Send bulk-applied incremental explosion craters to clients as one compressed per-section bitmap packet instead of resending every changed chunk section. Only used with bulkCraterApply (default: true)");
+        explosionMemoryBudgetMb = configuration.getInt(
+            "explosionMemoryBudgetMb",
+            Configuration.CATEGORY_GENERAL,
+            explosionMemoryBudgetMb,
+            1,
+            16384,
+            "Worst-case heap in MB one explosion may use for its affected-block set. Explosions that would need more are clamped to the largest power that fits, unless rerouteOversizedExplosions runs IC2 and DE explosions incrementally instead (default: 256)");
+        rerouteOversizedExplosions = configuration.getBoolean(
+            "rerouteOversizedExplosions",
+            Configuration.CATEGORY_GENERAL,
+            rerouteOversizedExplosions,
+            "Run IC2 and DE explosions whose own affected-block set would not fit explosionMemoryBudgetMb incrementally at full power instead of clamping their power. Incremental explosions have no IC2 radiation or DE explosion effects (default: false)");
+        maxExplosionsPerTick = configuration.getInt(
+            "maxExplosionsPerTick",
+            Configuration.CATEGORY_GENERAL,
+            maxExplosionsPerTick,
+            1,
+            1000,
+            "Maximum number of explosions set off in one server tick. Explosions released together, e.g. by the chat commands, wait for later ticks (default: 2)");
+        explosionAdmissionBudgetMs = configuration.getInt(
+            "explosionAdmissionBudgetMs",
+            Configuration.CATEGORY_GENERAL,
+            explosionAdmissionBudgetMs,
+            1,
+            1000,
+            "Once explosions have taken this many milliseconds in a server tick, the remaining ones wait for the next tick. At least one explosion goes off per tick (default: 20)");
+        explosionAdmissionOrder = getEnum(
+            configuration,
+            "explosionAdmissionOrder",
+            explosionAdmissionOrder,
+            "Which waiting explosions go off first: oldest = in release order, closest_to_players = nearest to a player in the same dimension (default: oldest)");
+        processTickBudgetMs = configuration.getInt(
+            "processTickBudgetMs",
+            Configuration.CATEGORY_GENERAL,
+            processTickBudgetMs,
+            1,
+            1000,
+            "Milliseconds per server tick Draconic Evolution processes such as reactor explosions may use. Processes that do not get a turn go first on the next tick; at least one runs per tick (default: 20)");
+        preloadBlastChunks = configuration.getBoolean(
+            "preloadBlastChunks",
+            Configuration.CATEGORY_GENERAL,
+            preloadBlastChunks,
+            "Load the chunks an explosion will reach during its countdown and hold them with chunk tickets until it is over, so they are not loaded or generated in the tick it goes off (default: true)");
+        maxPreloadChunks = configuration.getInt(
+            "maxPreloadChunks",
+            Configuration.CATEGORY_GENERAL,
+            maxPreloadChunks,
+            0,
+            4096,
+            "Maximum number of chunks held for pending explosions at once, nearest to each explosion first (default: 256)");
+        preloadChunksPerTick = configuration.getInt(
+            "preloadChunksPerTick",
+            Configuration.CATEGORY_GENERAL,
+            preloadChunksPerTick,
+            1,
+            256,
+            "Maximum number of blast chunks requested per server tick. Chunks that have never been generated are generated in that tick (default: 4)");
+        unloadedChunkPolicy = getEnum(
+            configuration,
+            "unloadedChunkPolicy",
+            unloadedChunkPolicy,
+            "What explosion rays do at chunks that are not loaded: load = load or generate the chunk, truncate = stop there, park = stop there and continue once the chunk is loaded. With truncate or park, IC2 and DE explosions are run by the incremental explosion engine (default: load)");
+        maxParkedRays = configuration.getInt(
+            "maxParkedRays",
+            Configuration.CATEGORY_GENERAL,
+            maxParkedRays,
+            0,
+            1048576,
+            "Maximum number of explosion rays waiting for unloaded chunks with unloadedChunkPolicy=park. Further rays are truncated. Parked rays are not saved with the world (default: 65536)");
+        meltdownCoalesceRadius = configuration.getInt(
+            "meltdownCoalesceRadius",
+            Configuration.CATEGORY_GENERAL,
+            meltdownCoalesceRadius,
+            0,
+            256,
+            "Reactors of the same kind melting down within this many blocks of each other go off as one explosion at their centroid. 0 disables coalescing (default: 16)");
+        meltdownCoalesceWindowSeconds = configuration.getInt(
+            "meltdownCoalesceWindowSeconds",
+            Configuration.CATEGORY_GENERAL,
+            meltdownCoalesceWindowSeconds,
+            0,
+            300,
+            "Reactor meltdowns starting at most this many seconds after the first one of a group join its explosion (default: 2)");
+        meltdownPowerAggregation = getEnum(
+            configuration,
+            "meltdownPowerAggregation",
+            meltdownPowerAggregation,
+            "Power of coalesced meltdowns: sum = sum of the powers, max = strongest meltdown, volume = crater volumes add up (default: volume)");
+        tickLoadScaling = configuration.getBoolean(
+            "tickLoadScaling",
+            Configuration.CATEGORY_GENERAL,
+            tickLoadScaling,
+            "Scale explosion power down while the server's mean tick time is high, so a meltdown during a lag spike does not make it worse (default: false)");
+        tickLoadScalingStartMs = configuration.getInt(
+            "tickLoadScalingStartMs",
+            Configuration.CATEGORY_GENERAL,
+            tickLoadScalingStartMs,
+            1,
+            10000,
+            "Mean tick time in milliseconds above which explosion power is scaled down (default: 50)");
+        tickLoadScalingEndMs = configuration.getInt(
+            "tickLoadScalingEndMs",
+            Configuration.CATEGORY_GENERAL,
+            tickLoadScalingEndMs,
+            1,
+            10000,
+            "Mean tick time in milliseconds at which explosion power reaches tickLoadPowerFloor (default: 150)");
+        tickLoadScalingCurve = getEnum(
+            configuration,
+            "tickLoadScalingCurve",
+            tickLoadScalingCurve,
+            "How power falls between the start and end tick times: linear = evenly, quadratic = slowly at first, sqrt = fast at first (default: linear)");
+        tickLoadPowerFloor = configuration.getFloat(
+            "tickLoadPowerFloor",
+            Configuration.CATEGORY_GENERAL,
+            (float) tickLoadPowerFloor,
+            0.0f,
+            1.0f,
+            "Share of its power an explosion keeps however high the tick time gets (default: 0.25)");
+        persistMeltdowns = configuration.getBoolean(
+            "persistMeltdowns",
+            Configuration.CATEGORY_GENERAL,
+            persistMeltdowns,
+            "Save pending meltdowns, armed reactors and recently exploded positions with each dimension and restore them when it loads. Meltdowns that were due during the restart go off after the usual countdown (default: true)");
+        manualTriggerRadius = configuration.getInt(
+            "manualTriggerRadius",
+            Configuration.CATEGORY_GENERAL,
+            manualTriggerRadius,
+            0,
+            30000000,
+            "With requireCommandToExplode, the '坏了坏了' command only sets off armed reactors within this many blocks of the player sending it, in the player's dimension. 0 sets off every armed reactor on the server (default: 0)");
+        notificationScope = getEnum(
+            configuration,
+            "notificationScope",
+            notificationScope,
+            "Which players receive meltdown warnings: all (every player), dimension (players in the reactor's dimension) or radius (players within notificationRadius blocks of the reactor) (default: all)");
+        notificationRadius = configuration.getInt(
+            "notificationRadius",
+            Configuration.CATEGORY_GENERAL,
+            notificationRadius,
+            16,
+            30000000,
+            "Distance in blocks within which players receive meltdown warnings when notificationScope is radius (default: 256)");
+        notificationCoalesceSeconds = configuration.getInt(
+            "notificationCoalesceSeconds",
+            Configuration.CATEGORY_GENERAL,
+            notificationCoalesceSeconds,
+            0,
+            300,
+            "The same warning for the same reactor is sent at most once within this many seconds. 0 sends every warning (default: 10)");
+        metricsExportSeconds = configuration.getInt(
+            "metricsExportSeconds",
+            Configuration.CATEGORY_GENERAL,
+            metricsExportSeconds,
+            0,
+            3600,
+            "Write the meltdown metrics shown by /eznuclear stats to eznuclear.prom in the world folder every this many seconds, in the Prometheus text format for the node exporter's textfile collector. 0 disables the file (default: 0)");
 
         if (configuration.hasChanged()) {
             configuration.save();
         }
     }
+
+    // An option naming a constant of an enum, parsed here once; unknown names fall back to the current value
+    private static <E extends Enum<E> & ConfigEnum> E getEnum(Configuration configuration, String name, E value,
+        String comment) {
+        Class<E> type = value.getDeclaringClass();
+        String configured = configuration.getString(
+            name,
+            Configuration.CATEGORY_GENERAL,
+            value.getConfigName(),
+            comment,
+            ConfigEnum.names(type));
+        E parsed = ConfigEnum.find(type, configured);
+        return parsed != null ? parsed : value;
+    }
 }
@@ -1,11 +1,17 @@
 package com.czqwq.EZNuclear;
 
+import net.minecraftforge.common.ForgeChunkManager;
 import net.minecraftforge.common.MinecraftForge;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.czqwq.EZNuclear.data.BlastPreloader;
+import com.czqwq.EZNuclear.data.MeltdownPersistence;
 import com.czqwq.EZNuclear.data.PendingMeltdown;
+import com.czqwq.EZNuclear.data.ReactorRegistry;
+import com.czqwq.EZNuclear.explosion.ExplosionEngine;
+import com.czqwq.EZNuclear.metrics.MetricsExporter;
 
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.Mod;
@@ -13,6 +19,8 @@ import cpw.mods.fml.common.SidedProxy;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppedEvent;
 
 @Mod(
     modid = EZNuclear.MODID,
@@ -28,6 +36,9 @@ public class EZNuclear {
     public static final String MODID = "EZNuclear";
     public static final Logger LOG = LogManager.getLogger(MODID);
 
+    @Mod.Instance(MODID)
+    public static EZNuclear instance;
+
     @SidedProxy(clientSide = "com.czqwq.EZNuclear.ClientProxy", serverSide = "com.czqwq.EZNuclear.CommonProxy")
     public static CommonProxy proxy;
 
@@ -49,6 +60,22 @@ public class EZNuclear {
             FMLCommonHandler.instance()
                 .bus()
                 .register(handler);
+            // pending meltdowns are read when a dimension loads and written with it
+            MinecraftForge.EVENT_BUS.register(new MeltdownPersistence());
+            // reactor registry listens for chunk and world unloads
+            MinecraftForge.EVENT_BUS.register(new ReactorRegistry());
+            // incremental explosions run on server ticks and are dropped with their world
+            ExplosionEngine explosionEngine = new ExplosionEngine();
+            MinecraftForge.EVENT_BUS.register(explosionEngine);
+            FMLCommonHandler.instance()
+                .bus()
+                .register(explosionEngine);
+            // blast chunks are preloaded with chunk tickets, which are not kept across restarts
+            ForgeChunkManager.setForcedChunkLoadingCallback(instance, new BlastPreloader.TicketCallback());
+            // metrics are written to the world folder periodically when enabled
+            FMLCommonHandler.instance()
+                .bus()
+                .register(new MetricsExporter());
             // FMLCommonHandler.instance().bus() may be used for other events if needed
             // LOG.info("PendingMeltdown registered to event bus");
         } catch (Throwable t) {
@@ -62,4 +89,16 @@ public class EZNuclear {
         proxy.postInit(event);
     }
 
+    @Mod.EventHandler
+    // register server commands
+    public void serverStarting(FMLServerStartingEvent event) {
+        proxy.serverStarting(event);
+    }
+
+    @Mod.EventHandler
+    // drop state that would otherwise carry over into the next single-player world
+    public void serverStopped(FMLServerStoppedEvent event) {
+        proxy.serverStopped(event);
+    }
+
 }
@@ -0,0 +1,47 @@
+package com.czqwq.EZNuclear.command;
+
+import java.util.List;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.util.ChatComponentText;
+
+import com.czqwq.EZNuclear.metrics.Metrics;
+
+/**
+ * {@code /eznuclear stats}: the meltdown pipeline's counters and latencies, see {@link Metrics}.
+ */
+public class EZNuclearCommand extends CommandBase {
+
+    @Override
+    public String getCommandName() {
+        return "eznuclear";
+    }
+
+    @Override
+    public String getCommandUsage(ICommandSender sender) {
+        return "/eznuclear stats";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void processCommand(ICommandSender sender, String[] args) {
+        if (args.length != 1 || !"stats".equals(args[0])) {
+            throw new WrongUsageException(getCommandUsage(sender));
+        }
+        for (String line : Metrics.summary()) {
+            sender.addChatMessage(new ChatComponentText(line));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List addTabCompletionOptions(ICommandSender sender, String[] args) {
+        return args.length == 1 ? getListOfStringsMatchingLastWord(args, "stats") : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.czqwq.EZNuclear.data;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+
+/**
+ * Order in which {@link ExplosionGovernor} admits queued explosions, see {@link Config#explosionAdmissionOrder}.
+ */
+public enum AdmissionOrder implements ConfigEnum {
+
+    // Explosions go off in the order they were released
+    OLDEST("oldest"),
+    // Explosions nearest to a player in their dimension go off first; ties and empty dimensions by age
+    CLOSEST_TO_PLAYERS("closest_to_players");
+
+    private final String configName;
+
+    AdmissionOrder(String configName) {
+        this.configName = configName;
+    }
+
+    @Override
+    public String getConfigName() {
+        return configName;
+    }
+}
@@ -0,0 +1,231 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.gen.ChunkProviderServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.ForgeChunkManager;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.explosion.ExplosionEngine;
+
+/**
+ * Loads the chunks of a blast footprint during a meltdown's countdown, so the explosion does not have to load or
+ * generate them synchronously when it goes off.
+ * <p>
+ * Chunks are requested nearest first, {@link Config#preloadChunksPerTick} per tick, through Forge's chunk loading
+ * with a callback: chunks saved on disk are read on the chunk I/O thread, missing chunks are generated on the server
+ * thread. Each chunk is held by a Forge chunk ticket until the explosion is over: {@link #HOLD_TICKS} after the
+ * meltdown task ran, and no earlier than the last incremental crater in the world has finished. At most
+ * {@link Config#maxPreloadChunks} chunks are held across all meltdowns; the rest of a footprint is left to the
+ * explosion.
+ * <p>
+ * Tickets are not kept across restarts. Only used from the server thread.
+ */
+public class BlastPreloader<K> {
+
+    // DE reactor explosions run as processes for a while after their task; keep their chunks that long
+    private static final int HOLD_TICKS = 200;
+
+    // chunk loading callback; the load itself is all that is wanted
+    private static final Runnable LOADED = () -> {};
+
+    private static final class Preload {
+
+        final WorldServer world;
+        // chunk x/z pairs, nearest to the centre first
+        final int[] chunks;
+        int next;
+        final List<ForgeChunkManager.Ticket> tickets = new ArrayList<>();
+        ForgeChunkManager.Ticket current;
+        boolean ticketsExhausted;
+        long releaseTick = -1L;
+
+        Preload(WorldServer world, int[] chunks) {
+            this.world = world;
+            this.chunks = chunks;
+        }
+
+        int chunkCount() {
+            return chunks.length / 2;
+        }
+    }
+
+    private final Map<K, Preload> preloads = new LinkedHashMap<>();
+    // chunks reserved by all preloads, counted against Config.maxPreloadChunks
+    private int reserved;
+    private long tick;
+
+    /**
+     * Start loading the chunks within {@code radius} blocks of a meltdown. Does nothing if preloading is disabled, the
+     * key is already preloading or the chunk cap is used up.
+     */
+    public void start(K key, WorldServer world, double x, double z, double radius) {
+        if (!Config.preloadBlastChunks || world == null || !(radius > 0) || preloads.containsKey(key)) return;
+        int available = Config.maxPreloadChunks - reserved;
+        if (available <= 0) {
+            EZNuclear.LOG.debug("[EZNuclear] Chunk preload cap reached, not preloading blast at [" + x + "," + z + "]");
+            return;
+        }
+        int[] chunks = footprint(x, z, radius, available);
+        if (chunks.length == 0) return;
+        preloads.put(key, new Preload(world, chunks));
+        reserved += chunks.length / 2;
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Preloading " + chunks.length / 2
+                + " chunks for blast at ["
+                + x
+                + ","
+                + z
+                + "] with radius: "
+                + radius);
+    }
+
+    /**
+     * The meltdown's task has run, or will never run: release its chunks once the explosion is over.
+     */
+    public void detonated(K key) {
+        Preload p = preloads.get(key);
+        if (p != null && p.releaseTick < 0) p.releaseTick = tick + HOLD_TICKS;
+    }
+
+    /**
+     * Release every preload without waiting for its explosion, e.g. when the server stops. Tickets of worlds that are
+     * already unloaded went with the world.
+     */
+    public void clear() {
+        for (Preload p : preloads.values()) {
+            if (DimensionManager.getWorld(p.world.provider.dimensionId) == p.world) release(p);
+        }
+        preloads.clear();
+        reserved = 0;
+    }
+
+    public int preloadCount() {
+        return preloads.size();
+    }
+
+    public int reservedChunks() {
+        return reserved;
+    }
+
+    /**
+     * Request the next chunks and release preloads whose explosion is over.
+     */
+    public void tick() {
+        tick++;
+        if (preloads.isEmpty()) return;
+        int loads = Config.preloadChunksPerTick;
+        Iterator<Preload> it = preloads.values()
+            .iterator();
+        while (it.hasNext()) {
+            Preload p = it.next();
+            if (DimensionManager.getWorld(p.world.provider.dimensionId) != p.world) {
+                // the world was unloaded and took its tickets with it
+                reserved -= p.chunkCount();
+                it.remove();
+                continue;
+            }
+            if (p.releaseTick >= 0) {
+                if (tick >= p.releaseTick && !ExplosionEngine.hasJobsIn(p.world)) {
+                    release(p);
+                    it.remove();
+                }
+                continue;
+            }
+            loads = load(p, loads);
+        }
+    }
+
+    // force and request chunks until the per-tick load allowance is used; chunks already loaded are only forced
+    private int load(Preload p, int loads) {
+        ChunkProviderServer provider = p.world.theChunkProviderServer;
+        while (p.next < p.chunks.length) {
+            int cx = p.chunks[p.next], cz = p.chunks[p.next + 1];
+            boolean loaded = provider.chunkExists(cx, cz);
+            if (!loaded && loads <= 0) break;
+            force(p, new ChunkCoordIntPair(cx, cz));
+            if (!loaded) {
+                provider.loadChunk(cx, cz, LOADED);
+                loads--;
+            }
+            p.next += 2;
+        }
+        return loads;
+    }
+
+    private void force(Preload p, ChunkCoordIntPair chunk) {
+        if (p.ticketsExhausted) return;
+        // a full ticket would drop its oldest chunk, so start a new one
+        if (p.current == null || p.current.getChunkListDepth() >= p.current.getMaxChunkListDepth()) {
+            p.current = ForgeChunkManager.requestTicket(EZNuclear.instance, p.world, ForgeChunkManager.Type.NORMAL);
+            if (p.current == null) {
+                // chunks are still loaded, but may be unloaded again before the explosion
+                p.ticketsExhausted = true;
+                EZNuclear.LOG.warn("[EZNuclear] Out of chunk tickets, blast chunks are loaded but not held");
+                return;
+            }
+            p.tickets.add(p.current);
+        }
+        ForgeChunkManager.forceChunk(p.current, chunk);
+    }
+
+    private void release(Preload p) {
+        for (ForgeChunkManager.Ticket ticket : p.tickets) {
+            ForgeChunkManager.releaseTicket(ticket);
+        }
+        reserved -= p.chunkCount();
+        EZNuclear.LOG.debug("[EZNuclear] Released " + p.chunkCount() + " preloaded blast chunks");
+    }
+
+    // chunk coordinates within radius of the centre, nearest first, at most limit of them
+    private static int[] footprint(double x, double z, double radius, int limit) {
+        int centreX = (int) Math.floor(x) >> 4, centreZ = (int) Math.floor(z) >> 4;
+        // nearest first, so no ring beyond the one that holds limit chunks is needed
+        int r = (int) Math.min(Math.ceil(radius / 16.0) + 1, Math.ceil(Math.sqrt(limit)) + 1);
+        // a chunk is in the footprint if its nearest block is within the radius
+        double reach = radius + 16.0 * Math.sqrt(2.0);
+        long reachSq = (long) Math.ceil(reach * reach / 256.0);
+        int side = 2 * r + 1;
+        long[] sorted = new long[side * side];
+        int n = 0;
+        for (int dx = -r; dx <= r; dx++) {
+            for (int dz = -r; dz <= r; dz++) {
+                long distSq = (long) dx * dx + (long) dz * dz;
+                if (distSq > reachSq) continue;
+                // distance in the high bits, offsets in the low bits, so sorting orders by distance
+                sorted[n++] = distSq << 24 | (long) (dx + 2048) << 12 | (dz + 2048);
+            }
+        }
+        Arrays.sort(sorted, 0, n);
+        int count = Math.min(n, limit);
+        int[] chunks = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            chunks[2 * i] = centreX + (int) ((sorted[i] >> 12) & 0xFFF) - 2048;
+            chunks[2 * i + 1] = centreZ + (int) (sorted[i] & 0xFFF) - 2048;
+        }
+        return chunks;
+    }
+
+    /**
+     * Releases the tickets Forge restores for EZNuclear when a world loads; preloads do not survive a restart.
+     */
+    public static class TicketCallback implements ForgeChunkManager.LoadingCallback {
+
+        @Override
+        public void ticketsLoaded(List<ForgeChunkManager.Ticket> tickets, World world) {
+            for (ForgeChunkManager.Ticket ticket : tickets) {
+                ForgeChunkManager.releaseTicket(ticket);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Arrays;
+
+/**
+ * Meltdowns of one kind that go off as a single explosion: the sources in the order they were merged, the first one
+ * being the meltdown whose task runs the explosion.
+ */
+final class CoalescedBlast {
+
+    // scheduler tick of the first meltdown; later ones merge only within the time window from here
+    final long startTick;
+    private int[] positions = new int[3 * 4];
+    private float[] powers = new float[4];
+    private int count;
+    private double sumX, sumY, sumZ;
+
+    CoalescedBlast(long startTick, int x, int y, int z, float power) {
+        this.startTick = startTick;
+        add(x, y, z, power);
+    }
+
+    void add(int x, int y, int z, float power) {
+        if (count == powers.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+            powers = Arrays.copyOf(powers, powers.length * 2);
+        }
+        positions[3 * count] = x;
+        positions[3 * count + 1] = y;
+        positions[3 * count + 2] = z;
+        powers[count++] = power;
+        sumX += x + 0.5D;
+        sumY += y + 0.5D;
+        sumZ += z + 0.5D;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int x(int i) {
+        return positions[3 * i];
+    }
+
+    int y(int i) {
+        return positions[3 * i + 1];
+    }
+
+    int z(int i) {
+        return positions[3 * i + 2];
+    }
+
+    float power(int i) {
+        return powers[i];
+    }
+
+    double centroidX() {
+        return sumX / count;
+    }
+
+    double centroidY() {
+        return sumY / count;
+    }
+
+    double centroidZ() {
+        return sumZ / count;
+    }
+
+    /**
+     * @return true if the block at x/y/z is within {@code radius} blocks of the centroid
+     */
+    boolean reaches(int x, int y, int z, double radius) {
+        double dx = x + 0.5D - centroidX(), dy = y + 0.5D - centroidY(), dz = z + 0.5D - centroidZ();
+        return dx * dx + dy * dy + dz * dz <= radius * radius;
+    }
+
+    float power(PowerAggregation aggregation) {
+        return aggregation.combine(powers, count);
+    }
+}
@@ -0,0 +1,36 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.brandon3055.draconicevolution.common.utils.handlers.IProcess;
+
+/**
+ * The processes run by {@code ProcessHandlerMixin}, kept outside the mixin so they can be dropped when the server
+ * stops.
+ * <p>
+ * The mixin takes over DE's ProcessHandler: every process DE is given ends up here, and DE's own {@code processes}
+ * list is emptied each tick. DE code reading that list sees no running processes.
+ */
+public final class DEProcesses {
+
+    /**
+     * Processes added through addProcess, from any thread. Lock-free; only the server thread takes from it, at the
+     * start of its tick.
+     */
+    public static final Queue<IProcess> INCOMING = new ConcurrentLinkedQueue<>();
+
+    // Live processes in round-robin order
+    public static final ProcessRing RING = new ProcessRing();
+
+    private DEProcesses() {}
+
+    /**
+     * Drop every process. The handler is static, so without this the explosions of a single-player world that was
+     * closed would go on running against that world in the next one.
+     */
+    public static void clear() {
+        INCOMING.clear();
+        RING.clear();
+    }
+}
@@ -0,0 +1,176 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Admission control between {@link PendingMeltdown} and the explosion factories.
+ * <p>
+ * Explosions released by the scheduler, the chat commands or the reactor scan are queued here instead of going off
+ * on the spot. Once per server tick {@link #admit} runs queued explosions in {@link AdmissionOrder} until
+ * {@link Config#maxExplosionsPerTick} have gone off or {@link Config#explosionAdmissionBudgetMs} has passed, and
+ * leaves the rest for the next tick. At least one explosion is admitted per tick, so the queue always drains.
+ * <p>
+ * Keys are unique like in {@link MeltdownScheduler}: queueing a key that is already waiting keeps the waiting
+ * explosion. Only used from the server thread.
+ */
+public class ExplosionGovernor<K> {
+
+    // player distances are kept for this many admission rounds, about a second at one round per tick
+    private static final int DISTANCE_REFRESH_ROUNDS = 20;
+    // nearest first, oldest first among equals
+    private static final Comparator<Entry<?>> CLOSEST = (a, b) -> {
+        int c = Double.compare(a.distanceSq, b.distanceSq);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    };
+
+    private static final class Entry<K> {
+
+        final K key;
+        final int dimension;
+        final double x, y, z;
+        final long seq;
+        final Runnable task;
+        // squared distance to the nearest player, and the admission round it was measured in
+        double distanceSq;
+        // rounds start at 1, so a new entry is measured in its first round
+        long distanceRound = -DISTANCE_REFRESH_ROUNDS;
+
+        Entry(K key, int dimension, double x, double y, double z, long seq, Runnable task) {
+            this.key = key;
+            this.dimension = dimension;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.seq = seq;
+            this.task = task;
+        }
+    }
+
+    // insertion order is age order
+    private final Map<K, Entry<K>> queued = new LinkedHashMap<>();
+    private long nextSeq;
+    private long round;
+
+    /**
+     * Queue an explosion.
+     *
+     * @return false if an explosion with this key is already waiting; the new one is discarded
+     */
+    public boolean submit(K key, int dimension, double x, double y, double z, Runnable task) {
+        if (queued.containsKey(key)) return false;
+        queued.put(key, new Entry<>(key, dimension, x, y, z, nextSeq++, task));
+        return true;
+    }
+
+    public boolean isQueued(K key) {
+        return queued.containsKey(key);
+    }
+
+    public int size() {
+        return queued.size();
+    }
+
+    /**
+     * Drop every queued explosion without running it.
+     *
+     * @return the number of explosions dropped
+     */
+    public int clear() {
+        int dropped = queued.size();
+        queued.clear();
+        return dropped;
+    }
+
+    /**
+     * Run queued explosions within the given limits.
+     *
+     * @return the number of explosions that went off
+     */
+    public int admit(int maxCount, long budgetNanos, AdmissionOrder order) {
+        if (queued.isEmpty()) return 0;
+        long start = System.nanoTime();
+        round++;
+        // pick at most maxCount up front: running them may queue follow-ups, so the map is not iterated meanwhile
+        List<Entry<K>> candidates = order == AdmissionOrder.CLOSEST_TO_PLAYERS && queued.size() > 1
+            ? closestToPlayers(maxCount)
+            : oldest(maxCount);
+
+        int admitted = 0;
+        for (Entry<K> e : candidates) {
+            if (admitted > 0 && (admitted >= maxCount || System.nanoTime() - start >= budgetNanos)) break;
+            // the entry leaves the queue before it runs, so the explosion may queue follow-ups for the same key
+            queued.remove(e.key);
+            try {
+                e.task.run();
+            } catch (Throwable t) {
+                EZNuclear.LOG.error("[EZNuclear] Queued explosion failed: " + t.getMessage(), t);
+            }
+            admitted++;
+        }
+        if (!queued.isEmpty()) {
+            EZNuclear.LOG.debug(
+                "[EZNuclear] Admitted " + admitted
+                    + " explosions in "
+                    + (System.nanoTime() - start) / 1000000L
+                    + "ms, "
+                    + queued.size()
+                    + " still queued");
+        }
+        return admitted;
+    }
+
+    private List<Entry<K>> oldest(int maxCount) {
+        List<Entry<K>> picked = new ArrayList<>(Math.min(Math.max(maxCount, 1), queued.size()));
+        for (Entry<K> e : queued.values()) {
+            picked.add(e);
+            if (picked.size() >= maxCount) break;
+        }
+        return picked;
+    }
+
+    private List<Entry<K>> closestToPlayers(int maxCount) {
+        MinecraftServer server = MinecraftServer.getServer();
+        List<?> players = server != null && server.getConfigurationManager() != null
+            ? server.getConfigurationManager().playerEntityList
+            : null;
+        int limit = Math.min(Math.max(maxCount, 1), queued.size());
+        // bounded max-heap of the nearest entries seen so far, its head is the farthest of them
+        PriorityQueue<Entry<K>> nearest = new PriorityQueue<>(limit + 1, Collections.reverseOrder(CLOSEST));
+        for (Entry<K> e : queued.values()) {
+            if (round - e.distanceRound >= DISTANCE_REFRESH_ROUNDS) measure(e, players);
+            if (nearest.size() < limit) {
+                nearest.add(e);
+            } else if (CLOSEST.compare(e, nearest.peek()) < 0) {
+                nearest.poll();
+                nearest.add(e);
+            }
+        }
+        List<Entry<K>> picked = new ArrayList<>(nearest);
+        Collections.sort(picked, CLOSEST);
+        return picked;
+    }
+
+    private void measure(Entry<K> e, List<?> players) {
+        e.distanceRound = round;
+        e.distanceSq = Double.MAX_VALUE;
+        if (players == null) return;
+        for (Object o : players) {
+            EntityPlayerMP p = (EntityPlayerMP) o;
+            if (p == null || p.dimension != e.dimension) continue;
+            double dx = p.posX - e.x, dy = p.posY - e.y, dz = p.posZ - e.z;
+            e.distanceSq = Math.min(e.distanceSq, dx * dx + dy * dy + dz * dz);
+        }
+    }
+}
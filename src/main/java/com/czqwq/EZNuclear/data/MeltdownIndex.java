@@ -0,0 +1,175 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Chunk-bucketed spatial index over the positions of a {@link MeltdownTable}, one map per dimension.
+ * <p>
+ * Every position sits in the bucket of its chunk column, so "in this chunk" is a single lookup and a radius query only
+ * visits the chunks its bounding square covers, or the occupied chunks when there are fewer of those. The index holds
+ * packed positions only; the table filters the candidates by state. Not thread-safe: the table calls it under its own
+ * lock.
+ */
+final class MeltdownIndex {
+
+    // returned by nearest when nothing matched; pack() never produces it for a position inside the world border
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final class Bucket {
+
+        long[] keys = new long[2];
+        int size;
+    }
+
+    private final Map<Integer, Map<Long, Bucket>> dims = new HashMap<>();
+
+    private static long chunkKey(long cx, long cz) {
+        return (cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static long chunkOf(long key) {
+        return chunkKey(MeltdownTable.unpackX(key) >> 4, MeltdownTable.unpackZ(key) >> 4);
+    }
+
+    static long distanceSq(long key, int x, int y, int z) {
+        long dx = MeltdownTable.unpackX(key) - x;
+        long dy = MeltdownTable.unpackY(key) - y;
+        long dz = MeltdownTable.unpackZ(key) - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    void add(long key, int dim) {
+        Bucket b = dims.computeIfAbsent(dim, d -> new HashMap<>())
+            .computeIfAbsent(chunkOf(key), c -> new Bucket());
+        if (b.size == b.keys.length) b.keys = Arrays.copyOf(b.keys, b.size * 2);
+        b.keys[b.size++] = key;
+    }
+
+    void remove(long key, int dim) {
+        Map<Long, Bucket> chunks = dims.get(dim);
+        if (chunks == null) return;
+        long chunk = chunkOf(key);
+        Bucket b = chunks.get(chunk);
+        if (b == null) return;
+        for (int i = 0; i < b.size; i++) {
+            if (b.keys[i] != key) continue;
+            b.keys[i] = b.keys[--b.size];
+            if (b.size == 0) {
+                chunks.remove(chunk);
+                if (chunks.isEmpty()) dims.remove(dim);
+            }
+            return;
+        }
+    }
+
+    void clear() {
+        dims.clear();
+    }
+
+    /**
+     * @return the dimensions holding at least one position
+     */
+    int[] dimensions() {
+        int[] out = new int[dims.size()];
+        int n = 0;
+        for (Integer dim : dims.keySet()) {
+            out[n++] = dim;
+        }
+        return out;
+    }
+
+    void inChunk(int dim, int cx, int cz, LongConsumer out) {
+        Map<Long, Bucket> chunks = dims.get(dim);
+        if (chunks == null) return;
+        Bucket b = chunks.get(chunkKey(cx, cz));
+        if (b == null) return;
+        for (int i = 0; i < b.size; i++) {
+            out.accept(b.keys[i]);
+        }
+    }
+
+    /**
+     * Visit every position within {@code radius} blocks (euclidean) of x/y/z.
+     */
+    void within(int dim, int x, int y, int z, int radius, LongConsumer out) {
+        Map<Long, Bucket> chunks = dims.get(dim);
+        if (chunks == null) return;
+        long r2 = (long) radius * radius;
+        long minCx = (x - (long) radius) >> 4, maxCx = (x + (long) radius) >> 4;
+        long minCz = (z - (long) radius) >> 4, maxCz = (z + (long) radius) >> 4;
+        if ((maxCx - minCx + 1) * (maxCz - minCz + 1) > chunks.size()) {
+            // the square covers more chunks than are occupied; walking the occupied ones is cheaper
+            for (Bucket b : chunks.values()) {
+                visit(b, x, y, z, r2, out);
+            }
+            return;
+        }
+        for (long cx = minCx; cx <= maxCx; cx++) {
+            for (long cz = minCz; cz <= maxCz; cz++) {
+                Bucket b = chunks.get(chunkKey(cx, cz));
+                if (b != null) visit(b, x, y, z, r2, out);
+            }
+        }
+    }
+
+    private static void visit(Bucket b, int x, int y, int z, long r2, LongConsumer out) {
+        for (int i = 0; i < b.size; i++) {
+            if (distanceSq(b.keys[i], x, y, z) <= r2) out.accept(b.keys[i]);
+        }
+    }
+
+    /**
+     * Find the accepted position closest to x/y/z, at most {@code maxRadius} blocks away. Chunks are searched in
+     * square rings around the one holding x/z, stopping once no closer position can be left.
+     *
+     * @return the packed position, or {@link #NONE}
+     */
+    long nearest(int dim, int x, int y, int z, int maxRadius, LongPredicate accept) {
+        Map<Long, Bucket> chunks = dims.get(dim);
+        if (chunks == null) return NONE;
+        long[] best = { NONE, (long) maxRadius * maxRadius };
+        long cx = x >> 4, cz = z >> 4;
+        long rings = (maxRadius >> 4) + 1;
+        for (long r = 0; r <= rings; r++) {
+            // every block of ring r is more than (r - 1) * 16 blocks away along x or z
+            long near = r == 0 ? 0 : (r - 1) * 16 + 1;
+            if (best[0] != NONE && near * near > best[1]) break;
+            if ((2 * r + 1) * (2 * r + 1) > chunks.size()) {
+                // the rings left cover more chunks than are occupied; check the occupied ones instead
+                for (Bucket b : chunks.values()) {
+                    closer(b, x, y, z, accept, best);
+                }
+                break;
+            }
+            if (r == 0) {
+                closer(chunks.get(chunkKey(cx, cz)), x, y, z, accept, best);
+                continue;
+            }
+            for (long i = -r; i <= r; i++) {
+                closer(chunks.get(chunkKey(cx + i, cz - r)), x, y, z, accept, best);
+                closer(chunks.get(chunkKey(cx + i, cz + r)), x, y, z, accept, best);
+            }
+            for (long j = -r + 1; j < r; j++) {
+                closer(chunks.get(chunkKey(cx - r, cz + j)), x, y, z, accept, best);
+                closer(chunks.get(chunkKey(cx + r, cz + j)), x, y, z, accept, best);
+            }
+        }
+        return best[0];
+    }
+
+    // best holds the closest key so far and its squared distance, or the squared search radius while there is none
+    private static void closer(Bucket b, int x, int y, int z, LongPredicate accept, long[] best) {
+        if (b == null) return;
+        for (int i = 0; i < b.size; i++) {
+            long d = distanceSq(b.keys[i], x, y, z);
+            if ((best[0] == NONE ? d <= best[1] : d < best[1]) && accept.test(b.keys[i])) {
+                best[0] = b.keys[i];
+                best[1] = d;
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.czqwq.EZNuclear.data;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ChunkCoordinates;
+import net.minecraft.world.World;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.metrics.Metrics;
+import com.czqwq.EZNuclear.util.MessageUtils;
+
+/**
+ * What happens when a reactor melts down: the bodies of {@code IC2ExplosionMixin} and {@code TileReactorCoreMixin},
+ * kept out of the mixins so they can also be driven without a mixin environment.
+ */
+public final class MeltdownInterceptor {
+
+    private MeltdownInterceptor() {}
+
+    /**
+     * Called for every IC2 nuclear explosion.
+     *
+     * @param explosion the ExplosionIC2, checked for the permit of explosions this mod set off itself
+     * @return true if the explosion must be cancelled
+     */
+    public static boolean onNuclearExplosion(Object explosion, World world, int ex, int ey, int ez, float size) {
+        // Explosions this mod created itself carry a permit and proceed without further processing
+        if (PendingMeltdown.consumePermit(explosion)) return false;
+
+        ChunkCoordinates pos = new ChunkCoordinates(ex, ey, ez);
+        int dimension = (world != null) ? world.provider.dimensionId : 0;
+
+        // Check if IC2 explosions are disabled in config
+        if (!Config.IC2Explosion) {
+            // Even if explosion is disabled, still send the message to players
+            if (MinecraftServer.getServer() != null
+                && !PendingMeltdown.isScheduled(pos, dimension, MeltdownKind.IC2_PREVENTED)) {
+                // counted once per meltdown, not for every repeat while its follow-up is pending
+                Metrics.intercepted(MeltdownKind.IC2_PREVENTED, ex, ey, ez, dimension, size);
+                MessageUtils.notify("info.ezunclear", dimension, ex, ey, ez);
+
+                // Schedule the second message after delay using PendingMeltdown system
+                PendingMeltdown.scheduleMeltdown(
+                    new TaskDescriptor(MeltdownKind.IC2_PREVENTED, ex, ey, ez, dimension, 0.0F),
+                    Config.explosionDelaySeconds * 1000L,
+                    0.0D);
+            }
+            return true;
+        }
+
+        // Check if this position has recently had a manual trigger to prevent duplicate processing
+        if (PendingMeltdown.shouldIgnoreExplosionAt(pos, dimension)) {
+            return false; // Skip processing for this position
+        }
+
+        // The reactor may explode again while its deferred explosion is pending; that one is enough
+        if (!Config.requireCommandToExplode
+            && PendingMeltdown.isScheduled(pos, dimension, MeltdownKind.IC2_EXPLOSION)) {
+            return true;
+        }
+
+        // Only run on server side
+        if (MinecraftServer.getServer() == null) return false;
+        Metrics.intercepted(MeltdownKind.IC2_EXPLOSION, ex, ey, ez, dimension, size);
+
+        // Send initial message to players (run on server thread directly)
+        try {
+            MessageUtils.notify("info.ezunclear", dimension, ex, ey, ez);
+        } catch (Throwable t) {
+            Metrics.failed(MeltdownKind.IC2_EXPLOSION);
+            EZNuclear.LOG.warn("[EZNuclear] Could not notify players of the IC2 meltdown at " + pos, t);
+        }
+
+        // Cancel the explosion either way: it waits for a player, or goes off after the delay
+        if (Config.requireCommandToExplode) {
+            // Mark this position for manual trigger with the configured power
+            PendingMeltdown.markManualTriggerWithPower(pos, dimension, Config.IC2ExplosionPower);
+        } else {
+            // The chunks the blast will reach are loaded during the countdown, and nearby reactors melting down
+            // together go off as one explosion
+            double blastRadius = com.czqwq.EZNuclear.explosion.ExplosionEngine.nuclearRadius(size);
+
+            // Use PendingMeltdown system for consistency; the pending task keeps the position and power, not this
+            // explosion, and sets off a fresh nuclear explosion there when it runs
+            PendingMeltdown.scheduleMeltdown(
+                new TaskDescriptor(MeltdownKind.IC2_EXPLOSION, ex, ey, ez, dimension, size),
+                Config.explosionDelaySeconds * 1000L,
+                blastRadius);
+        }
+        return true;
+    }
+
+    /**
+     * Called every time a Draconic Evolution reactor core calls goBoom.
+     *
+     * @return true if goBoom must be cancelled
+     */
+    public static boolean onReactorGoBoom(TileEntity te) {
+        ChunkCoordinates pos = new ChunkCoordinates(te.xCoord, te.yCoord, te.zCoord);
+
+        // Get dimension for position tracking
+        int dimension = 0;
+        if (te.getWorldObj() != null) {
+            try {
+                dimension = te.getWorldObj().provider.dimensionId;
+            } catch (Exception e) {
+                EZNuclear.LOG
+                    .warn("[EZNuclear] Could not get dimension from world, using default 0: " + e.getMessage());
+            }
+        }
+
+        // Check if DE explosions are disabled in config
+        if (!Config.DEExplosion) {
+            // Even if explosion is disabled, still send the message to players (once per pending follow-up)
+            MinecraftServer server = MinecraftServer.getServer();
+            if (server != null && !PendingMeltdown.isScheduled(pos, dimension, MeltdownKind.DE_PREVENTED)) {
+                Metrics.intercepted(
+                    MeltdownKind.DE_PREVENTED,
+                    pos.posX,
+                    pos.posY,
+                    pos.posZ,
+                    dimension,
+                    (float) Config.DEExplosionPower);
+                MessageUtils.notify("info.ezunclear", dimension, pos.posX, pos.posY, pos.posZ);
+
+                // Schedule the second message after delay using actual position
+                PendingMeltdown.scheduleMeltdown(
+                    new TaskDescriptor(MeltdownKind.DE_PREVENTED, pos.posX, pos.posY, pos.posZ, dimension, 0.0F),
+                    Config.explosionDelaySeconds * 1000L,
+                    0.0D);
+            }
+            return true;
+        }
+
+        // Check if this position has recently had a manual trigger to prevent duplicate processing
+        if (PendingMeltdown.shouldIgnoreExplosionAt(pos, dimension)) {
+            return false; // Skip processing for this position
+        }
+
+        if (PendingMeltdown.consumeReentry(pos, dimension)) {
+            return false; // allow original goBoom
+        }
+
+        // A failing reactor keeps calling goBoom; once its countdown is running there is nothing more to do, and
+        // while the task limit that dropped it is still reached it stays cancelled without being counted again
+        if (PendingMeltdown.isScheduled(pos, dimension, MeltdownKind.DE_EXPLOSION)
+            || PendingMeltdown.isDroppedAtLimit(pos, dimension, MeltdownKind.DE_EXPLOSION)) {
+            return true;
+        }
+
+        Metrics.intercepted(
+            MeltdownKind.DE_EXPLOSION,
+            pos.posX,
+            pos.posY,
+            pos.posZ,
+            dimension,
+            (float) Config.DEExplosionPower);
+        // In auto mode the chunks the blast will reach are loaded during the countdown
+        double blastRadius = Config.requireCommandToExplode ? 0.0D
+            : com.czqwq.EZNuclear.explosion.ExplosionEngine.reactorRadius((float) Config.DEExplosionPower);
+        // and nearby reactors melting down together go off as one explosion
+        float power = (float) Config.DEExplosionPower;
+        // the pending task keeps the position and power, not this tile entity; the reactor is looked up again when the
+        // countdown ends
+        if (PendingMeltdown.scheduleMeltdown(
+            new TaskDescriptor(MeltdownKind.DE_EXPLOSION, pos.posX, pos.posY, pos.posZ, dimension, power),
+            Config.explosionDelaySeconds * 1000L,
+            blastRadius) == null) {
+            // dropped at the task limit and counted there: cancelled like an IC2 explosion rather than let through
+            // without a countdown or a warning. The reactor keeps calling goBoom and is scheduled once there is room
+            return true;
+        }
+
+        // Check if manual trigger is required
+        if (Config.requireCommandToExplode) {
+            // Mark this position for DE manual trigger with configured power
+            PendingMeltdown.markDEManualTriggerWithPower(pos, dimension >= 0 ? dimension : 0, Config.DEExplosionPower);
+        }
+
+        World world = te.getWorldObj();
+        if (world != null && world.isRemote) {
+            MessageUtils.sendToSinglePlayer("info.ezunclear");
+        } else {
+            MessageUtils.notify("info.ezunclear", dimension, pos.posX, pos.posY, pos.posZ);
+        }
+        return true;
+    }
+}
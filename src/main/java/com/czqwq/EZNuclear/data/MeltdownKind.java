@@ -0,0 +1,34 @@
+package com.czqwq.EZNuclear.data;
+
+/**
+ * What a scheduled meltdown task does. Together with the position and dimension it identifies a task in
+ * {@link PendingMeltdown}, so a position holds at most one pending task of each kind.
+ */
+public enum MeltdownKind {
+
+    // Tasks scheduled through the overloads that do not name a kind
+    GENERIC(true),
+    // Deferred IC2 nuclear explosion
+    IC2_EXPLOSION(true),
+    // Follow-up message for an IC2 explosion prevented by config
+    IC2_PREVENTED(false),
+    // Deferred Draconic Evolution reactor explosion
+    DE_EXPLOSION(true),
+    // Follow-up message for a DE explosion prevented by config
+    DE_PREVENTED(false),
+    // Meltdown of an overheated reactor found by the periodic scan
+    REACTOR_SCAN(true);
+
+    private final boolean explosion;
+
+    MeltdownKind(boolean explosion) {
+        this.explosion = explosion;
+    }
+
+    /**
+     * @return true if tasks of this kind set off an explosion and go through the {@link ExplosionGovernor}
+     */
+    public boolean isExplosion() {
+        return explosion;
+    }
+}
@@ -0,0 +1,54 @@
+package com.czqwq.EZNuclear.data;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+
+import com.czqwq.EZNuclear.Config;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+
+/**
+ * Keeps pending meltdowns across restarts: each dimension's state is read into {@link PendingMeltdown} when the
+ * dimension loads and written with the world, see {@link MeltdownStore}.
+ * <p>
+ * Only used from the server thread.
+ */
+public class MeltdownPersistence {
+
+    private static final String FILE_NAME = "eznuclear_meltdowns";
+
+    // dimension -> store of the loaded world
+    private static final Map<Integer, MeltdownStore> STORES = new HashMap<>();
+
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (!Config.persistMeltdowns || !(event.world instanceof WorldServer)) return;
+        WorldServer world = (WorldServer) event.world;
+        // The save handler is shared by all dimensions and its map files all live in the overworld's data folder, so
+        // the file goes in the dimension's own folder instead (the save itself for the overworld, DIM-1 and so on for
+        // the others), where Forge keeps the dimension's per-world data
+        File file = new File(new File(world.getChunkSaveLocation(), "data"), FILE_NAME + ".dat");
+        MeltdownStore store = new MeltdownStore(file);
+        STORES.put(world.provider.dimensionId, store);
+        PendingMeltdown.restore(world, store.load());
+    }
+
+    @SubscribeEvent
+    public void onWorldSave(WorldEvent.Save event) {
+        if (event.world == null || event.world.isRemote) return;
+        int dim = event.world.provider.dimensionId;
+        MeltdownStore store = STORES.get(dim);
+        if (store == null) return;
+        store.save(PendingMeltdown.persistentRecords(dim, event.world.getTotalWorldTime()));
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world == null || event.world.isRemote) return;
+        STORES.remove(event.world.provider.dimensionId);
+    }
+}
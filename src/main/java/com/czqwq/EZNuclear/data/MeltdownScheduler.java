@@ -0,0 +1,333 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel backing the {@link PendingMeltdown} task scheduler.
+ * <p>
+ * Time is counted in server ticks. Level 0 has one slot per tick for the next 256 ticks, level 1 has one slot per
+ * 256 ticks for the next 16384 ticks (about 13 minutes), and anything further away waits in an overflow list that is
+ * folded back into the wheel once per level 1 revolution. Inserting and cancelling a task is O(1), a task is cascaded
+ * at most twice before it fires, and a tick with nothing due only looks at one or two slot heads.
+ * <p>
+ * Expiry is built into the same structure: a task whose timeout runs out before it is due fires on its expiry tick
+ * and is handed back with {@link Task#isExpired()} set instead of being run.
+ * <p>
+ * Keys are unique: scheduling a key that already has a pending task returns the existing task. The key index keeps
+ * insertion order, which makes the oldest pending task available in O(1).
+ * <p>
+ * All methods are synchronized; fired tasks are returned as a detached chain so they can be run outside the lock
+ * without allocating anything per tick.
+ */
+public class MeltdownScheduler<K> {
+
+    private static final int L0_BITS = 8;
+    private static final int L0_SIZE = 1 << L0_BITS;
+    private static final int L0_MASK = L0_SIZE - 1;
+    private static final int L1_BITS = 6;
+    private static final int L1_SIZE = 1 << L1_BITS;
+    private static final int L1_MASK = L1_SIZE - 1;
+    private static final long L1_SPAN = (long) L0_SIZE * L1_SIZE;
+
+    private static final int LEVEL_NONE = -1;
+    private static final int LEVEL_0 = 0;
+    private static final int LEVEL_1 = 1;
+    private static final int LEVEL_OVERFLOW = 2;
+
+    public static final class Task<K> {
+
+        final K key;
+        Runnable task;
+        final long dueTick;
+        final long fireTick;
+
+        // intrusive list links; level == LEVEL_NONE once the task has left the wheel
+        Task<K> prev;
+        Task<K> next;
+        int level = LEVEL_NONE;
+        int slot;
+
+        Task(K key, Runnable task, long dueTick, long fireTick) {
+            this.key = key;
+            this.task = task;
+            this.dueTick = dueTick;
+            this.fireTick = fireTick;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public Runnable getTask() {
+            return task;
+        }
+
+        public long getDueTick() {
+            return dueTick;
+        }
+
+        /**
+         * @return the next task of a chain returned by {@link #advance()} or {@link #drainAll()}
+         */
+        public Task<K> getNext() {
+            return next;
+        }
+
+        /**
+         * @return true if this task was handed back because its timeout elapsed before it became due
+         */
+        public boolean isExpired() {
+            return fireTick < dueTick;
+        }
+
+        public boolean isScheduled() {
+            return level != LEVEL_NONE;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Task<K>[] level0 = new Task[L0_SIZE];
+    @SuppressWarnings("unchecked")
+    private final Task<K>[] level1 = new Task[L1_SIZE];
+    private Task<K> overflow;
+    private final Map<K, Task<K>> index = new LinkedHashMap<>();
+
+    // last tick that has been processed by advance()
+    private long currentTick;
+    private int size;
+
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the pending task for the key, or null
+     */
+    public synchronized Task<K> get(K key) {
+        return index.get(key);
+    }
+
+    /**
+     * @return the pending task that was scheduled first, or null
+     */
+    public synchronized Task<K> oldest() {
+        Iterator<Task<K>> it = index.values()
+            .iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * @return a snapshot of the pending tasks in scheduling order
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Task<K>[] snapshot() {
+        return index.values()
+            .toArray(new Task[0]);
+    }
+
+    /**
+     * Append work to a pending task; it runs right after the task's own work when the task fires.
+     */
+    public synchronized void merge(Task<K> into, Runnable extra) {
+        Runnable first = into.task;
+        into.task = () -> {
+            try {
+                first.run();
+            } finally {
+                extra.run();
+            }
+        };
+    }
+
+    /**
+     * Schedule a task. If a task with the same key is already pending, that task is returned unchanged.
+     *
+     * @param delayTicks   ticks from now until the task is due; values below one run on the next tick
+     * @param timeoutTicks ticks from now after which the task is dropped as expired, or a non-positive value for none
+     */
+    public synchronized Task<K> schedule(K key, Runnable task, long delayTicks, long timeoutTicks) {
+        Task<K> existing = index.get(key);
+        if (existing != null) return existing;
+        long due = currentTick + Math.max(1L, delayTicks);
+        long fire = due;
+        if (timeoutTicks > 0) {
+            fire = Math.min(due, currentTick + Math.max(1L, timeoutTicks));
+        }
+        Task<K> t = new Task<>(key, task, due, fire);
+        insert(t, currentTick + 1);
+        index.put(key, t);
+        size++;
+        return t;
+    }
+
+    /**
+     * Cancel a scheduled task. Does nothing if the task already fired or was removed.
+     */
+    public synchronized boolean cancel(Task<K> t) {
+        if (t == null || t.level == LEVEL_NONE) return false;
+        unlink(t);
+        index.remove(t.key);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the wheel forward by one tick.
+     *
+     * @return the head of the chain of tasks that fired on this tick (follow {@link Task#getNext()}), or null
+     */
+    public synchronized Task<K> advance() {
+        long tick = ++currentTick;
+        if (size == 0) return null;
+
+        if ((tick & L0_MASK) == 0) {
+            if ((tick & (L1_SPAN - 1)) == 0 && overflow != null) {
+                Task<K> t = overflow;
+                overflow = null;
+                cascade(t, tick);
+            }
+            int s = (int) ((tick >>> L0_BITS) & L1_MASK);
+            Task<K> t = level1[s];
+            if (t != null) {
+                level1[s] = null;
+                cascade(t, tick);
+            }
+        }
+
+        int s = (int) (tick & L0_MASK);
+        Task<K> fired = level0[s];
+        if (fired == null) return null;
+        level0[s] = null;
+        for (Task<K> t = fired; t != null; t = t.next) {
+            t.level = LEVEL_NONE;
+            index.remove(t.key);
+            size--;
+        }
+        return fired;
+    }
+
+    /**
+     * Remove every scheduled task.
+     *
+     * @return the removed tasks as a chain, roughly in due order
+     */
+    public synchronized Task<K> drainAll() {
+        Task<K> sentinel = new Task<>(null, null, 0L, 0L);
+        Task<K> tail = sentinel;
+        for (int i = 1; i <= L0_SIZE; i++) {
+            int s = (int) ((currentTick + i) & L0_MASK);
+            tail = detach(level0[s], tail);
+            level0[s] = null;
+        }
+        for (int i = 1; i <= L1_SIZE; i++) {
+            int s = (int) (((currentTick >>> L0_BITS) + i) & L1_MASK);
+            tail = detach(level1[s], tail);
+            level1[s] = null;
+        }
+        detach(overflow, tail);
+        overflow = null;
+        index.clear();
+        size = 0;
+        Task<K> head = sentinel.next;
+        if (head != null) head.prev = null;
+        return head;
+    }
+
+    /**
+     * Remove the pending task with the given key.
+     *
+     * @return the removed task, or null if there was none
+     */
+    public synchronized Task<K> remove(K key) {
+        Task<K> t = index.get(key);
+        if (t == null) return null;
+        cancel(t);
+        return t;
+    }
+
+    // append a slot list to a chain, returning the new tail
+    private Task<K> detach(Task<K> t, Task<K> tail) {
+        while (t != null) {
+            Task<K> n = t.next;
+            tail.next = t;
+            t.prev = tail;
+            t.next = null;
+            t.level = LEVEL_NONE;
+            tail = t;
+            t = n;
+        }
+        return tail;
+    }
+
+    private void cascade(Task<K> t, long earliest) {
+        while (t != null) {
+            Task<K> n = t.next;
+            insert(t, earliest);
+            t = n;
+        }
+    }
+
+    // earliest is the first tick that has not been dispatched yet
+    private void insert(Task<K> t, long earliest) {
+        long fire = Math.max(t.fireTick, earliest);
+        long delta = fire - currentTick;
+        if (delta < L0_SIZE) {
+            link(t, LEVEL_0, (int) (fire & L0_MASK));
+        } else if (delta < L1_SPAN) {
+            link(t, LEVEL_1, (int) ((fire >>> L0_BITS) & L1_MASK));
+        } else {
+            link(t, LEVEL_OVERFLOW, 0);
+        }
+    }
+
+    private void link(Task<K> t, int level, int slot) {
+        Task<K> head;
+        switch (level) {
+            case LEVEL_0:
+                head = level0[slot];
+                level0[slot] = t;
+                break;
+            case LEVEL_1:
+                head = level1[slot];
+                level1[slot] = t;
+                break;
+            default:
+                head = overflow;
+                overflow = t;
+                break;
+        }
+        t.prev = null;
+        t.next = head;
+        if (head != null) head.prev = t;
+        t.level = level;
+        t.slot = slot;
+    }
+
+    private void unlink(Task<K> t) {
+        if (t.prev != null) {
+            t.prev.next = t.next;
+        } else {
+            switch (t.level) {
+                case LEVEL_0:
+                    level0[t.slot] = t.next;
+                    break;
+                case LEVEL_1:
+                    level1[t.slot] = t.next;
+                    break;
+                default:
+                    overflow = t.next;
+                    break;
+            }
+        }
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.level = LEVEL_NONE;
+    }
+}
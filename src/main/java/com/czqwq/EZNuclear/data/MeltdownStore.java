@@ -0,0 +1,369 @@
+package com.czqwq.EZNuclear.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.world.storage.IThreadedFileIO;
+import net.minecraft.world.storage.ThreadedFileIOBase;
+
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Pending meltdown state of one dimension on disk, next to the dimension's WorldSavedData files.
+ * <p>
+ * The file is a header followed by a log of varint-encoded records. Each record either puts a pending task or a
+ * position's table entry, or removes one. A save compares the current records with what the file already holds
+ * and appends only those that changed. Once the log holds more superseded records than live ones, it is rewritten in
+ * full instead. Records are encoded on the server thread; the file is written on the vanilla file I/O thread, which
+ * the server waits for before it shuts down.
+ * <p>
+ * Record layout, after a type byte (high bit set for a removal): zigzag x, y, zigzag z, kind ordinal (tasks only),
+ * then for tasks the power bits and zigzag due world tick, for armed positions a DE flag byte and the power bits, and
+ * for cooling down positions the time the cooldown started. Removals carry no payload.
+ */
+public class MeltdownStore {
+
+    public static final byte TYPE_TASK = 1;
+    public static final byte TYPE_ARMED = 2;
+    public static final byte TYPE_COOLDOWN = 3;
+    private static final int REMOVED = 0x80;
+
+    private static final int MAGIC = 0x455A4E4D; // "EZNM"
+    private static final int VERSION = 1;
+    // superseded records tolerated in the log before it is rewritten, on top of one per live record
+    private static final int MIN_SLACK = 64;
+
+    /**
+     * One persisted piece of state: a pending task, or an armed or cooling down position.
+     */
+    public static final class Record {
+
+        public final byte type;
+        public final int x, y, z;
+        // task kind, or null for table entries
+        public final MeltdownKind kind;
+        public final boolean de;
+        public final float power;
+        // due world tick for tasks, cooldown start in milliseconds for cooling down positions
+        public final long time;
+
+        private Record(byte type, int x, int y, int z, MeltdownKind kind, boolean de, float power, long time) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.kind = kind;
+            this.de = de;
+            this.power = power;
+            this.time = time;
+        }
+
+        public static Record task(TaskDescriptor d, long dueWorldTick) {
+            return new Record(TYPE_TASK, d.x(), d.y(), d.z(), d.kind, false, d.power, dueWorldTick);
+        }
+
+        public static Record armed(int x, int y, int z, boolean de, float power) {
+            return new Record(TYPE_ARMED, x, y, z, null, de, power, 0L);
+        }
+
+        public static Record cooldown(int x, int y, int z, long since) {
+            return new Record(TYPE_COOLDOWN, x, y, z, null, false, 0.0F, since);
+        }
+
+        Id id() {
+            return new Id(MeltdownTable.pack(x, y, z), kind == null ? -1 : kind.ordinal());
+        }
+    }
+
+    // identity of a record in the log: a position and a task kind, or -1 for the position's table entry
+    private static final class Id {
+
+        final long pos;
+        final int slot;
+
+        Id(long pos, int slot) {
+            this.pos = pos;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Id)) return false;
+            Id id = (Id) o;
+            return id.pos == pos && id.slot == slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(pos) * 31 + slot;
+        }
+    }
+
+    private static final MeltdownKind[] KINDS = MeltdownKind.values();
+
+    private final File file;
+    // encoding of every live record as the file holds it
+    private final Map<Id, byte[]> written = new HashMap<>();
+    private int superseded;
+    // the file is missing, damaged or from another version; the next save rewrites it
+    private boolean rewrite = true;
+
+    public MeltdownStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the file. Called once, when the dimension loads; a damaged tail is dropped.
+     *
+     * @return the live records
+     */
+    public List<Record> load() {
+        written.clear();
+        superseded = 0;
+        rewrite = true;
+        Map<Id, Record> live = new HashMap<>();
+        if (!file.isFile()) return new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                EZNuclear.LOG.warn("[EZNuclear] Unknown meltdown state file format, ignoring: " + file);
+                return new ArrayList<>();
+            }
+            int records = 0;
+            while (true) {
+                int type = in.read();
+                if (type < 0) break;
+                boolean removal = (type & REMOVED) != 0;
+                Record r = readRecord(in, type & ~REMOVED, removal);
+                Id id = r.id();
+                if (written.containsKey(id)) superseded++;
+                if (removal) {
+                    written.remove(id);
+                    live.remove(id);
+                    superseded++;
+                } else {
+                    written.put(id, encode(r));
+                    live.put(id, r);
+                }
+                records++;
+            }
+            rewrite = false;
+            EZNuclear.LOG.debug(
+                "[EZNuclear] Read " + records + " meltdown records, " + live.size() + " live, from: " + file);
+        } catch (EOFException e) {
+            EZNuclear.LOG.warn("[EZNuclear] Meltdown state file was cut short, keeping what was read: " + file);
+        } catch (IOException | RuntimeException e) {
+            EZNuclear.LOG.error("[EZNuclear] Failed to read meltdown state file: " + file, e);
+        }
+        return new ArrayList<>(live.values());
+    }
+
+    /**
+     * Queue the changes between the file and the given records for writing.
+     */
+    public void save(List<Record> records) {
+        Map<Id, byte[]> current = new HashMap<>();
+        for (Record r : records) {
+            current.put(r.id(), encode(r));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean full = rewrite || superseded > Math.max(MIN_SLACK, current.size());
+        int changes = 0;
+        if (full) {
+            writeHeader(out);
+            for (byte[] bytes : current.values()) {
+                out.write(bytes, 0, bytes.length);
+            }
+            superseded = 0;
+            changes = current.size();
+        } else {
+            for (Map.Entry<Id, byte[]> e : current.entrySet()) {
+                byte[] old = written.get(e.getKey());
+                if (old != null && Arrays.equals(old, e.getValue())) continue;
+                if (old != null) superseded++;
+                out.write(e.getValue(), 0, e.getValue().length);
+                changes++;
+            }
+            Set<Id> gone = new HashSet<>(written.keySet());
+            gone.removeAll(current.keySet());
+            for (Id id : gone) {
+                writeRemoval(out, written.get(id)[0], id);
+                superseded += 2;
+                changes++;
+            }
+        }
+        written.clear();
+        written.putAll(current);
+        rewrite = false;
+        // a full rewrite with nothing in it still has to truncate an existing file
+        if (changes == 0 && (!full || !file.exists())) return;
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Saving " + changes + " meltdown records" + (full ? " (full rewrite)" : "") + " to: " + file);
+        ThreadedFileIOBase.threadedIOInstance.queueIO(new Write(file, out.toByteArray(), !full));
+    }
+
+    // File I/O thread job
+    private static final class Write implements IThreadedFileIO {
+
+        final File file;
+        final byte[] bytes;
+        final boolean append;
+
+        Write(File file, byte[] bytes, boolean append) {
+            this.file = file;
+            this.bytes = bytes;
+            this.append = append;
+        }
+
+        @Override
+        public boolean writeNextIO() {
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.isDirectory()) parent.mkdirs();
+                if (append) {
+                    try (OutputStream out = new FileOutputStream(file, true)) {
+                        out.write(bytes);
+                    }
+                } else {
+                    // a crash mid-write leaves the old file in place
+                    File tmp = new File(file.getPath() + ".tmp");
+                    try (OutputStream out = new FileOutputStream(tmp)) {
+                        out.write(bytes);
+                    }
+                    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                EZNuclear.LOG.error("[EZNuclear] Failed to write meltdown state file: " + file, e);
+            }
+            return false;
+        }
+    }
+
+    // Codec ----------------------------------------------------------------------------------------------------------
+
+    private static void writeHeader(ByteArrayOutputStream out) {
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    private static byte[] encode(Record r) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(24);
+        out.write(r.type);
+        writePosition(out, r.x, r.y, r.z, r.kind == null ? -1 : r.kind.ordinal());
+        switch (r.type) {
+            case TYPE_TASK:
+                writeInt(out, Float.floatToIntBits(r.power));
+                writeVarLong(out, zigzag(r.time));
+                break;
+            case TYPE_ARMED:
+                out.write(r.de ? 1 : 0);
+                writeInt(out, Float.floatToIntBits(r.power));
+                break;
+            default:
+                writeVarLong(out, zigzag(r.time));
+                break;
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeRemoval(ByteArrayOutputStream out, byte type, Id id) {
+        out.write(type | REMOVED);
+        int x = MeltdownTable.unpackX(id.pos), y = MeltdownTable.unpackY(id.pos), z = MeltdownTable.unpackZ(id.pos);
+        writePosition(out, x, y, z, id.slot);
+    }
+
+    private static void writePosition(ByteArrayOutputStream out, int x, int y, int z, int kind) {
+        writeVarLong(out, zigzag(x));
+        writeVarLong(out, zigzag(y));
+        writeVarLong(out, zigzag(z));
+        if (kind >= 0) writeVarLong(out, kind);
+    }
+
+    private static Record readRecord(InputStream in, int type, boolean removal) throws IOException {
+        int x = (int) unzigzag(readVarLong(in));
+        int y = (int) unzigzag(readVarLong(in));
+        int z = (int) unzigzag(readVarLong(in));
+        switch (type) {
+            case TYPE_TASK: {
+                long ordinal = readVarLong(in);
+                if (ordinal >= KINDS.length) throw new IOException("Unknown meltdown kind: " + ordinal);
+                float power = removal ? 0.0F : Float.intBitsToFloat(readInt(in));
+                long due = removal ? 0L : unzigzag(readVarLong(in));
+                return Record.task(new TaskDescriptor(KINDS[(int) ordinal], x, y, z, 0, power), due);
+            }
+            case TYPE_ARMED: {
+                boolean de = !removal && in.read() == 1;
+                float power = removal ? 0.0F : Float.intBitsToFloat(readInt(in));
+                return Record.armed(x, y, z, de, power);
+            }
+            case TYPE_COOLDOWN:
+                return Record.cooldown(x, y, z, removal ? 0L : unzigzag(readVarLong(in)));
+            default:
+                throw new IOException("Unknown meltdown record type: " + type);
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int v) {
+        out.write(v >>> 24);
+        out.write(v >>> 16);
+        out.write(v >>> 8);
+        out.write(v);
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        int v = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            v = v << 8 | b;
+        }
+        return v;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long v = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
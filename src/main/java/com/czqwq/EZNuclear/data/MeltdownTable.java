@@ -0,0 +1,463 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open-addressing table holding the meltdown state of every position {@link PendingMeltdown} knows about.
+ * <p>
+ * Positions are packed into a single {@code long} (26 bits x, 26 bits z, 12 bits y) and stored together with the
+ * dimension id in parallel primitive arrays, so a lookup is one hash and a short linear probe without allocating a
+ * key object. Each entry carries a small state machine plus its explosion power and the time it entered its current
+ * state:
+ *
+ * <pre>
+ * DETECTED -> PENDING -> ARMED (manual trigger) -> DETONATING -> COOLDOWN -> (removed after the window)
+ * </pre>
+ *
+ * The re-entry permission and the DE/IC2 kind are flags on the entry. Removal uses backward-shift deletion, so the
+ * table never accumulates tombstones, and expired cooldown entries are dropped before the table grows.
+ * <p>
+ * A {@link MeltdownIndex} buckets every position by dimension and chunk, so the "in this chunk", "within radius" and
+ * "nearest" queries only look at the chunks around the query point.
+ * <p>
+ * All methods are synchronized.
+ */
+public class MeltdownTable {
+
+    public static final byte STATE_FREE = 0;
+    public static final byte STATE_DETECTED = 1;
+    public static final byte STATE_PENDING = 2;
+    public static final byte STATE_ARMED = 3;
+    public static final byte STATE_DETONATING = 4;
+    public static final byte STATE_COOLDOWN = 5;
+
+    public static final byte FLAG_REENTRY = 1;
+    public static final byte FLAG_DE = 2;
+
+    private static final int MIN_CAPACITY = 64;
+
+    /**
+     * Immutable copy of an entry, handed out by the bulk operations.
+     */
+    public static final class Entry {
+
+        public final int x, y, z, dim;
+        public final byte state;
+        public final boolean de;
+        public final double power;
+        // when the entry entered its state, in wall-clock milliseconds
+        public final long stateTime;
+
+        Entry(long key, int dim, byte state, byte flags, double power, long stateTime) {
+            this.x = unpackX(key);
+            this.y = unpackY(key);
+            this.z = unpackZ(key);
+            this.dim = dim;
+            this.state = state;
+            this.de = (flags & FLAG_DE) != 0;
+            this.power = power;
+            this.stateTime = stateTime;
+        }
+    }
+
+    private long[] keys;
+    private int[] dims;
+    private byte[] states;
+    private byte[] flags;
+    private double[] powers;
+    private long[] stateTimes;
+    private int size;
+    private int mask;
+    private final MeltdownIndex index = new MeltdownIndex();
+
+    // Entries in COOLDOWN older than this are dropped when the table is about to grow
+    private final long cooldownWindowMs;
+
+    public MeltdownTable(long cooldownWindowMs) {
+        this.cooldownWindowMs = cooldownWindowMs;
+        allocate(MIN_CAPACITY);
+    }
+
+    // Key packing ---------------------------------------------------------------------------------------------------
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    private static int hash(long key, int dim) {
+        long h = key ^ ((long) dim * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    // Probing -------------------------------------------------------------------------------------------------------
+
+    private int find(long key, int dim) {
+        int i = hash(key, dim) & mask;
+        while (states[i] != STATE_FREE) {
+            if (keys[i] == key && dims[i] == dim) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int findOrInsert(int x, int y, int z, int dim, long now) {
+        long key = pack(x, y, z);
+        int i = find(key, dim);
+        if (i >= 0) return i;
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(now);
+        }
+        i = hash(key, dim) & mask;
+        while (states[i] != STATE_FREE) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        dims[i] = dim;
+        states[i] = STATE_DETECTED;
+        flags[i] = 0;
+        powers[i] = 0.0;
+        stateTimes[i] = now;
+        size++;
+        index.add(key, dim);
+        return i;
+    }
+
+    private void removeAt(int i) {
+        index.remove(keys[i], dims[i]);
+        size--;
+        // backward-shift deletion keeps probe chains intact without tombstones
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (states[j] == STATE_FREE) break;
+            int home = hash(keys[j], dims[j]) & mask;
+            // move j into the gap if its home slot is not cyclically within (gap, j]
+            if (gap <= j ? (home <= gap || home > j) : (home <= gap && home > j)) {
+                keys[gap] = keys[j];
+                dims[gap] = dims[j];
+                states[gap] = states[j];
+                flags[gap] = flags[j];
+                powers[gap] = powers[j];
+                stateTimes[gap] = stateTimes[j];
+                gap = j;
+            }
+        }
+        states[gap] = STATE_FREE;
+    }
+
+    // drop the entry if it no longer carries anything worth remembering
+    private void releaseIfIdle(int i) {
+        if (states[i] == STATE_DETECTED && (flags[i] & FLAG_REENTRY) == 0) {
+            removeAt(i);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        dims = new int[capacity];
+        states = new byte[capacity];
+        flags = new byte[capacity];
+        powers = new double[capacity];
+        stateTimes = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(long now) {
+        long[] oldKeys = keys;
+        int[] oldDims = dims;
+        byte[] oldStates = states;
+        byte[] oldFlags = flags;
+        double[] oldPowers = powers;
+        long[] oldTimes = stateTimes;
+
+        int live = 0;
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] != STATE_FREE && !isExpiredCooldown(oldStates[i], oldTimes[i], now)) live++;
+        }
+        int capacity = MIN_CAPACITY;
+        while ((live + 1) * 4 > capacity * 3 || capacity < live * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == STATE_FREE) continue;
+            if (isExpiredCooldown(oldStates[i], oldTimes[i], now)) {
+                index.remove(oldKeys[i], oldDims[i]);
+                continue;
+            }
+            int j = hash(oldKeys[i], oldDims[i]) & mask;
+            while (states[j] != STATE_FREE) {
+                j = (j + 1) & mask;
+            }
+            keys[j] = oldKeys[i];
+            dims[j] = oldDims[i];
+            states[j] = oldStates[i];
+            flags[j] = oldFlags[i];
+            powers[j] = oldPowers[i];
+            stateTimes[j] = oldTimes[i];
+            size++;
+        }
+    }
+
+    private Entry entry(int i) {
+        return new Entry(keys[i], dims[i], states[i], flags[i], powers[i], stateTimes[i]);
+    }
+
+    private boolean isArmedAt(int i, boolean de) {
+        return states[i] == STATE_ARMED && ((flags[i] & FLAG_DE) != 0) == de;
+    }
+
+    private boolean isExpiredCooldown(byte state, long since, long now) {
+        return state == STATE_COOLDOWN && now - since >= cooldownWindowMs;
+    }
+
+    // Public operations ---------------------------------------------------------------------------------------------
+
+    public synchronized byte getState(int x, int y, int z, int dim) {
+        int i = find(pack(x, y, z), dim);
+        return i < 0 ? STATE_FREE : states[i];
+    }
+
+    public synchronized void setState(int x, int y, int z, int dim, byte state, long now) {
+        int i = findOrInsert(x, y, z, dim, now);
+        states[i] = state;
+        stateTimes[i] = now;
+        releaseIfIdle(i);
+    }
+
+    /**
+     * Record that a task is scheduled for the position. Only a DETECTED position moves to PENDING; armed or cooling
+     * down positions keep their state.
+     */
+    public synchronized void markPending(int x, int y, int z, int dim, long now) {
+        int i = findOrInsert(x, y, z, dim, now);
+        if (states[i] == STATE_DETECTED) {
+            states[i] = STATE_PENDING;
+            stateTimes[i] = now;
+        }
+    }
+
+    public synchronized void markReentry(int x, int y, int z, int dim, long now) {
+        int i = findOrInsert(x, y, z, dim, now);
+        flags[i] |= FLAG_REENTRY;
+    }
+
+    /**
+     * @return true if the position had a re-entry permission, which is consumed
+     */
+    public synchronized boolean consumeReentry(int x, int y, int z, int dim) {
+        int i = find(pack(x, y, z), dim);
+        if (i < 0 || (flags[i] & FLAG_REENTRY) == 0) return false;
+        flags[i] &= ~FLAG_REENTRY;
+        releaseIfIdle(i);
+        return true;
+    }
+
+    /**
+     * Arm a position for manual triggering with the given explosion power.
+     */
+    public synchronized void arm(int x, int y, int z, int dim, boolean de, double power, long now) {
+        int i = findOrInsert(x, y, z, dim, now);
+        states[i] = STATE_ARMED;
+        stateTimes[i] = now;
+        powers[i] = power;
+        if (de) flags[i] |= FLAG_DE;
+        else flags[i] &= ~FLAG_DE;
+    }
+
+    public synchronized boolean isArmed(int x, int y, int z, int dim, boolean de) {
+        int i = find(pack(x, y, z), dim);
+        return i >= 0 && states[i] == STATE_ARMED && ((flags[i] & FLAG_DE) != 0) == de;
+    }
+
+    /**
+     * Remove the manual trigger of a position.
+     *
+     * @return true if the position was armed
+     */
+    public synchronized boolean disarm(int x, int y, int z, int dim, boolean de) {
+        int i = find(pack(x, y, z), dim);
+        if (i < 0 || states[i] != STATE_ARMED || ((flags[i] & FLAG_DE) != 0) != de) return false;
+        states[i] = STATE_DETECTED;
+        releaseIfIdle(i);
+        return true;
+    }
+
+    /**
+     * Take every armed position of the given kind and move it to DETONATING.
+     */
+    public synchronized List<Entry> takeArmed(boolean de) {
+        List<Entry> out = new ArrayList<>();
+        for (int i = 0; i < states.length; i++) {
+            if (isArmedAt(i, de)) {
+                out.add(entry(i));
+                states[i] = STATE_DETONATING;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Take the armed position of the given kind at x/y/z in a dimension and move it to DETONATING.
+     *
+     * @return the entry before the transition, or null if the position is not armed
+     */
+    public synchronized Entry takeArmed(int x, int y, int z, int dim, boolean de) {
+        int i = find(pack(x, y, z), dim);
+        if (i < 0 || !isArmedAt(i, de)) return null;
+        Entry e = entry(i);
+        states[i] = STATE_DETONATING;
+        return e;
+    }
+
+    /**
+     * Take one armed position of the given kind matching x/y/z in any dimension and move it to DETONATING.
+     *
+     * @return the entry before the transition, or null if none matched
+     */
+    public synchronized Entry takeArmedAnyDimension(int x, int y, int z, boolean de) {
+        for (int dim : index.dimensions()) {
+            Entry e = takeArmed(x, y, z, dim, de);
+            if (e != null) return e;
+        }
+        return null;
+    }
+
+    /**
+     * Take every armed position of the given kind within {@code radius} blocks of x/y/z and move it to DETONATING.
+     */
+    public synchronized List<Entry> takeArmedWithin(int dim, int x, int y, int z, int radius, boolean de) {
+        List<Entry> out = new ArrayList<>();
+        index.within(dim, x, y, z, radius, key -> {
+            int i = find(key, dim);
+            if (!isArmedAt(i, de)) return;
+            out.add(entry(i));
+            states[i] = STATE_DETONATING;
+        });
+        return out;
+    }
+
+    /**
+     * @return the entry at x/y/z, or null if the table does not know the position
+     */
+    public synchronized Entry get(int x, int y, int z, int dim) {
+        int i = find(pack(x, y, z), dim);
+        return i < 0 ? null : entry(i);
+    }
+
+    /**
+     * @return the entries in the given chunk column
+     */
+    public synchronized List<Entry> inChunk(int dim, int chunkX, int chunkZ) {
+        List<Entry> out = new ArrayList<>();
+        index.inChunk(dim, chunkX, chunkZ, key -> out.add(entry(find(key, dim))));
+        return out;
+    }
+
+    /**
+     * @return the entries within {@code radius} blocks of x/y/z
+     */
+    public synchronized List<Entry> within(int dim, int x, int y, int z, int radius) {
+        List<Entry> out = new ArrayList<>();
+        index.within(dim, x, y, z, radius, key -> out.add(entry(find(key, dim))));
+        return out;
+    }
+
+    /**
+     * @return the entry in the given state closest to x/y/z and at most {@code maxRadius} blocks away, or null
+     */
+    public synchronized Entry nearest(int dim, int x, int y, int z, int maxRadius, byte state) {
+        long key = index.nearest(dim, x, y, z, maxRadius, k -> states[find(k, dim)] == state);
+        return key == MeltdownIndex.NONE ? null : entry(find(key, dim));
+    }
+
+    /**
+     * @return the armed and cooling down positions of a dimension; the state worth keeping across restarts
+     */
+    public synchronized List<Entry> persistentEntries(int dim) {
+        List<Entry> out = new ArrayList<>();
+        for (int i = 0; i < states.length; i++) {
+            if (dims[i] != dim || (states[i] != STATE_ARMED && states[i] != STATE_COOLDOWN)) continue;
+            out.add(new Entry(keys[i], dims[i], states[i], flags[i], powers[i], stateTimes[i]));
+        }
+        return out;
+    }
+
+    public synchronized int countArmed(boolean de) {
+        int n = 0;
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == STATE_ARMED && ((flags[i] & FLAG_DE) != 0) == de) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Mark a position as processed; it stays in COOLDOWN for the table's window.
+     */
+    public synchronized void markCooldown(int x, int y, int z, int dim, long now) {
+        int i = findOrInsert(x, y, z, dim, now);
+        states[i] = STATE_COOLDOWN;
+        stateTimes[i] = now;
+        powers[i] = 0.0;
+    }
+
+    /**
+     * @return how long ago the position entered COOLDOWN, or -1 if it is not cooling down. An expired cooldown
+     *         entry is removed.
+     */
+    public synchronized long cooldownAge(int x, int y, int z, int dim, long now) {
+        int i = find(pack(x, y, z), dim);
+        if (i < 0 || states[i] != STATE_COOLDOWN) return -1L;
+        long age = now - stateTimes[i];
+        if (age >= cooldownWindowMs) {
+            states[i] = STATE_DETECTED;
+            releaseIfIdle(i);
+        }
+        return age;
+    }
+
+    /**
+     * Called when a scheduled task for the position finished or expired: the re-entry permission is dropped and a
+     * PENDING position falls back to DETECTED.
+     */
+    public synchronized void onTaskFinished(int x, int y, int z, int dim) {
+        int i = find(pack(x, y, z), dim);
+        if (i < 0) return;
+        flags[i] &= ~FLAG_REENTRY;
+        if (states[i] == STATE_PENDING) states[i] = STATE_DETECTED;
+        releaseIfIdle(i);
+    }
+
+    public synchronized void remove(int x, int y, int z, int dim) {
+        int i = find(pack(x, y, z), dim);
+        if (i >= 0) removeAt(i);
+    }
+
+    public synchronized void clear() {
+        allocate(MIN_CAPACITY);
+        index.clear();
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
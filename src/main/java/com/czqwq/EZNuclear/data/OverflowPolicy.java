@@ -0,0 +1,28 @@
+package com.czqwq.EZNuclear.data;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+
+/**
+ * What {@link PendingMeltdown} does with a new task once {@link Config#maxPendingTasks} tasks are pending.
+ */
+public enum OverflowPolicy implements ConfigEnum {
+
+    // The new task is discarded
+    DROP("drop"),
+    // The new task runs together with a pending task of the same kind, preferring the same dimension
+    MERGE("merge"),
+    // The oldest pending task is run right away to make room
+    DETONATE_OLDEST("detonate_oldest");
+
+    private final String configName;
+
+    OverflowPolicy(String configName) {
+        this.configName = configName;
+    }
+
+    @Override
+    public String getConfigName() {
+        return configName;
+    }
+}
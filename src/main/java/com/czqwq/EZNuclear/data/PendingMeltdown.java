@@ -2,10 +2,14 @@ package com.czqwq.EZNuclear.data;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import net.minecraft.server.MinecraftServer;
@@ -15,7 +19,11 @@ import net.minecraftforge.event.ServerChatEvent;
 
 import com.czqwq.EZNuclear.Config;
 import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.metrics.FlightEvents;
+import com.czqwq.EZNuclear.metrics.Metrics;
+import com.czqwq.EZNuclear.util.Accessors;
 import com.czqwq.EZNuclear.util.Constants;
+import com.czqwq.EZNuclear.util.MessageUtils;
 
 import cpw.mods.fml.common.eventhandler.EventPriority;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
@@ -24,33 +32,48 @@ import ic2.core.ExplosionIC2;
 
 public class PendingMeltdown {
 
-    // Scheduled task container: tasks are executed on server thread when due
-    private static final List<Scheduled> SCHEDULED = new CopyOnWriteArrayList<>();
-    // Track occupied positions (avoid duplicates). Use a simple key for stable equals/hashCode.
-    private static final Set<PosKey> POSITIONS = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    // Re-entry set: positions allowed to bypass interception once
-    private static final Set<PosKey> REENTRY = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    // Manual trigger set: positions that require manual triggering via chat command
-    private static final Set<PosKey> MANUAL_TRIGGER = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    // DE Manual trigger set: positions for DE explosions that require manual triggering
-    private static final Set<PosKey> DE_MANUAL_TRIGGER = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    // Stored explosion power for manual triggers
-    private static final Map<PosKey, Double> EXPLOSION_POWERS = new ConcurrentHashMap<>();
-    // Flag to allow manually triggered explosions to run without being re-cancelled
-    private static volatile boolean allowNextExplosion = false;
-    // Set to track positions that have been completely processed to prevent re-processing
-    private static final Set<PosKey> PROCESSED_POSITIONS = Collections.newSetFromMap(new ConcurrentHashMap<>());
-
-    // Map to track when a position was processed, to prevent re-processing for a certain time period
-    private static final Map<PosKey, Long> PROCESSED_POSITIONS_TIME = new ConcurrentHashMap<>();
-    // Map to track when a scheduled task was created, to prevent memory leaks
-    private static final Map<PosKey, Long> SCHEDULED_TASK_CREATION_TIME = new ConcurrentHashMap<>();
+    // Scheduled task container: tick-indexed timing wheel, tasks are executed on server thread when due
+    private static final MeltdownScheduler<PosKey> SCHEDULER = new MeltdownScheduler<>();
+    // Explosions released by the scheduler or the chat commands wait here until admitted, a few per tick
+    private static final ExplosionGovernor<PosKey> GOVERNOR = new ExplosionGovernor<>();
+    // Chunks around scheduled explosions are loaded during the countdown and held until the explosion is over
+    private static final BlastPreloader<PosKey> PRELOADER = new BlastPreloader<>();
+    // Meltdowns coalesced into one explosion, by the key of the task that sets it off
+    private static final Map<PosKey, CoalescedBlast> BLASTS = new HashMap<>();
+    // Key of every meltdown merged into another one's explosion -> key of that explosion's task
+    private static final Map<PosKey, PosKey> MERGED = new HashMap<>();
+    // Meltdowns merged into a pending task because the task limit was reached, by the key of that task
+    private static final Map<PosKey, List<PosKey>> OVERFLOWED = new HashMap<>();
+    // Meltdowns dropped at the task limit; a failing reactor retries every tick, and is not dropped again until there
+    // is room
+    private static final Set<PosKey> DROPPED = new HashSet<>();
+    // What the scheduled reactor meltdowns set off, so they can be saved with the world and rebuilt after a restart
+    private static final Map<PosKey, TaskDescriptor> DESCRIPTORS = new HashMap<>();
+    // Time window (in milliseconds) to prevent re-processing of the same position after manual trigger
+    private static final long PROCESSING_WINDOW_MS = 10000; // 10 seconds
+
+    // Per-position state (pending, re-entry, manual trigger with stored power, processed cooldown) in one
+    // primitive-keyed table
+    private static final MeltdownTable TABLE = new MeltdownTable(PROCESSING_WINDOW_MS);
+    // IC2 explosions created by this mod, which the IC2 mixin lets through once instead of deferring them again
+    private static final Set<Object> PERMITS = Collections
+        .synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    // Chat and command triggers may arrive on the network thread; they are carried out on the next server tick
+    private static final Queue<TriggerRequest> TRIGGERS = new ConcurrentLinkedQueue<>();
 
     // Queue for deferred addition of processes to avoid ConcurrentModificationException
     private static final List<Object> DEFERRED_PROCESS_QUEUE = new CopyOnWriteArrayList<>();
 
-    // Time window (in milliseconds) to prevent re-processing of the same position after manual trigger
-    private static final long PROCESSING_WINDOW_MS = 10000; // 10 seconds
+    // Explosion power used for manual triggers that were marked without one
+    private static final double DEFAULT_MANUAL_POWER = 4.0;
+
+    // Scheduler delays are given in milliseconds but the timing wheel counts server ticks
+    private static final long MS_PER_TICK = 50L;
+
+    private static final MeltdownKind[] KINDS = MeltdownKind.values();
+    // A key per thread that lookups point at the position they check, so checking allocates nothing; never stored
+    private static final ThreadLocal<PosKey> PROBE = ThreadLocal
+        .withInitial(() -> new PosKey(0, 0, 0, 0, MeltdownKind.GENERIC));
 
     /**
      * Helper method to get WorldServer by dimension ID.
@@ -85,71 +108,97 @@ public class PendingMeltdown {
 
         for (Object process : processesToAdd) {
             try {
-                // Use reflection to call ProcessHandler.addProcess (now in DE after BrandonsCore merge)
-                Class<?> processHandlerClass = Class
-                    .forName("com.brandon3055.draconicevolution.common.utils.handlers.ProcessHandler");
-                Class<?> iProcessClass = Class
-                    .forName("com.brandon3055.draconicevolution.common.utils.handlers.IProcess");
-                java.lang.reflect.Method addMethod = processHandlerClass.getMethod("addProcess", iProcessClass);
-                addMethod.invoke(null, process);
+                // Call ProcessHandler.addProcess (now in DE after BrandonsCore merge) through the cached handle
+                Accessors.addProcess(process);
             } catch (Exception e) {
                 EZNuclear.LOG.error("[EZNuclear] Error adding deferred process: " + e.getMessage(), e);
             }
         }
     }
 
-    public static boolean isAllowingNextExplosion() {
-        return allowNextExplosion;
+    /**
+     * Forget every pending meltdown once the server has stopped and its worlds have been saved. Tasks look their world
+     * up by dimension id, so in single player anything left over would go off, and be saved, in the next world opened.
+     * Nothing dropped here is run; the preloaded chunks are released.
+     */
+    public static void reset() {
+        int tasks = 0;
+        for (MeltdownScheduler.Task<PosKey> s = SCHEDULER.drainAll(); s != null; s = s.getNext()) {
+            tasks++;
+        }
+        int explosions = GOVERNOR.clear();
+        PRELOADER.clear();
+        BLASTS.clear();
+        MERGED.clear();
+        OVERFLOWED.clear();
+        DROPPED.clear();
+        DESCRIPTORS.clear();
+        TABLE.clear();
+        PERMITS.clear();
+        TRIGGERS.clear();
+        DEFERRED_PROCESS_QUEUE.clear();
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Server stopped, dropped " + tasks + " pending tasks and " + explosions + " queued explosions");
     }
 
-    public static void resetAllowNextExplosion() {
-        allowNextExplosion = false;
+    /**
+     * Called by the IC2 mixin for every nuclear explosion.
+     *
+     * @return true if the explosion was created by this mod and may go off; the permit is used up
+     */
+    public static boolean consumePermit(Object explosion) {
+        return PERMITS.remove(explosion);
     }
 
-    public static void setAllowNextExplosion() {
-        allowNextExplosion = true;
+    /**
+     * Ask for a chat or command trigger to be carried out. Safe to call from any thread; the trigger runs on the
+     * server thread at the start of the next tick.
+     */
+    public static void requestTrigger(TriggerRequest request) {
+        TRIGGERS.add(request);
     }
 
-    // scanning interval (ticks) to check for rogue reactors; low frequency to reduce overhead
-    private static final int SCAN_INTERVAL_TICKS = 20; // once per second
-    private int tickCounter = 0;
-
-    private static class Scheduled {
+    private static void processTriggerRequests() {
+        TriggerRequest request;
+        while ((request = TRIGGERS.poll()) != null) {
+            EZNuclear.LOG.debug("[EZNuclear] Carrying out " + request.type + " trigger from: " + request.source);
+            if (request.type == TriggerRequest.Type.EXECUTE_ALL) {
+                executeAllNow();
+                continue;
+            }
+            EZNuclear.LOG.debug("[EZNuclear] IC2 Manual Trigger count: " + TABLE.countArmed(false));
+            EZNuclear.LOG.debug("[EZNuclear] DE Manual Trigger count: " + TABLE.countArmed(true));
 
-        final long executeAtMillis;
-        final Runnable task;
-        final PosKey pos;
+            // Process IC2 explosions
+            processManualTriggers(false, request); // false = not DE
 
-        Scheduled(long executeAtMillis, Runnable task, PosKey pos) {
-            this.executeAtMillis = executeAtMillis;
-            this.task = task;
-            this.pos = pos;
+            // Process DE explosions
+            processManualTriggers(true, request); // true = DE
         }
     }
 
-    private static class PosKey {
+    // scanning interval (ticks) to check for rogue reactors; low frequency to reduce overhead
+    private static final int SCAN_INTERVAL_TICKS = 20; // once per second
+    private int tickCounter = 0;
 
-        final int x, y, z, dim;
+    // Scheduler key: one pending task per position, dimension and kind. Only the lookup probes are changed after
+    // construction
+    private static class PosKey {
 
-        PosKey(ChunkCoordinates c) {
-            this.x = c.posX;
-            this.y = c.posY;
-            this.z = c.posZ;
-            this.dim = 0; // Default to 0, but callers should provide dimension when possible
-        }
+        int x, y, z, dim;
+        MeltdownKind kind;
 
-        PosKey(ChunkCoordinates c, int dim) {
-            this.x = c.posX;
-            this.y = c.posY;
-            this.z = c.posZ;
-            this.dim = dim;
+        PosKey(int x, int y, int z, int dim, MeltdownKind kind) {
+            set(x, y, z, dim, kind);
         }
 
-        PosKey(int x, int y, int z, int dim) {
+        PosKey set(int x, int y, int z, int dim, MeltdownKind kind) {
             this.x = x;
             this.y = y;
             this.z = z;
             this.dim = dim;
+            this.kind = kind;
+            return this;
         }
 
         @Override
@@ -157,7 +206,7 @@ public class PendingMeltdown {
             if (this == o) return true;
             if (!(o instanceof PosKey)) return false;
             PosKey k = (PosKey) o;
-            return k.x == x && k.y == y && k.z == z && k.dim == dim;
+            return k.x == x && k.y == y && k.z == z && k.dim == dim && k.kind == kind;
         }
 
         @Override
@@ -166,39 +215,590 @@ public class PendingMeltdown {
             h = 31 * h + y;
             h = 31 * h + z;
             h = 31 * h + dim;
+            h = 31 * h + kind.ordinal();
             return h;
         }
     }
 
+    /**
+     * Schedule a meltdown task for a position. Scheduling is idempotent: while a task of the same kind is pending at
+     * the position, that task is returned and the new one is discarded. Once {@link Config#maxPendingTasks} tasks are
+     * pending, {@link Config#pendingTaskOverflowPolicy} decides what happens to the new task.
+     *
+     * @return the pending task handling this position and kind, or null if the task was dropped
+     */
+    public static MeltdownScheduler.Task<?> scheduleMeltdown(ChunkCoordinates pos, int dimension, MeltdownKind kind,
+        Runnable task, long delayMs) {
+        return scheduleMeltdown(pos, dimension, kind, task, delayMs, 0.0D);
+    }
+
+    /**
+     * Schedule a meltdown task that sets off an explosion reaching {@code blastRadius} blocks. The chunks in that
+     * radius are preloaded during the delay, see {@link BlastPreloader}.
+     */
+    public static MeltdownScheduler.Task<?> scheduleMeltdown(ChunkCoordinates pos, int dimension, MeltdownKind kind,
+        Runnable task, long delayMs, double blastRadius) {
+        return scheduleMeltdown(pos, dimension, kind, task, delayMs, blastRadius, 0.0F);
+    }
+
+    /**
+     * Schedule a reactor meltdown with the given explosion power. Meltdowns of the same kind that start within
+     * {@link Config#meltdownCoalesceWindowSeconds} of each other and within {@link Config#meltdownCoalesceRadius}
+     * blocks of the first ones' centroid go off as one explosion at the centroid of all of them, with the powers
+     * combined by {@link Config#meltdownPowerAggregation}. A merged meltdown returns the task of that explosion.
+     * <p>
+     * Meltdowns scheduled with a power are saved with their dimension and scheduled again when it loads, see
+     * {@link MeltdownPersistence}.
+     */
+    public static MeltdownScheduler.Task<?> scheduleMeltdown(ChunkCoordinates pos, int dimension, MeltdownKind kind,
+        Runnable task, long delayMs, double blastRadius, float power) {
+        if (pos == null || task == null || kind == null) return null;
+        PosKey key = new PosKey(pos.posX, pos.posY, pos.posZ, dimension, kind);
+        MeltdownScheduler.Task<PosKey> existing = SCHEDULER.get(key);
+        if (existing == null && MERGED.containsKey(key)) existing = SCHEDULER.get(MERGED.get(key));
+        if (existing != null) {
+            EZNuclear.LOG.debug("[EZNuclear] " + kind + " task already pending for position: " + pos);
+            Metrics.deduplicated(kind);
+            return existing;
+        }
+
+        // with manual triggers every reactor is armed on its own
+        boolean coalescing = power > 0 && !Config.requireCommandToExplode && Config.meltdownCoalesceRadius > 0;
+        if (coalescing) {
+            MeltdownScheduler.Task<PosKey> blast = coalesce(key, power);
+            if (blast != null) {
+                Metrics.coalesced(kind);
+                return blast;
+            }
+        }
+
+        if (SCHEDULER.size() >= Config.maxPendingTasks) {
+            OverflowPolicy policy = Config.pendingTaskOverflowPolicy;
+            switch (policy) {
+                case MERGE: {
+                    MeltdownScheduler.Task<PosKey> target = findMergeTarget(kind, dimension);
+                    if (target != null) {
+                        SCHEDULER.merge(target, task);
+                        // the meltdown counts as pending until the task it rides on has run, so a reactor that
+                        // keeps failing is not merged again every tick
+                        MERGED.put(key, target.getKey());
+                        OVERFLOWED.computeIfAbsent(target.getKey(), k -> new ArrayList<>())
+                            .add(key);
+                        TABLE.markPending(key.x, key.y, key.z, key.dim, System.currentTimeMillis());
+                        Metrics.coalesced(kind);
+                        EZNuclear.LOG.debug(
+                            "[EZNuclear] Task limit reached, merged " + kind
+                                + " task for position: "
+                                + pos
+                                + " into the task at: ["
+                                + target.getKey().x
+                                + ","
+                                + target.getKey().y
+                                + ","
+                                + target.getKey().z
+                                + "]");
+                        return target;
+                    }
+                    EZNuclear.LOG.warn(
+                        "[EZNuclear] Task limit reached and no " + kind
+                            + " task to merge with, dropping task for position: "
+                            + pos);
+                    Metrics.dropped(kind);
+                    DROPPED.add(key);
+                    return null;
+                }
+                case DETONATE_OLDEST: {
+                    MeltdownScheduler.Task<PosKey> oldest = SCHEDULER.oldest();
+                    if (oldest != null && SCHEDULER.cancel(oldest)) {
+                        EZNuclear.LOG.debug(
+                            "[EZNuclear] Task limit reached, running oldest " + oldest.getKey().kind
+                                + " task early at: ["
+                                + oldest.getKey().x
+                                + ","
+                                + oldest.getKey().y
+                                + ","
+                                + oldest.getKey().z
+                                + "]");
+                        fire(oldest);
+                    }
+                    break;
+                }
+                default:
+                    EZNuclear.LOG.warn(
+                        "[EZNuclear] Task limit of " + Config.maxPendingTasks
+                            + " reached, dropping "
+                            + kind
+                            + " task for position: "
+                            + pos);
+                    Metrics.dropped(kind);
+                    DROPPED.add(key);
+                    return null;
+            }
+        }
+
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Scheduling " + kind + " task for position: " + pos + " with delay: " + delayMs + "ms");
+        long delayTicks = toTicks(delayMs);
+        // Tasks that are still pending after the timeout are dropped by the wheel instead of being run
+        long timeoutTicks = toTicks(Config.taskTimeoutMinutes * 60 * 1000L);
+        if (coalescing) {
+            BLASTS.put(key, new CoalescedBlast(SCHEDULER.getCurrentTick(), key.x, key.y, key.z, power));
+            task = coalesced(key, task);
+        }
+        MeltdownScheduler.Task<PosKey> scheduled = SCHEDULER.schedule(key, task, delayTicks, timeoutTicks);
+        Metrics.scheduled(kind, key.x, key.y, key.z, dimension, power);
+        if (power > 0) DESCRIPTORS.put(key, new TaskDescriptor(kind, key.x, key.y, key.z, dimension, power));
+        TABLE.markPending(pos.posX, pos.posY, pos.posZ, dimension, System.currentTimeMillis());
+        EZNuclear.LOG.debug("[EZNuclear] Task added to scheduler, due at tick: " + scheduled.getDueTick());
+        if (blastRadius > 0) {
+            PRELOADER.start(
+                key,
+                getWorldServerByDimension(MinecraftServer.getServer(), dimension),
+                pos.posX + 0.5D,
+                pos.posZ + 0.5D,
+                blastRadius);
+        }
+        return scheduled;
+    }
+
+    /**
+     * Schedule the meltdown a descriptor describes. The world, the reactor and the explosion are looked up when the
+     * task runs, so nothing but the descriptor is kept alive while it is pending.
+     */
+    public static MeltdownScheduler.Task<?> scheduleMeltdown(TaskDescriptor d, long delayMs, double blastRadius) {
+        ChunkCoordinates pos = new ChunkCoordinates(d.x(), d.y(), d.z());
+        MeltdownScheduler.Task<?> task = scheduleMeltdown(
+            pos,
+            d.dim,
+            d.kind,
+            () -> execute(d),
+            delayMs,
+            blastRadius,
+            d.power);
+        // keep the flags of the descriptor for saving
+        DESCRIPTORS.replace(new PosKey(d.x(), d.y(), d.z(), d.dim, d.kind), d);
+        return task;
+    }
+
+    /**
+     * @return the number of meltdown tasks waiting for their countdown
+     */
+    public static int pendingTaskCount() {
+        return SCHEDULER.size();
+    }
+
+    /**
+     * @return the number of explosions waiting to be admitted by the governor
+     */
+    public static int queuedExplosionCount() {
+        return GOVERNOR.size();
+    }
+
+    /**
+     * @return true if a meltdown of this kind was dropped at the position at the task limit and would only be dropped
+     *         again; it is worth scheduling once tasks have run
+     */
+    public static boolean isDroppedAtLimit(ChunkCoordinates pos, int dimension, MeltdownKind kind) {
+        if (pos == null || DROPPED.isEmpty()) return false;
+        // nothing pending at all: the storm is over, and dropped reactors that are gone are forgotten
+        if (SCHEDULER.size() == 0) {
+            DROPPED.clear();
+            return false;
+        }
+        PosKey key = PROBE.get()
+            .set(pos.posX, pos.posY, pos.posZ, dimension, kind);
+        if (!DROPPED.contains(key)) return false;
+        boolean full = SCHEDULER.size() >= Config.maxPendingTasks;
+        if (full && (Config.pendingTaskOverflowPolicy != OverflowPolicy.MERGE
+            || findMergeTarget(kind, dimension) == null)) return true;
+        // room again: this meltdown gets another try
+        DROPPED.remove(key);
+        return false;
+    }
+
+    /**
+     * @return true if a task of this kind is pending at the position, or its explosion is waiting to be admitted
+     */
+    public static boolean isScheduled(ChunkCoordinates pos, int dimension, MeltdownKind kind) {
+        if (pos == null) return false;
+        return isPending(
+            PROBE.get()
+                .set(pos.posX, pos.posY, pos.posZ, dimension, kind));
+    }
+
     // Overloads that include dimension (preferred) ------------------------------------------------
     public static boolean schedule(ChunkCoordinates pos, Runnable task, long delayMs, int dimension) {
-        EZNuclear.LOG.debug("[EZNuclear] Scheduling task for position: " + pos + " with delay: " + delayMs + "ms");
-        if (pos == null || task == null) return false;
-        PosKey key = new PosKey(pos, dimension);
-        // 不管位置是否已被标记，都添加任务
-        long executeAt = System.currentTimeMillis() + Math.max(0, delayMs);
-        // LOGGER.info(
-        // "PendingMeltdown.schedule: scheduling task at {} dim={} delayMs={} execAt={}",
-        // pos,
-        // dimension,
-        // delayMs,
-        // executeAt);
-        Scheduled scheduled = new Scheduled(executeAt, task, key);
-        SCHEDULED.add(scheduled);
-        // Track when this task was created to enable timeout cleanup
-        SCHEDULED_TASK_CREATION_TIME.put(key, System.currentTimeMillis());
-        EZNuclear.LOG.debug("[EZNuclear] Task added to SCHEDULED list: " + scheduled);
-        return true;
+        return scheduleMeltdown(pos, dimension, MeltdownKind.GENERIC, task, delayMs) != null;
+    }
+
+    // pending task of the same kind that is due first, preferring the same dimension
+    private static MeltdownScheduler.Task<PosKey> findMergeTarget(MeltdownKind kind, int dimension) {
+        MeltdownScheduler.Task<PosKey> best = null;
+        boolean bestSameDim = false;
+        for (MeltdownScheduler.Task<PosKey> t : SCHEDULER.snapshot()) {
+            PosKey k = t.getKey();
+            if (k.kind != kind) continue;
+            boolean sameDim = k.dim == dimension;
+            if (best == null || (sameDim && !bestSameDim)
+                || (sameDim == bestSameDim && t.getDueTick() < best.getDueTick())) {
+                best = t;
+                bestSameDim = sameDim;
+            }
+        }
+        return best;
+    }
+
+    private static boolean hasPendingTask(int x, int y, int z, int dim) {
+        PosKey probe = PROBE.get();
+        for (MeltdownKind kind : KINDS) {
+            if (isPending(probe.set(x, y, z, dim, kind))) return true;
+        }
+        return false;
+    }
+
+    private static boolean isPending(PosKey key) {
+        return SCHEDULER.get(key) != null || GOVERNOR.isQueued(key) || MERGED.containsKey(key);
+    }
+
+    // Merge a meltdown into a pending explosion of the same kind close enough in space and time
+    private static MeltdownScheduler.Task<PosKey> coalesce(PosKey key, float power) {
+        long windowTicks = Config.meltdownCoalesceWindowSeconds * 20L;
+        long now = SCHEDULER.getCurrentTick();
+        for (Map.Entry<PosKey, CoalescedBlast> e : BLASTS.entrySet()) {
+            PosKey target = e.getKey();
+            CoalescedBlast blast = e.getValue();
+            if (target.kind != key.kind || target.dim != key.dim || now - blast.startTick > windowTicks) continue;
+            if (!blast.reaches(key.x, key.y, key.z, Config.meltdownCoalesceRadius)) continue;
+            MeltdownScheduler.Task<PosKey> task = SCHEDULER.get(target);
+            // already released to the governor; too late to change its explosion
+            if (task == null) continue;
+            blast.add(key.x, key.y, key.z, power);
+            MERGED.put(key, target);
+            TABLE.markPending(key.x, key.y, key.z, key.dim, System.currentTimeMillis());
+            EZNuclear.LOG.debug(
+                "[EZNuclear] Coalesced " + key.kind
+                    + " meltdown at: ["
+                    + key.x
+                    + ","
+                    + key.y
+                    + ","
+                    + key.z
+                    + "] into the explosion of "
+                    + blast.size()
+                    + " meltdowns at: ["
+                    + target.x
+                    + ","
+                    + target.y
+                    + ","
+                    + target.z
+                    + "]");
+            return task;
+        }
+        return null;
+    }
+
+    // A meltdown's own task if nothing was merged into it, otherwise one explosion for all of them
+    private static Runnable coalesced(PosKey k, Runnable single) {
+        return () -> {
+            CoalescedBlast blast = BLASTS.get(k);
+            if (blast == null || blast.size() == 1) {
+                single.run();
+                return;
+            }
+            detonateCoalesced(k, blast);
+        };
+    }
+
+    private static void detonateCoalesced(PosKey k, CoalescedBlast blast) {
+        MinecraftServer server = MinecraftServer.getServer();
+        WorldServer world = getWorldServerByDimension(server, k.dim);
+        if (world == null) {
+            EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + k.dim);
+            return;
+        }
+        float power = blast.power(Config.meltdownPowerAggregation);
+        int x = (int) Math.floor(blast.centroidX());
+        int y = (int) Math.floor(blast.centroidY());
+        int z = (int) Math.floor(blast.centroidZ());
+        try {
+            MessageUtils.notify("info.ezunclear.interact", k.dim, x, y, z);
+        } catch (Throwable t) {
+            Metrics.failed(k.kind);
+            EZNuclear.LOG.warn("[EZNuclear] Could not notify players of coalesced " + k.kind + " meltdowns", t);
+        }
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Detonating " + blast.size()
+                + " coalesced "
+                + k.kind
+                + " meltdowns at: ["
+                + x
+                + ","
+                + y
+                + ","
+                + z
+                + "] with power: "
+                + power);
+        if (k.kind == MeltdownKind.IC2_EXPLOSION) {
+            createAndExecuteIC2Explosion(world, x, y, z, power);
+            return;
+        }
+        // every merged core goes with the blast, not only the one at the centroid
+        for (int i = 0; i < blast.size(); i++) {
+            world.setBlockToAir(blast.x(i), blast.y(i), blast.z(i));
+        }
+        createAndExecuteDEExplosion(world, x, y, z, power);
+    }
+
+    // The explosion of a task is over or will never happen; free the meltdowns merged into it
+    private static void finishCoalesced(PosKey k, boolean detonated) {
+        CoalescedBlast blast = BLASTS.remove(k);
+        if (blast == null || blast.size() == 1) return;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < blast.size(); i++) {
+            int x = blast.x(i), y = blast.y(i), z = blast.z(i);
+            if (i > 0) MERGED.remove(new PosKey(x, y, z, k.dim, k.kind));
+            // reactors that went off with the blast may still report their own explosion; ignore it like a
+            // manually triggered one
+            if (detonated) TABLE.markCooldown(x, y, z, k.dim, now);
+            if (i > 0 && !hasPendingTask(x, y, z, k.dim)) TABLE.onTaskFinished(x, y, z, k.dim);
+        }
+    }
+
+    // The task that meltdowns over the task limit were merged into has run or expired; free their positions
+    private static void finishOverflowed(PosKey k) {
+        List<PosKey> merged = OVERFLOWED.remove(k);
+        if (merged == null) return;
+        for (PosKey m : merged) {
+            MERGED.remove(m);
+            if (!hasPendingTask(m.x, m.y, m.z, m.dim)) TABLE.onTaskFinished(m.x, m.y, m.z, m.dim);
+        }
+    }
+
+    // Hand a task that has left the wheel to the governor if it sets off an explosion, otherwise run it now
+    private static void fire(MeltdownScheduler.Task<PosKey> s) {
+        PosKey k = s.getKey();
+        if (s.isExpired() || !k.kind.isExplosion()) {
+            runTask(s);
+            return;
+        }
+        govern(k, () -> runTask(s));
+    }
+
+    // the explosion power a task was scheduled with, 0 if it was scheduled without one
+    private static float powerOf(PosKey k) {
+        TaskDescriptor d = DESCRIPTORS.get(k);
+        return d == null ? 0.0F : d.power;
+    }
+
+    // Let the preloaded chunks of a task go once it has run
+    private static Runnable releasing(PosKey k, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } finally {
+                DESCRIPTORS.remove(k);
+                finishCoalesced(k, true);
+                finishOverflowed(k);
+                PRELOADER.detonated(k);
+            }
+        };
+    }
+
+    // an explosion already waiting under the same key makes this one redundant
+    private static void govern(PosKey k, Runnable explosion) {
+        if (!GOVERNOR.submit(k, k.dim, k.x + 0.5D, k.y + 0.5D, k.z + 0.5D, explosion)) {
+            EZNuclear.LOG.debug(
+                "[EZNuclear] " + k.kind + " explosion already queued at: [" + k.x + "," + k.y + "," + k.z + "]");
+        }
+    }
+
+    // Run a task that has left the wheel and release its position
+    private static void runTask(MeltdownScheduler.Task<PosKey> s) {
+        try {
+            // Expired tasks are dropped without running to prevent memory leaks
+            if (s.isExpired()) {
+                Metrics.expired(s.getKey().kind);
+            } else {
+                PosKey k = s.getKey();
+                Metrics.executed(k.kind, SCHEDULER.getCurrentTick() - s.getDueTick(), k.x, k.y, k.z, k.dim, powerOf(k));
+                s.getTask()
+                    .run();
+            }
+        } catch (Throwable t) {
+            Metrics.failed(s.getKey().kind);
+            EZNuclear.LOG.warn("[EZNuclear] Error running scheduled " + s.getKey().kind + " task", t);
+        } finally {
+            // free the position so future meltdowns can be scheduled there, unless another kind is still pending
+            PosKey k = s.getKey();
+            DESCRIPTORS.remove(k);
+            finishCoalesced(k, !s.isExpired());
+            finishOverflowed(k);
+            PRELOADER.detonated(k);
+            if (!hasPendingTask(k.x, k.y, k.z, k.dim)) {
+                TABLE.onTaskFinished(k.x, k.y, k.z, k.dim);
+            }
+        }
+    }
+
+    /**
+     * @return the state of a dimension worth keeping across a restart: its scheduled reactor meltdowns, each source of
+     *         a coalesced explosion on its own, and its armed and cooling down positions
+     */
+    static List<MeltdownStore.Record> persistentRecords(int dimension, long worldTime) {
+        List<MeltdownStore.Record> records = new ArrayList<>();
+        long now = SCHEDULER.getCurrentTick();
+        for (MeltdownScheduler.Task<PosKey> t : SCHEDULER.snapshot()) {
+            PosKey k = t.getKey();
+            TaskDescriptor d = k.dim == dimension ? DESCRIPTORS.get(k) : null;
+            if (d == null) continue;
+            // world time stops while the server is down, so the countdown picks up where it was
+            long due = worldTime + t.getDueTick() - now;
+            CoalescedBlast blast = BLASTS.get(k);
+            if (blast == null || blast.size() == 1) {
+                records.add(MeltdownStore.Record.task(d, due));
+                continue;
+            }
+            // merged meltdowns are saved on their own and coalesce again when they are scheduled after loading
+            for (int i = 0; i < blast.size(); i++) {
+                TaskDescriptor source = new TaskDescriptor(
+                    k.kind,
+                    blast.x(i),
+                    blast.y(i),
+                    blast.z(i),
+                    dimension,
+                    blast.power(i));
+                records.add(MeltdownStore.Record.task(source, due));
+            }
+        }
+        for (MeltdownTable.Entry e : TABLE.persistentEntries(dimension)) {
+            if (e.state == MeltdownTable.STATE_ARMED) {
+                records.add(MeltdownStore.Record.armed(e.x, e.y, e.z, e.de, (float) e.power));
+            } else {
+                records.add(MeltdownStore.Record.cooldown(e.x, e.y, e.z, e.stateTime));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Bring back the saved state of a dimension that has just loaded. Meltdowns that were already due go off after
+     * the usual countdown, so players get their warning after a restart.
+     */
+    static void restore(WorldServer world, List<MeltdownStore.Record> records) {
+        int dimension = world.provider.dimensionId;
+        long worldTime = world.getTotalWorldTime();
+        long minTicks = toTicks(Config.explosionDelaySeconds * 1000L);
+        int tasks = 0;
+        for (MeltdownStore.Record r : records) {
+            switch (r.type) {
+                case MeltdownStore.TYPE_TASK: {
+                    TaskDescriptor d = new TaskDescriptor(
+                        r.kind,
+                        r.x,
+                        r.y,
+                        r.z,
+                        dimension,
+                        r.power,
+                        TaskDescriptor.FLAG_RESTORED);
+                    long delayTicks = Math.max(minTicks, r.time - worldTime);
+                    double blastRadius = r.kind == MeltdownKind.IC2_EXPLOSION
+                        ? com.czqwq.EZNuclear.explosion.ExplosionEngine.nuclearRadius(r.power)
+                        : com.czqwq.EZNuclear.explosion.ExplosionEngine.reactorRadius(r.power);
+                    if (scheduleMeltdown(d, delayTicks * MS_PER_TICK, blastRadius) != null) tasks++;
+                    break;
+                }
+                case MeltdownStore.TYPE_ARMED:
+                    TABLE.arm(r.x, r.y, r.z, dimension, r.de, r.power, System.currentTimeMillis());
+                    break;
+                default:
+                    TABLE.markCooldown(r.x, r.y, r.z, dimension, r.time);
+                    break;
+            }
+        }
+        EZNuclear.LOG.info(
+            "[EZNuclear] Restored " + tasks
+                + " pending meltdowns and "
+                + (records.size() - tasks)
+                + " reactor states in dimension: "
+                + dimension);
+    }
+
+    // Resolve a descriptor to the world and set off what it describes
+    private static void execute(TaskDescriptor d) {
+        int x = d.x(), y = d.y(), z = d.z();
+        ChunkCoordinates pos = new ChunkCoordinates(x, y, z);
+        if (d.hasFlag(TaskDescriptor.FLAG_RESTORED)) {
+            EZNuclear.LOG.debug("[EZNuclear] Running restored " + d.kind + " task at position: " + pos);
+        }
+        if (!d.kind.isExplosion()) {
+            // explosions disabled by config: only the follow-up message is left
+            MessageUtils.notify("info.ezunclear.preventexplosion", d.dim, x, y, z);
+            return;
+        }
+        WorldServer world = getWorldServerByDimension(MinecraftServer.getServer(), d.dim);
+        if (world == null) {
+            EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + d.dim);
+            return;
+        }
+        switch (d.kind) {
+            case IC2_EXPLOSION:
+                MessageUtils.notify("info.ezunclear.interact", d.dim, x, y, z);
+                createAndExecuteIC2Explosion(world, x, y, z, d.power);
+                break;
+            case DE_EXPLOSION:
+                if (Config.requireCommandToExplode) {
+                    // in manual mode the countdown only arms the reactor; the player sets it off
+                    markDEManualTriggerWithPower(pos, d.dim, d.power);
+                    return;
+                }
+                MessageUtils.notify("info.ezunclear.interact", d.dim, x, y, z);
+                markReentry(pos, d.dim);
+                createAndExecuteDEExplosion(world, x, y, z, d.power);
+                break;
+            case REACTOR_SCAN:
+                MessageUtils.notify("info.ezunclear.interact", d.dim, x, y, z);
+                // the reactor may have been saved during the countdown; only one that is still failing goes off
+                net.minecraft.tileentity.TileEntity reactor = world.getTileEntity(x, y, z);
+                if (reactor != null && !ReactorRegistry.isFailing(reactor)) {
+                    EZNuclear.LOG.debug("[EZNuclear] Reactor at " + pos + " is no longer failing, not detonating");
+                    return;
+                }
+                // allow reentry and try to call goBoom on the reactor, if it is still there
+                markReentry(pos, d.dim);
+                try {
+                    if (reactor != null && Accessors.invokeGoBoom(reactor)) return;
+                } catch (Throwable t) {
+                    Metrics.failed(d.kind);
+                    EZNuclear.LOG.warn("[EZNuclear] goBoom failed for reactor at " + pos + ", using a fallback", t);
+                }
+                // fallback: create ReactorExplosion
+                try {
+                    float power = com.czqwq.EZNuclear.explosion.CraterMemory
+                        .clampReactor(com.czqwq.EZNuclear.explosion.PowerScaling.scale(10F, "DE"));
+                    // add to process handler (deferred to avoid ConcurrentModificationException)
+                    DEFERRED_PROCESS_QUEUE.add(Accessors.newReactorExplosion(world, x, y, z, power));
+                } catch (Throwable t) {
+                    Metrics.failed(d.kind);
+                    EZNuclear.LOG.error("[EZNuclear] Failed to create fallback ReactorExplosion at " + pos, t);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static long toTicks(long delayMs) {
+        return (Math.max(0L, delayMs) + MS_PER_TICK - 1) / MS_PER_TICK;
     }
 
     public static void markReentry(ChunkCoordinates pos, int dimension) {
         if (pos == null) return;
-        REENTRY.add(new PosKey(pos, dimension));
+        TABLE.markReentry(pos.posX, pos.posY, pos.posZ, dimension, System.currentTimeMillis());
     }
 
     public static boolean consumeReentry(ChunkCoordinates pos, int dimension) {
         if (pos == null) return false;
-        return REENTRY.remove(new PosKey(pos, dimension));
+        return TABLE.consumeReentry(pos.posX, pos.posY, pos.posZ, dimension);
     }
 
     // Backwards-compatible variants (dimension 0)
@@ -218,16 +818,14 @@ public class PendingMeltdown {
     public static void markManualTrigger(ChunkCoordinates pos, int dimension) {
         EZNuclear.LOG.debug("[EZNuclear] Marking position for manual trigger: " + pos + " dimension: " + dimension);
         if (pos == null) return;
-        MANUAL_TRIGGER.add(new PosKey(pos, dimension));
+        TABLE.arm(pos.posX, pos.posY, pos.posZ, dimension, false, DEFAULT_MANUAL_POWER, System.currentTimeMillis());
     }
 
     public static void markManualTriggerWithPower(ChunkCoordinates pos, double power) {
         EZNuclear.LOG.debug("[EZNuclear] Marking position for manual trigger with power: " + pos + " power: " + power);
         if (pos == null) return;
         // For this method, we use dimension 0 by default, but it would be better to pass dimension
-        PosKey key = new PosKey(pos, 0);
-        MANUAL_TRIGGER.add(key);
-        EXPLOSION_POWERS.put(key, power);
+        TABLE.arm(pos.posX, pos.posY, pos.posZ, 0, false, power, System.currentTimeMillis());
     }
 
     public static void markManualTriggerWithPower(ChunkCoordinates pos, int dimension, double power) {
@@ -238,9 +836,7 @@ public class PendingMeltdown {
                 + " power: "
                 + power);
         if (pos == null) return;
-        PosKey key = new PosKey(pos, dimension);
-        MANUAL_TRIGGER.add(key);
-        EXPLOSION_POWERS.put(key, power);
+        TABLE.arm(pos.posX, pos.posY, pos.posZ, dimension, false, power, System.currentTimeMillis());
         EZNuclear.LOG.debug("[EZNuclear] Added position " + pos + " to IC2 manual trigger set with power: " + power);
     }
 
@@ -252,20 +848,18 @@ public class PendingMeltdown {
                 + " power: "
                 + power);
         if (pos == null) return;
-        PosKey key = new PosKey(pos, dimension);
-        DE_MANUAL_TRIGGER.add(key);
-        EXPLOSION_POWERS.put(key, power);
+        TABLE.arm(pos.posX, pos.posY, pos.posZ, dimension, true, power, System.currentTimeMillis());
         EZNuclear.LOG.debug("[EZNuclear] Added position " + pos + " to DE manual trigger set with power: " + power);
     }
 
     public static boolean consumeManualTrigger(ChunkCoordinates pos, int dimension) {
         if (pos == null) return false;
-        return MANUAL_TRIGGER.remove(new PosKey(pos, dimension));
+        return TABLE.disarm(pos.posX, pos.posY, pos.posZ, dimension, false);
     }
 
     public static boolean isManualTrigger(ChunkCoordinates pos, int dimension) {
         if (pos == null) return false;
-        return MANUAL_TRIGGER.contains(new PosKey(pos, dimension));
+        return TABLE.isArmed(pos.posX, pos.posY, pos.posZ, dimension, false);
     }
 
     /**
@@ -274,42 +868,21 @@ public class PendingMeltdown {
      */
     public static boolean shouldIgnoreExplosionAt(ChunkCoordinates pos, int dimension) {
         if (pos == null) return false;
-        PosKey key = new PosKey(pos, dimension);
 
-        boolean shouldIgnore = PROCESSED_POSITIONS.contains(key);
+        // Age of the processed record, or -1 if the position is not in the recently processed state
+        long age = TABLE.cooldownAge(pos.posX, pos.posY, pos.posZ, dimension, System.currentTimeMillis());
+        boolean shouldIgnore = age >= 0 && age < PROCESSING_WINDOW_MS;
         EZNuclear.LOG.debug(
             "[EZNuclear] shouldIgnoreExplosionAt: pos=" + pos
                 + ", dimension="
                 + dimension
-                + ", shouldIgnore="
+                + ", processedAge="
+                + age
+                + "ms, window="
+                + PROCESSING_WINDOW_MS
+                + "ms, shouldIgnore="
                 + shouldIgnore);
-
-        // Check if the position is in the recently processed set
-        if (!shouldIgnore) {
-            EZNuclear.LOG.debug("[EZNuclear] Position " + pos + " not in PROCESSED_POSITIONS, allowing explosion");
-            return false;
-        }
-
-        // Check if it's within the time window
-        Long processedTime = PROCESSED_POSITIONS_TIME.get(key);
-        if (processedTime != null) {
-            long timeDiff = System.currentTimeMillis() - processedTime;
-            boolean inTimeWindow = timeDiff < PROCESSING_WINDOW_MS;
-            EZNuclear.LOG.debug(
-                "[EZNuclear] Position " + pos
-                    + " time check: diff="
-                    + timeDiff
-                    + "ms, window="
-                    + PROCESSING_WINDOW_MS
-                    + "ms, inWindow="
-                    + inTimeWindow);
-            return inTimeWindow;
-        }
-
-        // If we only have it in PROCESSED_POSITIONS but not in PROCESSED_POSITIONS_TIME,
-        // consider it still in ignore window
-        EZNuclear.LOG.debug("[EZNuclear] Position " + pos + " in PROCESSED_POSITIONS but no time record, ignoring");
-        return true;
+        return shouldIgnore;
     }
 
     // Backwards-compatible variants (dimension 0)
@@ -326,26 +899,30 @@ public class PendingMeltdown {
     }
 
     /**
-     * Force-execute all scheduled tasks immediately (used by chat trigger). Runs on the calling thread.
+     * Force-execute all scheduled tasks immediately (used by chat trigger). Must be called on the server thread; use
+     * {@link #requestTrigger} from anywhere else.
      */
     public static void executeAllNow() {
-        List<Scheduled> copy = new ArrayList<>(SCHEDULED);
-        SCHEDULED.clear();
-        POSITIONS.clear();
-        MANUAL_TRIGGER.clear();
-        DE_MANUAL_TRIGGER.clear(); // Also clear DE manual triggers
-        REENTRY.clear();
-        EXPLOSION_POWERS.clear(); // Also clear explosion powers to maintain consistency
-        PROCESSED_POSITIONS.clear(); // Also clear processed positions to maintain consistency
-        PROCESSED_POSITIONS_TIME.clear(); // Also clear processed positions time to maintain consistency
-        SCHEDULED_TASK_CREATION_TIME.clear(); // Also clear creation time map to prevent memory leaks
-        // LOGGER.info("PendingMeltdown.executeAllNow: executing {} tasks immediately", copy.size());
-        for (Scheduled s : copy) {
+        MeltdownScheduler.Task<PosKey> drained = SCHEDULER.drainAll();
+        // Manual triggers, re-entry permissions, stored powers and processed records all live in the table
+        TABLE.clear();
+        // LOGGER.info("PendingMeltdown.executeAllNow: executing tasks immediately");
+        for (MeltdownScheduler.Task<PosKey> s = drained; s != null; s = s.getNext()) {
+            // explosions go off a few per tick through the governor
+            PosKey k = s.getKey();
+            // run ahead of time, so there is no lag to report
+            Metrics.executed(k.kind, 0L, k.x, k.y, k.z, k.dim, powerOf(k));
+            Runnable task = releasing(k, s.getTask());
+            if (s.getKey().kind.isExplosion()) {
+                govern(s.getKey(), task);
+                continue;
+            }
             try {
-                // LOGGER.info("PendingMeltdown.executeAllNow: running task for pos {}", s.pos);
-                s.task.run();
+                // LOGGER.info("PendingMeltdown.executeAllNow: running task for pos {}", s.getKey());
+                task.run();
             } catch (Throwable t) {
-                // LOGGER.error("Error running meltdown task", t);
+                Metrics.failed(s.getKey().kind);
+                EZNuclear.LOG.warn("[EZNuclear] Error running " + s.getKey().kind + " task", t);
             }
         }
     }
@@ -354,31 +931,32 @@ public class PendingMeltdown {
      * Execute specific scheduled task immediately by position (used by manual trigger).
      */
     public static void executeByPosition(ChunkCoordinates pos, int dimension) {
-        List<Scheduled> copy = new ArrayList<>(SCHEDULED);
-        List<Scheduled> toRemove = new ArrayList<>();
-
-        PosKey posKey = new PosKey(pos, dimension);
-        for (Scheduled s : copy) {
-            if (s.pos.equals(posKey)) {
-                toRemove.add(s);
-                try {
-                    // LOGGER.info("PendingMeltdown.executeByPosition: running task for pos {}", s.pos)
-                    setAllowNextExplosion();
-                    s.task.run();
-                } catch (Throwable t) {
-                    // LOGGER.error("Error running meltdown task", t);
-                }
+        boolean removed = false;
+        for (MeltdownKind kind : KINDS) {
+            PosKey key = new PosKey(pos.posX, pos.posY, pos.posZ, dimension, kind);
+            // a meltdown merged into another one's explosion sets off that explosion
+            if (MERGED.containsKey(key)) key = MERGED.get(key);
+            MeltdownScheduler.Task<PosKey> s = SCHEDULER.remove(key);
+            if (s == null) continue;
+            removed = true;
+            Metrics.executed(kind, 0L, key.x, key.y, key.z, key.dim, powerOf(key));
+            Runnable task = releasing(s.getKey(), s.getTask());
+            if (kind.isExplosion()) {
+                govern(s.getKey(), task);
+                continue;
+            }
+            try {
+                // LOGGER.info("PendingMeltdown.executeByPosition: running task for pos {}", s.getKey())
+                task.run();
+            } catch (Throwable t) {
+                Metrics.failed(s.getKey().kind);
+                EZNuclear.LOG.warn("[EZNuclear] Error running " + s.getKey().kind + " task", t);
             }
         }
 
-        if (!toRemove.isEmpty()) {
-            SCHEDULED.removeAll(toRemove);
-            POSITIONS.remove(posKey);
-            MANUAL_TRIGGER.remove(posKey);
-            REENTRY.remove(posKey);
-            EXPLOSION_POWERS.remove(posKey); // Also remove explosion power to maintain consistency
-            PROCESSED_POSITIONS.remove(posKey); // Also remove from processed set to allow future processing if needed
-            PROCESSED_POSITIONS_TIME.remove(posKey); // Also remove from processed time set
+        if (removed) {
+            // Drop every record of the position to allow future processing if needed
+            TABLE.remove(pos.posX, pos.posY, pos.posZ, dimension);
         }
     }
 
@@ -391,55 +969,44 @@ public class PendingMeltdown {
      * Trigger explosion immediately for a manually marked position.
      * This creates a new explosion task and executes it immediately.
      */
+    public static void triggerExplosionImmediately(ChunkCoordinates pos, int dimension) {
+        EZNuclear.LOG.debug("[EZNuclear] triggerExplosionImmediately called for position: " + pos);
+        // Take the armed IC2 entry out of the manual trigger state
+        triggerArmedIC2(pos, TABLE.takeArmed(pos.posX, pos.posY, pos.posZ, dimension, false));
+    }
+
+    // Backwards-compatible variant: the position may be armed in any dimension
     public static void triggerExplosionImmediately(ChunkCoordinates pos) {
         EZNuclear.LOG.debug("[EZNuclear] triggerExplosionImmediately called for position: " + pos);
-        // We need to find the correct PosKey with dimension from the MANUAL_TRIGGER set
-        PosKey foundPosKey = null;
-        for (PosKey key : MANUAL_TRIGGER) {
-            if (key.x == pos.posX && key.y == pos.posY && key.z == pos.posZ) {
-                foundPosKey = key;
-                break;
-            }
-        }
+        triggerArmedIC2(pos, TABLE.takeArmedAnyDimension(pos.posX, pos.posY, pos.posZ, false));
+    }
 
-        if (foundPosKey == null) {
+    private static void triggerArmedIC2(ChunkCoordinates pos, MeltdownTable.Entry found) {
+        if (found == null) {
             EZNuclear.LOG.debug("[EZNuclear] Position not marked for manual trigger: " + pos);
             return;
         }
 
-        // Remove from manual trigger set
-        MANUAL_TRIGGER.remove(foundPosKey);
-
-        // Get stored explosion power if available
-        Double power = EXPLOSION_POWERS.get(foundPosKey);
-        if (power == null) {
-            power = 4.0; // Default power if not stored
-        }
+        // Stored explosion power
+        double power = found.power;
         EZNuclear.LOG.debug("[EZNuclear] Using explosion power: " + power);
 
-        // Set flag to allow the explosion to proceed without being re-cancelled
-        setAllowNextExplosion();
-
         // Create and trigger the explosion immediately at the specified position
         MinecraftServer server = MinecraftServer.getServer();
         if (server != null) {
             // Get the world by dimension ID instead of using it as array index
-            WorldServer world = getWorldServerByDimension(server, foundPosKey.dim);
+            WorldServer world = getWorldServerByDimension(server, found.dim);
             if (world != null) {
-                createAndExecuteIC2Explosion(world, pos.posX, pos.posY, pos.posZ, power.floatValue());
+                createAndExecuteIC2Explosion(world, pos.posX, pos.posY, pos.posZ, (float) power);
             } else {
-                EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + foundPosKey.dim);
+                EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + found.dim);
             }
         } else {
             EZNuclear.LOG.warn("[EZNuclear] Minecraft server is null, cannot trigger explosion");
         }
 
-        // Clean up stored power
-        EXPLOSION_POWERS.remove(foundPosKey);
-
-        // Mark this position as processed to prevent re-interception
-        PROCESSED_POSITIONS.add(foundPosKey);
-        PROCESSED_POSITIONS_TIME.put(foundPosKey, System.currentTimeMillis());
+        // Mark this position as processed to prevent re-interception (this also drops the stored power)
+        TABLE.markCooldown(found.x, found.y, found.z, found.dim, System.currentTimeMillis());
     }
 
     @SubscribeEvent(priority = EventPriority.NORMAL)
@@ -449,164 +1016,156 @@ public class PendingMeltdown {
                 + " from player: "
                 + event.player.getCommandSenderName());
         String triggerMessage = Constants.COMMAND_EZUNCLEAR; // 你可以改成任何触发消息
+        String player = event.player.getCommandSenderName();
+        int dimension = event.player.dimension;
+        int px = (int) Math.floor(event.player.posX);
+        int py = (int) Math.floor(event.player.posY);
+        int pz = (int) Math.floor(event.player.posZ);
 
+        // ServerChatEvent may fire on the network thread; the triggers are carried out on the server thread
         if (event.message != null && event.message.equals(triggerMessage)) {
             EZNuclear.LOG.debug("[EZNuclear] Trigger message detected, executing all scheduled tasks");
-            executeAllNow();
+            requestTrigger(new TriggerRequest(TriggerRequest.Type.EXECUTE_ALL, player, dimension, px, py, pz));
         }
 
         // Handle manual trigger command "坏了坏了"
         if (event.message != null && event.message.equals(Constants.COMMAND_OH_NO)) {
-            EZNuclear.LOG.debug(
-                "[EZNuclear] Manual trigger command detected from player: " + event.player.getCommandSenderName());
-            EZNuclear.LOG.debug("[EZNuclear] IC2 Manual Trigger Set size: " + MANUAL_TRIGGER.size());
-            EZNuclear.LOG.debug("[EZNuclear] DE Manual Trigger Set size: " + DE_MANUAL_TRIGGER.size());
-
-            // Process IC2 explosions
-            processManualTriggers(MANUAL_TRIGGER, false); // false = not DE
-
-            // Process DE explosions
-            processManualTriggers(DE_MANUAL_TRIGGER, true); // true = DE
+            EZNuclear.LOG.debug("[EZNuclear] Manual trigger command detected from player: " + player);
+            requestTrigger(new TriggerRequest(TriggerRequest.Type.MANUAL_TRIGGER, player, dimension, px, py, pz));
         }
     }
 
-    private static void processManualTriggers(Set<PosKey> triggerSet, boolean isDE) {
-        List<PosKey> positionsToTrigger = new ArrayList<>();
-        synchronized (triggerSet) {
-            positionsToTrigger.addAll(triggerSet);
-        }
+    private static void processManualTriggers(boolean isDE, TriggerRequest request) {
+        // Armed entries of this kind are moved to DETONATING atomically, so each is triggered only once. With a
+        // trigger radius only the reactors around the player are looked at, through the table's spatial index
+        List<MeltdownTable.Entry> positionsToTrigger = Config.manualTriggerRadius > 0
+            ? TABLE.takeArmedWithin(
+                request.dimension,
+                request.x,
+                request.y,
+                request.z,
+                Config.manualTriggerRadius,
+                isDE)
+            : TABLE.takeArmed(isDE);
 
         EZNuclear.LOG.debug(
             "[EZNuclear] processManualTriggers called for " + (isDE ? "DE" : "IC2")
                 + ", found "
                 + positionsToTrigger.size()
                 + " positions to trigger");
-        EZNuclear.LOG.debug("[EZNuclear] triggerSet size before processing: " + triggerSet.size());
-        for (PosKey posKey : positionsToTrigger) {
-            ChunkCoordinates pos = new ChunkCoordinates(posKey.x, posKey.y, posKey.z);
-            EZNuclear.LOG.debug("[EZNuclear] Triggering " + (isDE ? "DE" : "IC2") + " explosion at position: " + pos);
-
-            if (triggerSet.contains(posKey)) {
-                triggerSet.remove(posKey);
-                EZNuclear.LOG.debug("[EZNuclear] Removed position " + pos + " from trigger set");
-
-                // Get stored explosion power if available
-                Double power = EXPLOSION_POWERS.get(posKey);
-                if (power == null) {
-                    power = 4.0; // Default power if not stored
-                }
-                EZNuclear.LOG.debug("[EZNuclear] Using " + (isDE ? "DE" : "IC2") + " explosion power: " + power);
-
-                // Set flag to allow the explosion to proceed without being re-cancelled
-                setAllowNextExplosion();
-                EZNuclear.LOG.debug("[EZNuclear] Set allowNextExplosion flag to true");
-
-                // Create and trigger the explosion immediately at the specified position
-                MinecraftServer server = MinecraftServer.getServer();
-                if (server != null) {
-                    // Get the world by dimension ID instead of using it as array index
-                    WorldServer world = getWorldServerByDimension(server, posKey.dim);
-                    if (world != null) {
-                        if (isDE) {
-                            // Create the DE explosion using ReactorExplosion
-                            try {
-                                Class<?> reClass = Class.forName(
-                                    "com.brandon3055.draconicevolution.common.tileentities.multiblocktiles.reactor.ReactorExplosion");
-                                java.lang.reflect.Constructor<?> ctor = reClass.getConstructor(
-                                    net.minecraft.world.World.class,
-                                    int.class,
-                                    int.class,
-                                    int.class,
-                                    float.class);
-                                Object newExp = ctor
-                                    .newInstance(world, pos.posX, pos.posY, pos.posZ, power.floatValue());
-
-                                // Add to process handler (deferred to avoid ConcurrentModificationException)
-                                DEFERRED_PROCESS_QUEUE.add(newExp);
-
-                                EZNuclear.LOG.debug(
-                                    "[EZNuclear] DE ReactorExplosion triggered at position: " + pos
-                                        + " with power: "
-                                        + power);
-                            } catch (Exception e) {
-                                EZNuclear.LOG.error("[EZNuclear] Error creating DE explosion: " + e.getMessage(), e);
-                                // Fallback to vanilla explosion if DE classes are not available
-                                net.minecraft.world.Explosion explosion = new net.minecraft.world.Explosion(
-                                    world,
-                                    null,
-                                    pos.posX,
-                                    pos.posY,
-                                    pos.posZ,
-                                    power.floatValue());
-                                explosion.doExplosionA();
-                                explosion.doExplosionB(true);
-                                EZNuclear.LOG.debug(
-                                    "[EZNuclear] DE fallback vanilla explosion triggered at position: " + pos
-                                        + " with power: "
-                                        + power);
-                            }
-                        } else {
-                            // Create the IC2 explosion using the common helper method
-                            createAndExecuteIC2Explosion(world, pos.posX, pos.posY, pos.posZ, power.floatValue());
-                            EZNuclear.LOG.debug(
-                                "[EZNuclear] IC2 Explosion triggered at position: " + pos + " with power: " + power);
+        for (MeltdownTable.Entry entry : positionsToTrigger) {
+            ChunkCoordinates pos = new ChunkCoordinates(entry.x, entry.y, entry.z);
+            EZNuclear.LOG.debug("[EZNuclear] Queueing " + (isDE ? "DE" : "IC2") + " explosion at position: " + pos);
+            // explosions go off a few per tick through the governor
+            MeltdownKind kind = isDE ? MeltdownKind.DE_EXPLOSION : MeltdownKind.IC2_EXPLOSION;
+            Metrics.executed(kind, 0L, entry.x, entry.y, entry.z, entry.dim, (float) entry.power);
+            govern(new PosKey(entry.x, entry.y, entry.z, entry.dim, kind), () -> detonateManual(entry, isDE));
+
+            // Mark this position as processed to prevent re-interception (this also drops the stored power)
+            TABLE.markCooldown(entry.x, entry.y, entry.z, entry.dim, System.currentTimeMillis());
+            EZNuclear.LOG.debug("[EZNuclear] Marked position " + pos + " as processed to prevent re-interception");
+        }
+        EZNuclear.LOG.debug("[EZNuclear] processManualTriggers completed for " + (isDE ? "DE" : "IC2"));
+    }
+
+    private static void detonateManual(MeltdownTable.Entry entry, boolean isDE) {
+        ChunkCoordinates pos = new ChunkCoordinates(entry.x, entry.y, entry.z);
+        EZNuclear.LOG.debug("[EZNuclear] Triggering " + (isDE ? "DE" : "IC2") + " explosion at position: " + pos);
+
+        // Stored explosion power
+        double power = entry.power;
+        EZNuclear.LOG.debug("[EZNuclear] Using " + (isDE ? "DE" : "IC2") + " explosion power: " + power);
+
+        // Create and trigger the explosion immediately at the specified position
+        MinecraftServer server = MinecraftServer.getServer();
+        if (server != null) {
+            // Get the world by dimension ID instead of using it as array index
+            WorldServer world = getWorldServerByDimension(server, entry.dim);
+            if (world != null) {
+                if (isDE) {
+                    // Create the DE explosion using ReactorExplosion
+                    try {
+                        power = com.czqwq.EZNuclear.explosion.PowerScaling.scale((float) power, "DE");
+                        if (com.czqwq.EZNuclear.explosion.ExplosionEngine.isEnabled()
+                            || com.czqwq.EZNuclear.explosion.CraterMemory.rerouteReactor((float) power)) {
+                            com.czqwq.EZNuclear.explosion.ExplosionEngine
+                                .submitReactor(world, pos.posX + 0.5D, pos.posY + 0.5D, pos.posZ + 0.5D, (float) power);
+                            return;
                         }
-                    } else {
-                        EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + posKey.dim);
+                        power = com.czqwq.EZNuclear.explosion.CraterMemory.clampReactor((float) power);
+                        Object newExp = Accessors
+                            .newReactorExplosion(world, pos.posX, pos.posY, pos.posZ, (float) power);
+
+                        // Add to process handler (deferred to avoid ConcurrentModificationException)
+                        DEFERRED_PROCESS_QUEUE.add(newExp);
+
+                        EZNuclear.LOG.debug(
+                            "[EZNuclear] DE ReactorExplosion triggered at position: " + pos + " with power: " + power);
+                    } catch (Exception e) {
+                        EZNuclear.LOG.error("[EZNuclear] Error creating DE explosion: " + e.getMessage(), e);
+                        // Fallback to vanilla explosion if DE classes are not available
+                        net.minecraft.world.Explosion explosion = new net.minecraft.world.Explosion(
+                            world,
+                            null,
+                            pos.posX,
+                            pos.posY,
+                            pos.posZ,
+                            (float) power);
+                        explosion.doExplosionA();
+                        explosion.doExplosionB(true);
+                        EZNuclear.LOG.debug(
+                            "[EZNuclear] DE fallback vanilla explosion triggered at position: " + pos
+                                + " with power: "
+                                + power);
                     }
                 } else {
-                    EZNuclear.LOG.warn("[EZNuclear] Minecraft server is null, cannot trigger explosion");
+                    // Create the IC2 explosion using the common helper method
+                    createAndExecuteIC2Explosion(world, pos.posX, pos.posY, pos.posZ, (float) power);
+                    EZNuclear.LOG.debug(
+                        "[EZNuclear] IC2 Explosion triggered at position: " + pos + " with power: " + power);
                 }
-
-                // Clean up stored power
-                EXPLOSION_POWERS.remove(posKey);
-                EZNuclear.LOG.debug("[EZNuclear] Cleaned up stored power for position: " + pos);
-
-                // Mark this position as processed to prevent re-interception
-                PROCESSED_POSITIONS.add(posKey);
-                PROCESSED_POSITIONS_TIME.put(posKey, System.currentTimeMillis());
-                EZNuclear.LOG.debug("[EZNuclear] Marked position " + pos + " as processed to prevent re-interception");
+            } else {
+                EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + entry.dim);
             }
+        } else {
+            EZNuclear.LOG.warn("[EZNuclear] Minecraft server is null, cannot trigger explosion");
         }
-        EZNuclear.LOG.debug("[EZNuclear] processManualTriggers completed for " + (isDE ? "DE" : "IC2"));
     }
 
     /**
      * Trigger DE explosion immediately for a manually marked position.
      * This creates a new explosion task and executes it immediately.
      */
+    public static void triggerDEExplosionImmediately(ChunkCoordinates pos, int dimension) {
+        EZNuclear.LOG.debug("[EZNuclear] triggerDEExplosionImmediately called for position: " + pos);
+        // Take the armed DE entry out of the manual trigger state
+        triggerArmedDE(pos, TABLE.takeArmed(pos.posX, pos.posY, pos.posZ, dimension, true));
+    }
+
+    // Backwards-compatible variant: the position may be armed in any dimension
     public static void triggerDEExplosionImmediately(ChunkCoordinates pos) {
         EZNuclear.LOG.debug("[EZNuclear] triggerDEExplosionImmediately called for position: " + pos);
-        // We need to find the correct PosKey with dimension from the MANUAL_TRIGGER set
-        PosKey foundPosKey = null;
-        for (PosKey key : MANUAL_TRIGGER) {
-            if (key.x == pos.posX && key.y == pos.posY && key.z == pos.posZ) {
-                foundPosKey = key;
-                break;
-            }
-        }
+        triggerArmedDE(pos, TABLE.takeArmedAnyDimension(pos.posX, pos.posY, pos.posZ, true));
+    }
 
-        if (foundPosKey == null) {
+    private static void triggerArmedDE(ChunkCoordinates pos, MeltdownTable.Entry found) {
+        if (found == null) {
             EZNuclear.LOG.debug("[EZNuclear] Position not marked for manual trigger: " + pos);
             return;
         }
 
-        // Remove from manual trigger set
-        MANUAL_TRIGGER.remove(foundPosKey);
-
-        // Get stored explosion power if available
-        Double power = EXPLOSION_POWERS.get(foundPosKey);
-        if (power == null) {
-            power = 4.0; // Default power if not stored
-        }
+        // Stored explosion power
+        double power = found.power;
         EZNuclear.LOG.debug("[EZNuclear] Using DE explosion power: " + power);
 
         // Create and trigger the explosion immediately at the specified position
         MinecraftServer server = MinecraftServer.getServer();
         if (server != null) {
             // Get the world by dimension ID instead of using it as array index
-            WorldServer world = getWorldServerByDimension(server, foundPosKey.dim);
+            WorldServer world = getWorldServerByDimension(server, found.dim);
             if (world != null) {
+                // scaled under tick load like every other explosion this mod sets off
+                power = com.czqwq.EZNuclear.explosion.PowerScaling.scale((float) power, "DE");
                 // Create the vanilla explosion for DE
                 net.minecraft.world.Explosion explosion = new net.minecraft.world.Explosion(
                     world,
@@ -614,24 +1173,20 @@ public class PendingMeltdown {
                     pos.posX,
                     pos.posY,
                     pos.posZ,
-                    power.floatValue());
+                    (float) power);
                 explosion.doExplosionA();
                 explosion.doExplosionB(true);
 
                 EZNuclear.LOG.debug("[EZNuclear] DE Explosion triggered at position: " + pos + " with power: " + power);
             } else {
-                EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + foundPosKey.dim);
+                EZNuclear.LOG.warn("[EZNuclear] World not found for dimension: " + found.dim);
             }
         } else {
             EZNuclear.LOG.warn("[EZNuclear] Minecraft server is null, cannot trigger DE explosion");
         }
 
-        // Clean up stored power
-        EXPLOSION_POWERS.remove(foundPosKey);
-
-        // Mark this position as processed to prevent re-interception
-        PROCESSED_POSITIONS.add(foundPosKey);
-        PROCESSED_POSITIONS_TIME.put(foundPosKey, System.currentTimeMillis());
+        // Mark this position as processed to prevent re-interception (this also drops the stored power)
+        TABLE.markCooldown(found.x, found.y, found.z, found.dim, System.currentTimeMillis());
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -640,6 +1195,7 @@ public class PendingMeltdown {
         // This must happen before ProcessHandler.onServerTick runs
         if (event.phase == TickEvent.Phase.START) {
             processDeferredProcesses();
+            processTriggerRequests();
             return;
         }
 
@@ -647,36 +1203,27 @@ public class PendingMeltdown {
         // periodic scan for reactors with overheat when structure is invalid
         tickCounter++;
         boolean doScan = (tickCounter % SCAN_INTERVAL_TICKS) == 0;
-        long now = System.currentTimeMillis();
-        // CopyOnWriteArrayList iterator does not support remove(); collect due tasks and removeAll instead
-        List<Scheduled> due = new ArrayList<>();
-        for (Scheduled s : SCHEDULED) {
-            if (s.executeAtMillis <= now) {
-                due.add(s);
-            }
+        // Fired tasks are already unlinked from the wheel, so tasks that reschedule themselves are safe
+        MeltdownScheduler.Task<PosKey> s = SCHEDULER.advance();
+        while (s != null) {
+            MeltdownScheduler.Task<PosKey> next = s.getNext();
+            // LOGGER.info(
+            // "PendingMeltdown.onServerTick: executing scheduled task for pos {} (dueTick={} expired={})",
+            // s.getKey(),
+            // s.getDueTick(),
+            // s.isExpired());
+            fire(s);
+            s = next;
         }
-        if (!due.isEmpty()) {
-            // remove scheduled entries first to avoid race when tasks reschedule
-            SCHEDULED.removeAll(due);
-            for (Scheduled s : due) {
-                // LOGGER.info(
-                // "PendingMeltdown.onServerTick: executing scheduled task for pos {} (scheduledAt={} now={})",
-                // s.pos,
-                // s.executeAtMillis,
-                // now);
-                try {
-                    s.task.run();
-                } catch (Throwable t) {
-                    // LOGGER.error("Error running scheduled meltdown task", t);
-                } finally {
-                    // free the position so future meltdowns can be scheduled there
-                    POSITIONS.remove(s.pos);
-                    REENTRY.remove(s.pos);
-                }
-            }
-        }
-
-        if (doScan) {
+        GOVERNOR.admit(
+            Config.maxExplosionsPerTick,
+            Config.explosionAdmissionBudgetMs * 1000000L,
+            Config.explosionAdmissionOrder);
+        PRELOADER.tick();
+
+        // Only reactors that crossed the overheat threshold are looked at; nothing to do while none are hot
+        if (doScan && ReactorRegistry.hasHotReactors()) {
+            long scanStart = System.nanoTime();
             try {
                 net.minecraft.server.MinecraftServer server = net.minecraft.server.MinecraftServer.getServer();
                 if (server != null && server.worldServers != null) {
@@ -685,142 +1232,51 @@ public class PendingMeltdown {
                         try {
                             // Get the dimension ID for the world
                             int dimensionId = ws.provider.dimensionId;
-                            List<?> tes = ws.loadedTileEntityList;
-                            for (Object te : tes) {
-                                if (te == null) continue;
-                                Class<?> teClass = te.getClass();
-                                String clsName = teClass.getName();
-                                if (!clsName.endsWith("TileReactorCore")) continue;
-
-                                // found a reactor tile entity; try to get its position
-                                int x = -1, y = -1, z = -1;
-                                try {
-                                    java.lang.reflect.Field fx = teClass.getField("xCoord");
-                                    java.lang.reflect.Field fy = teClass.getField("yCoord");
-                                    java.lang.reflect.Field fz = teClass.getField("zCoord");
-                                    x = fx.getInt(te);
-                                    y = fy.getInt(te);
-                                    z = fz.getInt(te);
-                                } catch (Throwable ignored) {}
-
+                            for (net.minecraft.tileentity.TileEntity te : ReactorRegistry
+                                .getHotReactors(dimensionId)) {
+                                // found a failing reactor tile entity
+                                int x = te.xCoord, y = te.yCoord, z = te.zCoord;
                                 ChunkCoordinates pos = new ChunkCoordinates(x, y, z);
 
-                                // try to read temperature or heat fields
-                                double temp = Double.NaN;
-                                String[] tempFields = new String[] { "temperature", "temp", "coreTemp",
-                                    "reactorTemperature", "heat", "coreTemperature" };
-                                for (String fn : tempFields) {
-                                    try {
-                                        java.lang.reflect.Field f = teClass.getDeclaredField(fn);
-                                        f.setAccessible(true);
-                                        Object val = f.get(te);
-                                        if (val instanceof Number) {
-                                            temp = ((Number) val).doubleValue();
-                                            break;
-                                        }
-                                    } catch (NoSuchFieldException ignore) {}
+                                // the reactor keeps failing until it blows, so skip it while its meltdown is pending
+                                if (isScheduled(pos, dimensionId, MeltdownKind.REACTOR_SCAN)
+                                    || isScheduled(pos, dimensionId, MeltdownKind.DE_EXPLOSION)
+                                    || isDroppedAtLimit(pos, dimensionId, MeltdownKind.REACTOR_SCAN)) {
+                                    continue;
                                 }
 
-                                if (!Double.isNaN(temp) && temp > 2000.0) {
+                                // running reactors are always hot; only a lost field or structure is a meltdown
+                                if (ReactorRegistry.isFailing(te)) {
                                     // schedule meltdown if not already scheduled
-                                    // LOGGER.info(
-                                    // "PendingMeltdown.scan: reactor at {} has temp={} >2000; scheduling meltdown",
-                                    // pos,
-                                    // temp);
-                                    // schedule with same behavior as mixin: send messages and reinvoke
-                                    final int fx = x;
-                                    final int fy = y;
-                                    final int fz = z;
-                                    final net.minecraft.world.WorldServer fws = ws;
-                                    final int dimId = dimensionId;
-                                    final ChunkCoordinates fpos = pos;
-                                    schedule(fpos, () -> {
-                                        try {
-                                            // send interact message
-                                            net.minecraft.server.MinecraftServer srv = net.minecraft.server.MinecraftServer
-                                                .getServer();
-                                            if (srv != null && !srv.isSinglePlayer()) {
-                                                List<net.minecraft.entity.player.EntityPlayerMP> players = srv
-                                                    .getConfigurationManager().playerEntityList;
-                                                if (players != null) {
-                                                    for (net.minecraft.entity.player.EntityPlayerMP p : players) {
-                                                        if (p != null) {
-                                                            // Check if GTUtility exists before using it
-                                                            try {
-                                                                Class.forName("gregtech.api.util.GTUtility");
-                                                                gregtech.api.util.GTUtility.sendChatToPlayer(
-                                                                    p,
-                                                                    net.minecraft.util.StatCollector
-                                                                        .translateToLocal("info.ezunclear.interact"));
-                                                            } catch (ClassNotFoundException e) {
-                                                                // GTUtility not available, use vanilla chat
-                                                                p.addChatMessage(
-                                                                    new net.minecraft.util.ChatComponentText(
-                                                                        net.minecraft.util.StatCollector
-                                                                            .translateToLocal(
-                                                                                "info.ezunclear.interact")));
-                                                            }
-                                                        }
-                                                    }
-                                                }
-                                            }
-
-                                            // allow reentry and try to call goBoom on the original tile
-                                            markReentry(fpos, dimId);
-                                            try {
-                                                // attempt to reflectively call goBoom on the tile entity (if still
-                                                // loaded)
-                                                Object tile = fws.getTileEntity(fx, fy, fz);
-                                                if (tile != null) {
-                                                    java.lang.reflect.Method mg = tile.getClass()
-                                                        .getMethod("goBoom");
-                                                    mg.setAccessible(true);
-                                                    mg.invoke(tile);
-                                                    return;
-                                                }
-                                            } catch (Throwable ignored) {}
-
-                                            // fallback: create ReactorExplosion
-                                            try {
-                                                Class<?> reClass = Class.forName(
-                                                    "com.brandon3055.draconicevolution.common.tileentities.multiblocktiles.reactor.ReactorExplosion");
-                                                java.lang.reflect.Constructor<?> ctor = reClass.getConstructor(
-                                                    net.minecraft.world.World.class,
-                                                    int.class,
-                                                    int.class,
-                                                    int.class,
-                                                    float.class);
-                                                Object newExp = ctor.newInstance(fws, fx, fy, fz, 10F);
-                                                // add to process handler (deferred to avoid
-                                                // ConcurrentModificationException)
-                                                DEFERRED_PROCESS_QUEUE.add(newExp);
-                                            } catch (Throwable t) {
-                                                // LOGGER.warn(
-                                                // "Failed to create ReactorExplosion fallback: {}",
-                                                // t.getMessage());
-                                            }
-
-                                        } catch (Throwable t) {
-                                            // LOGGER.warn("Scheduled scan-meltdown task failed: {}", t.getMessage());
-                                        }
-                                    }, 5000L, dimId);
+                                    EZNuclear.LOG.debug(
+                                        "[EZNuclear] Scan: reactor at " + pos
+                                            + " is failing, temp="
+                                            + Accessors.readTemperature(te)
+                                            + ", scheduling");
+                                    // goBoom computes its own power; the configured DE power is the best estimate here
+                                    float power = (float) Config.DEExplosionPower;
+                                    Metrics.intercepted(MeltdownKind.REACTOR_SCAN, x, y, z, dimensionId, power);
+                                    scheduleMeltdown(
+                                        new TaskDescriptor(MeltdownKind.REACTOR_SCAN, x, y, z, dimensionId, power),
+                                        5000L,
+                                        com.czqwq.EZNuclear.explosion.ExplosionEngine.reactorRadius(power));
                                 }
                             }
                         } catch (Throwable t) {
                             // ignore per-world errors
+                            Metrics.failed(MeltdownKind.REACTOR_SCAN);
                             EZNuclear.LOG.warn("Error processing world during reactor scan: " + t.getMessage());
                         }
                     }
                 }
             } catch (Throwable t) {
                 // LOGGER.warn("PendingMeltdown.scan failed: {}", t.getMessage());
+                Metrics.failed(MeltdownKind.REACTOR_SCAN);
                 EZNuclear.LOG.warn("PendingMeltdown reactor scan failed: " + t.getMessage());
             }
+            Metrics.SCAN_NANOS.record(System.nanoTime() - scanStart);
         }
 
-        // Cleanup expired tasks to prevent memory leaks
-        cleanupExpiredTasks();
-
         // Process any deferred additions to avoid ConcurrentModificationException
         processDeferredProcesses();
     }
@@ -833,17 +1289,27 @@ public class PendingMeltdown {
             EZNuclear.LOG.warn("[EZNuclear] World is null, cannot create DE explosion");
             return;
         }
+        power = com.czqwq.EZNuclear.explosion.PowerScaling.scale(power, "DE");
+
+        // DE's explosion keeps every affected position; above the memory budget the bitset crater job can take over
+        if (com.czqwq.EZNuclear.explosion.ExplosionEngine.isEnabled()
+            || com.czqwq.EZNuclear.explosion.CraterMemory.rerouteReactor(power)) {
+            com.czqwq.EZNuclear.explosion.ExplosionEngine.submitReactor(world, x + 0.5D, y + 0.5D, z + 0.5D, power);
+            // Remove the core block; the crater job starts on the next tick
+            world.setBlockToAir(x, y, z);
+            return;
+        }
+        // otherwise DE's own code runs it, shrunk to what fits
+        power = com.czqwq.EZNuclear.explosion.CraterMemory.clampReactor(power);
 
         try {
             // Create DE's ReactorExplosion with provided power
-            Class<?> reClass = Class.forName(
-                "com.brandon3055.draconicevolution.common.tileentities.multiblocktiles.reactor.ReactorExplosion");
-            java.lang.reflect.Constructor<?> ctor = reClass
-                .getConstructor(net.minecraft.world.World.class, int.class, int.class, int.class, float.class);
-            Object newExp = ctor.newInstance(world, x, y, z, power);
+            Object newExp = Accessors.newReactorExplosion(world, x, y, z, power);
 
             // Add to process handler (deferred to avoid ConcurrentModificationException)
             DEFERRED_PROCESS_QUEUE.add(newExp);
+            // DE runs the explosion over the following ticks; its time shows up in the ProcessSlice events
+            FlightEvents.emit(FlightEvents.EXPLOSION_EXECUTED, "DE", x, y, z, world.provider.dimensionId, power);
 
             // Remove the core block after triggering the explosion
             world.setBlockToAir(x, y, z);
@@ -871,11 +1337,31 @@ public class PendingMeltdown {
             EZNuclear.LOG.warn("[EZNuclear] World is null, cannot create IC2 explosion");
             return;
         }
+        power = com.czqwq.EZNuclear.explosion.PowerScaling.scale(power, "IC2");
+
+        // ExplosionIC2 keeps every broken position; above the memory budget the bitset crater job can take over
+        if (com.czqwq.EZNuclear.explosion.ExplosionEngine.isEnabled()
+            || com.czqwq.EZNuclear.explosion.CraterMemory.rerouteNuclear(power)) {
+            com.czqwq.EZNuclear.explosion.ExplosionEngine.submitNuclear(world, x, y, z, power);
+            return;
+        }
+        // otherwise IC2's own code runs it, shrunk to what fits
+        power = com.czqwq.EZNuclear.explosion.CraterMemory.clampNuclear(power);
 
         try {
             // Create the IC2 explosion
             ExplosionIC2 explosion = new ExplosionIC2(world, null, x, y, z, power, 0.01F, ExplosionIC2.Type.Nuclear);
-            explosion.doExplosion();
+            // this explosion, and only this one, gets past the IC2 mixin
+            PERMITS.add(explosion);
+            long start = System.nanoTime();
+            Object event = FlightEvents.begin(FlightEvents.EXPLOSION_EXECUTED);
+            try {
+                explosion.doExplosion();
+            } finally {
+                PERMITS.remove(explosion);
+                Metrics.EXPLOSION_NANOS.record(System.nanoTime() - start);
+                FlightEvents.commit(event, "IC2", x, y, z, world.provider.dimensionId, power);
+            }
 
             EZNuclear.LOG.debug(
                 "[EZNuclear] IC2 Explosion triggered at position: [" + x
@@ -889,29 +1375,4 @@ public class PendingMeltdown {
             EZNuclear.LOG.error("[EZNuclear] Error creating IC2 explosion: " + ex.getMessage(), ex);
         }
     }
-
-    /**
-     * Cleanup expired tasks to prevent memory leaks
-     */
-    private static void cleanupExpiredTasks() {
-        long now = System.currentTimeMillis();
-        long timeoutMs = Config.taskTimeoutMinutes * 60 * 1000L; // Convert minutes to milliseconds
-
-        List<Scheduled> expired = new ArrayList<>();
-        for (Scheduled s : SCHEDULED) {
-            Long creationTime = SCHEDULED_TASK_CREATION_TIME.get(s.pos);
-            if (creationTime != null && (now - creationTime) > timeoutMs) {
-                expired.add(s);
-            }
-        }
-
-        if (!expired.isEmpty()) {
-            SCHEDULED.removeAll(expired);
-            for (Scheduled s : expired) {
-                POSITIONS.remove(s.pos);
-                REENTRY.remove(s.pos);
-                SCHEDULED_TASK_CREATION_TIME.remove(s.pos);
-            }
-        }
-    }
 }
@@ -0,0 +1,48 @@
+package com.czqwq.EZNuclear.data;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+
+/**
+ * How {@link PendingMeltdown} combines the powers of meltdowns coalesced into one explosion, see
+ * {@link Config#meltdownPowerAggregation}.
+ */
+public enum PowerAggregation implements ConfigEnum {
+
+    // The powers add up
+    SUM("sum"),
+    // The strongest meltdown sets the power
+    MAX("max"),
+    // The crater volumes add up; crater radius grows with power, so this is the cube root of the summed cubes
+    VOLUME("volume");
+
+    private final String configName;
+
+    PowerAggregation(String configName) {
+        this.configName = configName;
+    }
+
+    @Override
+    public String getConfigName() {
+        return configName;
+    }
+
+    public float combine(float[] powers, int count) {
+        double result = 0.0D;
+        for (int i = 0; i < count; i++) {
+            double p = powers[i];
+            switch (this) {
+                case SUM:
+                    result += p;
+                    break;
+                case MAX:
+                    result = Math.max(result, p);
+                    break;
+                default:
+                    result += p * p * p;
+                    break;
+            }
+        }
+        return (float) (this == VOLUME ? Math.cbrt(result) : result);
+    }
+}
@@ -0,0 +1,77 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Arrays;
+
+import com.brandon3055.draconicevolution.common.utils.handlers.IProcess;
+
+/**
+ * The run list behind {@code ProcessHandlerMixin}: live DE processes in round-robin order, updated until a deadline.
+ * <p>
+ * The array is reused across ticks and dead entries are compacted in place, so a tick allocates nothing. Only touched
+ * from the server thread.
+ */
+public final class ProcessRing {
+
+    private IProcess[] running = new IProcess[16];
+    private int runningCount;
+    // index of the process that goes first next tick
+    private int cursor;
+
+    public void add(IProcess process) {
+        if (process == null) return;
+        if (runningCount == running.length) running = Arrays.copyOf(running, runningCount * 2);
+        running[runningCount++] = process;
+    }
+
+    public int size() {
+        return runningCount;
+    }
+
+    public void clear() {
+        Arrays.fill(running, 0, runningCount, null);
+        runningCount = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Update processes from where the last call stopped until {@code deadlineNanos} has passed. At least one process
+     * is updated, and the rest go first on the next call. Dead processes are dropped.
+     *
+     * @return the number of processes updated
+     */
+    public int update(long deadlineNanos) {
+        if (runningCount == 0) return 0;
+        int updated = 0;
+        int start = cursor < runningCount ? cursor : 0;
+        int next = start;
+        for (int i = 0; i < runningCount; i++) {
+            int index = (start + i) % runningCount;
+            next = (index + 1) % runningCount;
+            IProcess process = running[index];
+            if (process.isDead()) {
+                running[index] = null;
+                continue;
+            }
+            process.updateProcess();
+            updated++;
+            if (System.nanoTime() >= deadlineNanos) break;
+        }
+        cursor = next;
+        compact();
+        return updated;
+    }
+
+    // Close the gaps left by dead processes, keeping the order and the cursor's process
+    private void compact() {
+        int write = 0;
+        int newCursor = 0;
+        for (int read = 0; read < runningCount; read++) {
+            if (read == cursor) newCursor = write;
+            IProcess process = running[read];
+            if (process != null) running[write++] = process;
+        }
+        Arrays.fill(running, write, runningCount, null);
+        runningCount = write;
+        cursor = newCursor < write ? newCursor : 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.czqwq.EZNuclear.data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.util.Accessors;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+
+/**
+ * Per-dimension registry of loaded Draconic Evolution reactor cores.
+ * <p>
+ * Reactor cores join the registry from their own update (see {@code TileReactorCoreMixin}) and leave it when they are
+ * invalidated or their chunk or world unloads. The same update performs an edge-triggered failure check, so the
+ * periodic scan in {@link PendingMeltdown} only has to look at reactors that are currently failing instead of walking
+ * every loaded tile entity.
+ * <p>
+ * A running reactor is always above {@link #OVERHEAT_TEMPERATURE}; DE does not start one below it. A reactor is only
+ * failing when it is that hot and its containment is gone as well: the field charge is down to 0, or the structure is
+ * broken. Reactors whose field charge and structure cannot be read never count as failing.
+ * <p>
+ * Only touched from the server thread.
+ */
+public class ReactorRegistry {
+
+    public static final double OVERHEAT_TEMPERATURE = 2000.0;
+
+    // dimension -> all registered reactors / reactors currently failing
+    private static final Map<Integer, Set<TileEntity>> REACTORS = new HashMap<>();
+    private static final Map<Integer, Set<TileEntity>> HOT_REACTORS = new HashMap<>();
+    private static int hotCount = 0;
+
+    /**
+     * Called from the reactor core's own update. Registers the reactor and fires the failure edge when it starts or
+     * stops failing, see {@link #isFailing}.
+     */
+    public static void onReactorUpdate(TileEntity te) {
+        World world = te.getWorldObj();
+        if (world == null || world.isRemote) return;
+        int dim = world.provider.dimensionId;
+
+        Set<TileEntity> reactors = REACTORS.get(dim);
+        if (reactors == null) {
+            reactors = Collections.newSetFromMap(new IdentityHashMap<>());
+            REACTORS.put(dim, reactors);
+        }
+        if (reactors.add(te)) {
+            // Invalidated reactors stop updating, so drop them whenever a new one joins
+            reactors.removeIf(TileEntity::isInvalid);
+            EZNuclear.LOG.debug(
+                "[EZNuclear] Reactor core registered at [" + te.xCoord
+                    + ","
+                    + te.yCoord
+                    + ","
+                    + te.zCoord
+                    + "] dimension: "
+                    + dim);
+        }
+
+        boolean hot = isFailing(te);
+        Set<TileEntity> hotSet = HOT_REACTORS.get(dim);
+        boolean wasHot = hotSet != null && hotSet.contains(te);
+        if (hot == wasHot) return;
+
+        if (hot) {
+            if (hotSet == null) {
+                hotSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                HOT_REACTORS.put(dim, hotSet);
+            }
+            hotSet.add(te);
+            hotCount++;
+            EZNuclear.LOG.debug(
+                "[EZNuclear] Reactor core is failing, temperature: " + Accessors.readTemperature(te)
+                    + ", field charge: "
+                    + Accessors.readFieldCharge(te));
+        } else {
+            hotSet.remove(te);
+            hotCount--;
+        }
+    }
+
+    /**
+     * @return true if the reactor is above {@link #OVERHEAT_TEMPERATURE} with its containment field down or its
+     *         structure broken
+     */
+    public static boolean isFailing(TileEntity te) {
+        double temp = Accessors.readTemperature(te);
+        if (Double.isNaN(temp) || temp <= OVERHEAT_TEMPERATURE) return false;
+        double field = Accessors.readFieldCharge(te);
+        return (!Double.isNaN(field) && field <= 0.0) || Accessors.isStructureBroken(te);
+    }
+
+    public static boolean hasHotReactors() {
+        return hotCount > 0;
+    }
+
+    /**
+     * Reactors in the given dimension that are failing. Invalidated reactors are pruned here.
+     *
+     * @return a live view; do not modify it while other registry calls may run
+     */
+    public static Set<TileEntity> getHotReactors(int dimension) {
+        Set<TileEntity> hotSet = HOT_REACTORS.get(dimension);
+        if (hotSet == null || hotSet.isEmpty()) return Collections.emptySet();
+        Iterator<TileEntity> it = hotSet.iterator();
+        while (it.hasNext()) {
+            TileEntity te = it.next();
+            if (te.isInvalid()) {
+                it.remove();
+                hotCount--;
+                Set<TileEntity> reactors = REACTORS.get(dimension);
+                if (reactors != null) reactors.remove(te);
+            }
+        }
+        return hotSet;
+    }
+
+    public static int size() {
+        int n = 0;
+        for (Set<TileEntity> reactors : REACTORS.values()) {
+            n += reactors.size();
+        }
+        return n;
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        Chunk chunk = event.getChunk();
+        if (chunk == null || chunk.worldObj == null || chunk.worldObj.isRemote) return;
+        int dim = chunk.worldObj.provider.dimensionId;
+        Set<TileEntity> reactors = REACTORS.get(dim);
+        if (reactors == null || reactors.isEmpty()) return;
+        Iterator<TileEntity> it = reactors.iterator();
+        while (it.hasNext()) {
+            TileEntity te = it.next();
+            if ((te.xCoord >> 4) == chunk.xPosition && (te.zCoord >> 4) == chunk.zPosition) {
+                it.remove();
+                Set<TileEntity> hotSet = HOT_REACTORS.get(dim);
+                if (hotSet != null && hotSet.remove(te)) hotCount--;
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world == null || event.world.isRemote) return;
+        int dim = event.world.provider.dimensionId;
+        REACTORS.remove(dim);
+        Set<TileEntity> hotSet = HOT_REACTORS.remove(dim);
+        if (hotSet != null) hotCount -= hotSet.size();
+    }
+}
@@ -0,0 +1,47 @@
+package com.czqwq.EZNuclear.data;
+
+/**
+ * What a scheduled meltdown task sets off. The task holds nothing but this; the world, the reactor and the explosion
+ * are looked up when it runs, so a pending meltdown costs a few dozen bytes and pins no tile entity or chunk. The same
+ * fields are what {@link MeltdownStore} writes to disk.
+ */
+public final class TaskDescriptor {
+
+    // the task was saved before a restart and scheduled again when its dimension loaded
+    public static final byte FLAG_RESTORED = 1;
+
+    public final MeltdownKind kind;
+    // position packed with MeltdownTable.pack
+    public final long pos;
+    public final int dim;
+    public final float power;
+    public final byte flags;
+
+    public TaskDescriptor(MeltdownKind kind, int x, int y, int z, int dim, float power) {
+        this(kind, x, y, z, dim, power, (byte) 0);
+    }
+
+    public TaskDescriptor(MeltdownKind kind, int x, int y, int z, int dim, float power, byte flags) {
+        this.kind = kind;
+        this.pos = MeltdownTable.pack(x, y, z);
+        this.dim = dim;
+        this.power = power;
+        this.flags = flags;
+    }
+
+    public boolean hasFlag(byte flag) {
+        return (flags & flag) != 0;
+    }
+
+    public int x() {
+        return MeltdownTable.unpackX(pos);
+    }
+
+    public int y() {
+        return MeltdownTable.unpackY(pos);
+    }
+
+    public int z() {
+        return MeltdownTable.unpackZ(pos);
+    }
+}
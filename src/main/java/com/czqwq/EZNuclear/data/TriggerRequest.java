@@ -0,0 +1,30 @@
+package com.czqwq.EZNuclear.data;
+
+/**
+ * A chat or command trigger waiting to be carried out on the server thread, see
+ * {@link PendingMeltdown#requestTrigger}.
+ */
+public final class TriggerRequest {
+
+    public enum Type {
+        // run every scheduled task now
+        EXECUTE_ALL,
+        // set off every armed manual trigger
+        MANUAL_TRIGGER
+    }
+
+    public final Type type;
+    // who asked, for the log
+    public final String source;
+    // where they stood; manual triggers may only reach reactors around this point
+    public final int dimension, x, y, z;
+
+    public TriggerRequest(Type type, String source, int dimension, int x, int y, int z) {
+        this.type = type;
+        this.source = source;
+        this.dimension = dimension;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+}
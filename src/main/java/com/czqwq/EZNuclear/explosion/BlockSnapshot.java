@@ -0,0 +1,226 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Immutable copy of the explosion resistance of every block in a box of chunk columns, used to trace rays off the
+ * server thread.
+ * <p>
+ * Each non-empty section is stored as one byte per block indexing a palette of distinct resistance values; index 0
+ * is air and empty sections are stored as null. Resistance is resolved per block id with
+ * {@code Block.getExplosionResistance(null)}; blocks with a tile entity, whose resistance may depend on the tile, are
+ * resolved with the positional variant while the snapshot is taken.
+ * <p>
+ * A snapshot is filled by its {@link Builder} on the server thread, one chunk column at a time, and is never changed
+ * after {@link Builder#build()}. A builder told not to load chunks records unloaded columns as
+ * {@link ResistanceSource#UNLOADED}.
+ */
+public final class BlockSnapshot implements ResistanceSource {
+
+    // heap cost of one captured section
+    static final int SECTION_BYTES = CraterMask.SECTION_BITS + 16;
+
+    private static final int SECTIONS = 16;
+    private static final int MAX_PALETTE = 256;
+    // 1.7.10 block ids are 12 bits
+    private static final int ID_COUNT = 4096;
+
+    private final int minChunkX, minChunkZ, chunksX, chunksZ;
+    private final int height;
+    // (chunkX * chunksZ + chunkZ) * SECTIONS + sectionY -> palette indices, or null for an all-air section
+    private final byte[][] sections;
+    private final float[] palette;
+    // chunkX * chunksZ + chunkZ -> column was not loaded, or null if every column was captured
+    private final boolean[] unloaded;
+
+    private BlockSnapshot(Builder b) {
+        this.minChunkX = b.minChunkX;
+        this.minChunkZ = b.minChunkZ;
+        this.chunksX = b.chunksX;
+        this.chunksZ = b.chunksZ;
+        this.height = b.height;
+        this.sections = b.sections;
+        this.palette = Arrays.copyOf(b.palette, b.paletteSize);
+        this.unloaded = b.anyUnloaded ? b.unloaded : null;
+    }
+
+    @Override
+    public float resistanceAt(int x, int y, int z) {
+        int cx = (x >> 4) - minChunkX;
+        int cz = (z >> 4) - minChunkZ;
+        if (cx < 0 || cz < 0 || cx >= chunksX || cz >= chunksZ || y < 0 || y >= height) return AIR;
+        if (unloaded != null && unloaded[cx * chunksZ + cz]) return UNLOADED;
+        byte[] section = sections[(cx * chunksZ + cz) * SECTIONS + (y >> 4)];
+        if (section == null) return AIR;
+        return palette[section[CraterMask.bitIndex(x, y, z)] & 0xFF];
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of stored non-empty sections
+     */
+    public int sectionCount() {
+        int n = 0;
+        for (byte[] s : sections) {
+            if (s != null) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Captures the chunk columns around an explosion. Must only be used on the server thread.
+     */
+    public static final class Builder {
+
+        private final World world;
+        private final double ox, oy, oz;
+        private final int minChunkX, minChunkZ, chunksX, chunksZ;
+        private final int height;
+        private final byte[][] sections;
+        private final boolean skipUnloaded;
+        private final boolean[] unloaded;
+        private boolean anyUnloaded;
+
+        private final float[] palette = new float[MAX_PALETTE];
+        private int paletteSize = 1;
+        // block id -> palette index + 1, 0 while unresolved
+        private final short[] idToPalette = new short[ID_COUNT];
+
+        private int nextColumn;
+
+        /**
+         * @param skipUnloaded record chunks that are not loaded as unloaded instead of loading them
+         */
+        public Builder(World world, double ox, double oy, double oz, double reach, boolean skipUnloaded) {
+            this.world = world;
+            this.ox = ox;
+            this.oy = oy;
+            this.oz = oz;
+            this.minChunkX = (int) Math.floor(ox - reach) >> 4;
+            this.minChunkZ = (int) Math.floor(oz - reach) >> 4;
+            this.chunksX = ((int) Math.floor(ox + reach) >> 4) - minChunkX + 1;
+            this.chunksZ = ((int) Math.floor(oz + reach) >> 4) - minChunkZ + 1;
+            this.height = Math.min(world.getHeight(), SECTIONS * 16);
+            this.sections = new byte[chunksX * chunksZ * SECTIONS][];
+            this.skipUnloaded = skipUnloaded;
+            this.unloaded = new boolean[chunksX * chunksZ];
+            palette[0] = AIR;
+        }
+
+        public boolean isComplete() {
+            return nextColumn >= chunksX * chunksZ;
+        }
+
+        /**
+         * Capture chunk columns until the snapshot is complete or the budget is used up.
+         *
+         * @return true once every column is captured
+         */
+        public boolean capture(ExplosionBudget budget) {
+            while (!isComplete()) {
+                int column = nextColumn++;
+                int chunkX = minChunkX + column / chunksZ, chunkZ = minChunkZ + column % chunksZ;
+                if (skipUnloaded && !world.getChunkProvider()
+                    .chunkExists(chunkX, chunkZ)) {
+                    unloaded[column] = true;
+                    anyUnloaded = true;
+                    continue;
+                }
+                captureColumn(chunkX, chunkZ, column * SECTIONS);
+                if (!budget.tick()) return isComplete();
+            }
+            return true;
+        }
+
+        public BlockSnapshot build() {
+            if (!isComplete()) throw new IllegalStateException("Snapshot is not complete");
+            return new BlockSnapshot(this);
+        }
+
+        private void captureColumn(int chunkX, int chunkZ, int base) {
+            Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+            if (chunk == null) return;
+            ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+            if (storage == null) return;
+            for (int sy = 0; sy < SECTIONS && sy < storage.length; sy++) {
+                ExtendedBlockStorage ebs = storage[sy];
+                if (ebs == null || ebs.isEmpty()) continue;
+                sections[base + sy] = captureSection(ebs);
+            }
+            // tile entities may change their block's resistance, resolve those positions exactly
+            Map<?, ?> tiles = chunk.chunkTileEntityMap;
+            if (tiles == null || tiles.isEmpty()) return;
+            for (Object o : tiles.values()) {
+                TileEntity te = (TileEntity) o;
+                if (te.yCoord < 0 || te.yCoord >= height) continue;
+                byte[] section = sections[base + (te.yCoord >> 4)];
+                if (section == null) continue;
+                Block block = world.getBlock(te.xCoord, te.yCoord, te.zCoord);
+                float resistance = block
+                    .getExplosionResistance(null, world, te.xCoord, te.yCoord, te.zCoord, ox, oy, oz);
+                section[CraterMask.bitIndex(te.xCoord, te.yCoord, te.zCoord)] = (byte) paletteIndex(resistance);
+            }
+        }
+
+        private byte[] captureSection(ExtendedBlockStorage ebs) {
+            byte[] lsb = ebs.getBlockLSBArray();
+            NibbleArray msbArray = ebs.getBlockMSBArray();
+            byte[] msb = msbArray != null ? msbArray.data : null;
+            byte[] out = new byte[CraterMask.SECTION_BITS];
+            boolean anySolid = false;
+            for (int i = 0; i < CraterMask.SECTION_BITS; i++) {
+                int id = lsb[i] & 0xFF;
+                if (msb != null) id |= ((msb[i >> 1] >> ((i & 1) << 2)) & 0xF) << 8;
+                if (id == 0) continue;
+                int index = idToPalette[id] - 1;
+                if (index < 0) index = resolve(id);
+                out[i] = (byte) index;
+                anySolid |= index != 0;
+            }
+            return anySolid ? out : null;
+        }
+
+        private int resolve(int id) {
+            Block block = Block.getBlockById(id);
+            int index = (block == null || block.getMaterial() == Material.air) ? 0
+                : paletteIndex(block.getExplosionResistance(null));
+            idToPalette[id] = (short) (index + 1);
+            return index;
+        }
+
+        private int paletteIndex(float resistance) {
+            for (int i = 1; i < paletteSize; i++) {
+                if (palette[i] == resistance) return i;
+            }
+            if (paletteSize < MAX_PALETTE) {
+                palette[paletteSize] = resistance;
+                return paletteSize++;
+            }
+            // palette full: use the closest stronger value so rays are never let through too easily
+            int best = -1;
+            for (int i = 1; i < paletteSize; i++) {
+                if (palette[i] >= resistance && (best < 0 || palette[i] < palette[best])) best = i;
+            }
+            if (best < 0) {
+                best = 1;
+                for (int i = 2; i < paletteSize; i++) {
+                    if (palette[i] > palette[best]) best = i;
+                }
+            }
+            return best;
+        }
+    }
+}
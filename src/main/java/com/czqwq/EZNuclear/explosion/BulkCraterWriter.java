@@ -0,0 +1,161 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.Explosion;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Applies a {@link CraterMask} by writing straight into each chunk's {@link ExtendedBlockStorage} arrays instead of
+ * calling {@code setBlock} per block.
+ * <p>
+ * Per chunk this removes the tile entities inside the crater in one batch (their blocks still get {@code breakBlock}
+ * so inventories spill), clears fully covered sections wholesale and partially covered ones bit by bit, then
+ * recomputes the sky light map, schedules relight checks and marks the chunk dirty once. No neighbour notifications
+ * are sent. Clients are either told about the crater with a compact packet by the caller, or resynced through the
+ * player manager: once 64 positions of a chunk are flagged it resends the flagged sections as a whole.
+ * <p>
+ * {@link #clearSection(ExtendedBlockStorage, long[])} is also used by the client to rebuild a crater from a packet.
+ */
+public final class BulkCraterWriter {
+
+    // flagged positions after which PlayerInstance resends whole sections instead of single block changes
+    private static final int RESYNC_THRESHOLD = 64;
+
+    private BulkCraterWriter() {}
+
+    /**
+     * Apply the sections {@code keys[from, to)}, which must all belong to one chunk.
+     *
+     * @param resync whether to resend the changed sections through the player manager
+     */
+    static void applyChunk(World world, CraterMask mask, long[] keys, int from, int to, float dropRate,
+        Explosion source, boolean resync) {
+        int chunkX = CraterMask.sectionChunkX(keys[from]);
+        int chunkZ = CraterMask.sectionChunkZ(keys[from]);
+        Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+        if (chunk == null) return;
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        if (storage == null) return;
+
+        removeTileEntities(world, chunk, mask);
+
+        for (int k = from; k < to; k++) {
+            int sy = CraterMask.sectionY(keys[k]);
+            if (sy >= storage.length) continue;
+            ExtendedBlockStorage ebs = storage[sy];
+            if (ebs == null || ebs.isEmpty()) continue;
+            long[] bits = mask.getSection(keys[k]);
+            if (dropRate > 0.0F) dropItems(world, ebs, bits, chunkX << 4, sy << 4, chunkZ << 4, dropRate, source);
+            clearSection(ebs, CraterMask.isFull(bits) ? null : bits);
+        }
+
+        chunk.generateSkylightMap();
+        chunk.resetRelightChecks();
+        chunk.setChunkModified();
+        if (resync) resync(world, mask, keys, from, to);
+    }
+
+    /**
+     * Set the blocks of a section to air and recount its block and tick references. No tile entities, drops or
+     * lighting are handled.
+     *
+     * @param bits the positions to clear, or null to clear the whole section
+     */
+    public static void clearSection(ExtendedBlockStorage ebs, long[] bits) {
+        if (bits == null) {
+            clearAll(ebs);
+        } else {
+            clearBits(ebs, bits);
+        }
+        ebs.removeInvalidBlocks();
+    }
+
+    private static void removeTileEntities(World world, Chunk chunk, CraterMask mask) {
+        if (chunk.chunkTileEntityMap == null || chunk.chunkTileEntityMap.isEmpty()) return;
+        List<TileEntity> doomed = new ArrayList<>();
+        for (Object o : chunk.chunkTileEntityMap.values()) {
+            TileEntity te = (TileEntity) o;
+            if (mask.contains(te.xCoord, te.yCoord, te.zCoord)) doomed.add(te);
+        }
+        for (TileEntity te : doomed) {
+            int lx = te.xCoord & 15, lz = te.zCoord & 15;
+            Block block = chunk.getBlock(lx, te.yCoord, lz);
+            block.breakBlock(world, te.xCoord, te.yCoord, te.zCoord, block, chunk.getBlockMetadata(lx, te.yCoord, lz));
+        }
+        for (TileEntity te : doomed) {
+            world.removeTileEntity(te.xCoord, te.yCoord, te.zCoord);
+        }
+    }
+
+    // one roll per block, then drop with certainty; per-block chance instead of IC2's per-item chance
+    private static void dropItems(World world, ExtendedBlockStorage ebs, long[] bits, int baseX, int baseY,
+        int baseZ, float dropRate, Explosion source) {
+        for (int i = CraterMask.nextSetBit(bits, 0); i >= 0; i = CraterMask.nextSetBit(bits, i + 1)) {
+            if (world.rand.nextFloat() > dropRate) continue;
+            int lx = i & 15, ly = i >>> 8, lz = (i >>> 4) & 15;
+            Block block = ebs.getBlockByExtId(lx, ly, lz);
+            if (block == null || block.isAir(world, baseX + lx, baseY + ly, baseZ + lz)
+                || !block.canDropFromExplosion(source)) continue;
+            block.dropBlockAsItemWithChance(
+                world,
+                baseX + lx,
+                baseY + ly,
+                baseZ + lz,
+                ebs.getExtBlockMetadata(lx, ly, lz),
+                1.0F,
+                0);
+        }
+    }
+
+    private static void clearAll(ExtendedBlockStorage ebs) {
+        Arrays.fill(ebs.getBlockLSBArray(), (byte) 0);
+        ebs.setBlockMSBArray(null);
+        NibbleArray meta = ebs.getMetadataArray();
+        if (meta != null) Arrays.fill(meta.data, (byte) 0);
+    }
+
+    private static void clearBits(ExtendedBlockStorage ebs, long[] bits) {
+        byte[] lsb = ebs.getBlockLSBArray();
+        NibbleArray msb = ebs.getBlockMSBArray();
+        NibbleArray meta = ebs.getMetadataArray();
+        for (int i = CraterMask.nextSetBit(bits, 0); i >= 0; i = CraterMask.nextSetBit(bits, i + 1)) {
+            lsb[i] = 0;
+            if (msb != null) clearNibble(msb.data, i);
+            if (meta != null) clearNibble(meta.data, i);
+        }
+    }
+
+    private static void clearNibble(byte[] data, int i) {
+        data[i >> 1] &= (i & 1) == 0 ? 0xF0 : 0x0F;
+    }
+
+    // flag one position in every changed section, then pad up to the threshold so the sections are resent whole
+    private static void resync(World world, CraterMask mask, long[] keys, int from, int to) {
+        int flagged = 0;
+        for (int pass = 0; pass < 2 && flagged < RESYNC_THRESHOLD; pass++) {
+            for (int k = from; k < to && flagged < RESYNC_THRESHOLD; k++) {
+                long key = keys[k];
+                long[] bits = mask.getSection(key);
+                int baseX = CraterMask.sectionChunkX(key) << 4;
+                int baseY = CraterMask.sectionY(key) << 4;
+                int baseZ = CraterMask.sectionChunkZ(key) << 4;
+                int i = CraterMask.nextSetBit(bits, 0);
+                // the first pass takes the first position of each section, the second pass the rest
+                if (pass == 1) i = CraterMask.nextSetBit(bits, i + 1);
+                for (; i >= 0 && flagged < RESYNC_THRESHOLD; i = CraterMask.nextSetBit(bits, i + 1)) {
+                    world.markBlockForUpdate(baseX + (i & 15), baseY + (i >>> 8), baseZ + ((i >>> 4) & 15));
+                    flagged++;
+                    if (pass == 0) break;
+                }
+            }
+        }
+    }
+}
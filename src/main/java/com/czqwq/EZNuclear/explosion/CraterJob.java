@@ -0,0 +1,419 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.DamageSource;
+import net.minecraft.world.Explosion;
+import net.minecraft.world.World;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.network.CraterMessage;
+import com.czqwq.EZNuclear.network.EZNuclearNetwork;
+
+/**
+ * A crater explosion that is computed and applied over several server ticks.
+ * <p>
+ * The job uses this mod's own ray model (see {@link RayTracer}) and does not try to match IC2 or DE; the
+ * differences are listed with {@link Config#incrementalExplosions}. The work is split into phases that each stop as
+ * soon as the {@link ExplosionBudget} of the tick is used up and continue on the next tick:
+ *
+ * <pre>
+ * SNAPSHOT - with parallel tracing, copy block resistances around the centre into a {@link BlockSnapshot}
+ * TRACE    - shoot rays, collecting destroyed positions in a {@link CraterMask}; with parallel tracing the rays run
+ *            on the fork/join pool against the snapshot and this phase only waits for the result
+ * APPLY    - destroy the collected blocks, either per block (drops, onBlockExploded) or chunk by chunk through
+ *            {@link BulkCraterWriter}; a bulk crater is then sent to clients as a {@link CraterMessage}
+ * FINISH   - damage entities and play the explosion sound
+ * </pre>
+ *
+ * Nothing is destroyed until every ray has been traced, so the crater does not depend on how the work was sliced.
+ * Applied sections are released from the mask as APPLY goes, bulk craters being streamed to clients in batches
+ * first. The power is clamped by {@link CraterMemory} so the mask and snapshot fit the configured memory budget.
+ * <p>
+ * Unless {@link Config#unloadedChunkPolicy} is {@code load}, no phase loads a chunk: rays stop at unloaded chunks,
+ * where they are dropped or parked in {@link CraterPatches}, and sections of chunks unloaded before APPLY are skipped.
+ * A parked ray is continued by a job created with {@link #resume}, which traces only those rays and skips FINISH.
+ */
+public class CraterJob {
+
+    public enum Phase {
+        SNAPSHOT,
+        TRACE,
+        APPLY,
+        FINISH,
+        DONE
+    }
+
+    // stands in for the bits of a section whose chunk is no longer loaded
+    private static final long[] EMPTY_SECTION = new long[CraterMask.SECTION_WORDS];
+
+    private final World world;
+    private final double x, y, z;
+    private final float power;
+    private final float dropRate;
+    private final boolean bulk;
+    // bulk craters are sent as a compact packet instead of resyncing the chunk sections
+    private final boolean compact;
+    // shared with clients so their effects match
+    private final long seed;
+    // passed to onBlockExploded and used as the damage source
+    private final Explosion source;
+    private CraterMask mask = new CraterMask();
+
+    // unloaded chunks
+    private final boolean skipUnloaded;
+    // rays stopped by an unloaded chunk, filled by the tracing threads; null unless parking
+    private final Queue<ParkedRay> parked;
+    private final RayTracer.Parking parking;
+    // rays continued by this job instead of the direction grid; null for a new explosion
+    private final List<ParkedRay> resumed;
+
+    // direction grid: 2 * steps values of phi times steps values of theta
+    private final int steps;
+    private final int rayCount;
+    private int nextRay;
+
+    // parallel tracing
+    private final boolean parallel;
+    private BlockSnapshot.Builder snapshot;
+    private ForkJoinTask<CraterMask> tracing;
+
+    // apply cursor
+    private long[] sectionKeys;
+    private int sectionIndex;
+    private int bitIndex;
+    // compact packets: sections applied but not sent yet start here
+    private int sentIndex;
+    private int sentParts;
+
+    private Phase phase;
+    private final long startNanos = System.nanoTime();
+    // JFR ExplosionExecuted event spanning the whole job, null while not recording
+    private final Object flightEvent = com.czqwq.EZNuclear.metrics.FlightEvents
+        .begin(com.czqwq.EZNuclear.metrics.FlightEvents.EXPLOSION_EXECUTED);
+
+    public CraterJob(World world, double x, double y, double z, float power, float dropRate) {
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.parallel = Config.parallelRayTracing;
+        this.power = CraterMemory.clampPower(power, world.getHeight(), parallel);
+        this.dropRate = dropRate;
+        this.source = new Explosion(world, null, x, y, z, this.power);
+        this.steps = RayTracer.gridSteps(this.power);
+        this.rayCount = RayTracer.rayCount(steps);
+        this.bulk = Config.bulkCraterApply;
+        this.compact = bulk && Config.compactExplosionPackets;
+        this.seed = world.rand.nextLong();
+        UnloadedChunkPolicy policy = Config.unloadedChunkPolicy;
+        this.skipUnloaded = policy != UnloadedChunkPolicy.LOAD;
+        this.parked = policy == UnloadedChunkPolicy.PARK ? new ConcurrentLinkedQueue<>() : null;
+        this.parking = parked == null ? null
+            : (px, py, pz, dx, dy, dz, p) -> parked.add(new ParkedRay(px, py, pz, dx, dy, dz, p, dropRate));
+        this.resumed = null;
+        this.phase = parallel ? Phase.SNAPSHOT : Phase.TRACE;
+    }
+
+    // continues parked rays; positions and powers come from the rays
+    private CraterJob(World world, List<ParkedRay> rays, float dropRate) {
+        ParkedRay first = rays.get(0);
+        double strongest = 0.0;
+        for (ParkedRay ray : rays) {
+            strongest = Math.max(strongest, ray.power);
+        }
+        this.world = world;
+        this.x = first.px;
+        this.y = first.py;
+        this.z = first.pz;
+        this.parallel = false;
+        this.power = (float) strongest;
+        this.dropRate = dropRate;
+        this.source = new Explosion(world, null, x, y, z, power);
+        this.steps = 0;
+        this.rayCount = rays.size();
+        this.bulk = Config.bulkCraterApply;
+        this.compact = bulk && Config.compactExplosionPackets;
+        this.seed = world.rand.nextLong();
+        // only PARK creates parked rays, and the rays go on under the same policy
+        this.skipUnloaded = true;
+        this.parked = new ConcurrentLinkedQueue<>();
+        this.parking = (px, py, pz, dx, dy, dz, p) -> parked.add(new ParkedRay(px, py, pz, dx, dy, dz, p, dropRate));
+        this.resumed = rays;
+        this.phase = Phase.TRACE;
+    }
+
+    /**
+     * A job that continues rays parked at a chunk that has now been loaded.
+     */
+    static CraterJob resume(World world, List<ParkedRay> rays, float dropRate) {
+        return new CraterJob(world, rays, dropRate);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the affected positions; sections are released from it as they are applied
+     */
+    public CraterMask getMask() {
+        return mask;
+    }
+
+    /**
+     * @return how far a ray travels through air before running out of power
+     */
+    public double getReach() {
+        return RayTracer.reach(power);
+    }
+
+    /**
+     * Stop the job; a trace still running on the pool is cancelled and its result ignored.
+     */
+    public void cancel() {
+        if (tracing != null) tracing.cancel(false);
+        phase = Phase.DONE;
+    }
+
+    /**
+     * Continue the job within the given budget.
+     *
+     * @return true once the job is complete
+     */
+    public boolean step(ExplosionBudget budget) {
+        while (phase != Phase.DONE) {
+            if (budget.isExhausted()) return false;
+            switch (phase) {
+                case SNAPSHOT:
+                    if (snapshot == null) {
+                        snapshot = new BlockSnapshot.Builder(world, x, y, z, getReach(), skipUnloaded);
+                    }
+                    if (!snapshot.capture(budget)) return false;
+                    tracing = RayTracer.traceAsync(snapshot.build(), x, y, z, power, parking);
+                    snapshot = null;
+                    phase = Phase.TRACE;
+                    break;
+                case TRACE:
+                    if (parallel) {
+                        // the pool works across ticks; check back next tick until it is done
+                        if (!tracing.isDone()) return false;
+                        mask = tracing.join();
+                        tracing = null;
+                    } else if (!trace(budget)) {
+                        return false;
+                    }
+                    if (parked != null && !parked.isEmpty()) {
+                        CraterPatches.park(world, parked);
+                        EZNuclear.LOG.debug("[EZNuclear] Parked " + parked.size() + " rays at unloaded chunks");
+                        parked.clear();
+                    }
+                    sectionKeys = mask.sectionKeys();
+                    phase = Phase.APPLY;
+                    break;
+                case APPLY:
+                    if (!apply(budget)) return false;
+                    phase = Phase.FINISH;
+                    break;
+                case FINISH:
+                    if (resumed == null) finish();
+                    phase = Phase.DONE;
+                    com.czqwq.EZNuclear.metrics.Metrics.CRATER_NANOS.record(System.nanoTime() - startNanos);
+                    com.czqwq.EZNuclear.metrics.Metrics.CRATER_BLOCKS.record(mask.size());
+                    com.czqwq.EZNuclear.metrics.FlightEvents.commit(
+                        flightEvent,
+                        "CRATER",
+                        (int) Math.floor(x),
+                        (int) Math.floor(y),
+                        (int) Math.floor(z),
+                        world.provider.dimensionId,
+                        power);
+                    EZNuclear.LOG.debug(
+                        "[EZNuclear] Crater at [" + (int) x
+                            + ","
+                            + (int) y
+                            + ","
+                            + (int) z
+                            + "] finished: "
+                            + mask.size()
+                            + " blocks in "
+                            + sectionKeys.length
+                            + " sections, "
+                            + (System.nanoTime() - startNanos) / 1000000L
+                            + "ms");
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    // Phases ---------------------------------------------------------------------------------------------------------
+
+    private boolean trace(ExplosionBudget budget) {
+        // the live world, with the positional resistance lookup
+        ResistanceSource live = new ResistanceSource() {
+
+            // rays walk through neighbouring blocks, so remember the last chunk checked
+            private int lastChunkX = Integer.MIN_VALUE, lastChunkZ = Integer.MIN_VALUE;
+            private boolean lastLoaded;
+
+            @Override
+            public float resistanceAt(int bx, int by, int bz) {
+                if (skipUnloaded) {
+                    if (bx >> 4 != lastChunkX || bz >> 4 != lastChunkZ) {
+                        lastChunkX = bx >> 4;
+                        lastChunkZ = bz >> 4;
+                        lastLoaded = isLoaded(lastChunkX, lastChunkZ);
+                    }
+                    if (!lastLoaded) return UNLOADED;
+                }
+                Block block = world.getBlock(bx, by, bz);
+                if (block.isAir(world, bx, by, bz)) return AIR;
+                return block.getExplosionResistance(null, world, bx, by, bz, x, y, z);
+            }
+
+            @Override
+            public int getHeight() {
+                return world.getHeight();
+            }
+        };
+        while (nextRay < rayCount) {
+            if (resumed != null) {
+                ParkedRay r = resumed.get(nextRay++);
+                RayTracer.trace(live, r.px, r.py, r.pz, r.dx, r.dy, r.dz, r.power, mask, parking);
+            } else {
+                RayTracer.traceRay(live, nextRay++, steps, x, y, z, power, mask, parking);
+            }
+            if (!budget.tick()) return nextRay >= rayCount;
+        }
+        return true;
+    }
+
+    private boolean isLoaded(int chunkX, int chunkZ) {
+        return world.getChunkProvider()
+            .chunkExists(chunkX, chunkZ);
+    }
+
+    private boolean apply(ExplosionBudget budget) {
+        if (bulk) return applyBulk(budget);
+        while (sectionIndex < sectionKeys.length) {
+            long key = sectionKeys[sectionIndex];
+            long[] bits = mask.getSection(key);
+            if (skipUnloaded && !isLoaded(CraterMask.sectionChunkX(key), CraterMask.sectionChunkZ(key))) {
+                // unloaded since it was traced
+                bits = EMPTY_SECTION;
+            }
+            int baseX = CraterMask.sectionChunkX(key) << 4;
+            int baseY = CraterMask.sectionY(key) << 4;
+            int baseZ = CraterMask.sectionChunkZ(key) << 4;
+            while (true) {
+                int i = CraterMask.nextSetBit(bits, bitIndex);
+                if (i < 0) break;
+                if (!budget.takeBlockChange()) return false;
+                destroy(baseX + (i & 15), baseY + (i >>> 8), baseZ + ((i >>> 4) & 15));
+                bitIndex = i + 1;
+                if (!budget.tick()) return false;
+            }
+            mask.release(key);
+            sectionIndex++;
+            bitIndex = 0;
+        }
+        return true;
+    }
+
+    // whole chunks at a time; the sorted keys keep the sections of a chunk together
+    private boolean applyBulk(ExplosionBudget budget) {
+        while (sectionIndex < sectionKeys.length) {
+            long first = sectionKeys[sectionIndex];
+            int end = sectionIndex + 1;
+            while (end < sectionKeys.length && sameChunk(first, sectionKeys[end])) {
+                end++;
+            }
+            // a chunk unloaded since it was traced is skipped
+            if (!skipUnloaded || isLoaded(CraterMask.sectionChunkX(first), CraterMask.sectionChunkZ(first))) {
+                BulkCraterWriter.applyChunk(world, mask, sectionKeys, sectionIndex, end, dropRate, source, !compact);
+            }
+            if (!compact) release(sectionIndex, end);
+            sectionIndex = end;
+            if (compact && (sectionIndex - sentIndex >= CraterMessage.MAX_SECTIONS_PER_MESSAGE
+                || sectionIndex >= sectionKeys.length)) {
+                flush();
+            }
+            if (!budget.checkTime()) return sectionIndex >= sectionKeys.length;
+        }
+        return true;
+    }
+
+    // stream the applied but unsent sections to clients, then drop them
+    private void flush() {
+        sentParts += EZNuclearNetwork.sendCrater(
+            world,
+            x,
+            y,
+            z,
+            (float) getReach(),
+            power,
+            seed,
+            mask,
+            sectionKeys,
+            sentIndex,
+            sectionIndex,
+            sentParts);
+        release(sentIndex, sectionIndex);
+        sentIndex = sectionIndex;
+    }
+
+    private void release(int from, int to) {
+        for (int k = from; k < to; k++) {
+            mask.release(sectionKeys[k]);
+        }
+    }
+
+    private static boolean sameChunk(long a, long b) {
+        return CraterMask.sectionChunkX(a) == CraterMask.sectionChunkX(b)
+            && CraterMask.sectionChunkZ(a) == CraterMask.sectionChunkZ(b);
+    }
+
+    private void destroy(int bx, int by, int bz) {
+        Block block = world.getBlock(bx, by, bz);
+        // the block may have changed since it was traced
+        if (block.isAir(world, bx, by, bz)) return;
+        if (block.canDropFromExplosion(source)) {
+            block.dropBlockAsItemWithChance(world, bx, by, bz, world.getBlockMetadata(bx, by, bz), dropRate, 0);
+        }
+        block.onBlockExploded(world, bx, by, bz, source);
+    }
+
+    private void finish() {
+        double reach = getReach();
+        AxisAlignedBB area = AxisAlignedBB
+            .getBoundingBox(x - reach, y - reach, z - reach, x + reach, y + reach, z + reach);
+        List<?> entities = world.getEntitiesWithinAABB(Entity.class, area);
+        if (entities != null) {
+            DamageSource damage = DamageSource.setExplosionSource(source);
+            for (Object o : entities) {
+                Entity entity = (Entity) o;
+                double distance = entity.getDistance(x, y, z) / reach;
+                if (distance > 1.0) continue;
+                // vanilla explosion damage falloff
+                double impact = 1.0 - distance;
+                entity.attackEntityFrom(damage, (float) ((int) ((impact * impact + impact) / 2.0 * 8.0 * power + 1.0)));
+            }
+        }
+        float pitch = (1.0F + (world.rand.nextFloat() - world.rand.nextFloat()) * 0.2F) * 0.7F;
+        world.playSoundEffect(x, y, z, "random.explode", 4.0F, pitch);
+    }
+}
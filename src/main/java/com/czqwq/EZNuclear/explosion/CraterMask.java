@@ -0,0 +1,175 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of block positions destroyed by an explosion, stored as one 4096-bit bitset per 16x16x16 chunk section.
+ * <p>
+ * Bits use the same layout as {@code ExtendedBlockStorage} ({@code y << 8 | z << 4 | x}), so a section's bitset can
+ * be applied to the section directly. Rays walk through neighbouring blocks, so the section of the last access is
+ * cached and most additions skip the map lookup.
+ * <p>
+ * Sections that have been applied can be {@link #release(long) released} so a large crater does not stay in memory
+ * while the rest of it is applied.
+ * <p>
+ * Not thread safe.
+ */
+public class CraterMask {
+
+    public static final int SECTION_BITS = 4096;
+    public static final int SECTION_WORDS = SECTION_BITS / 64;
+    // heap cost of one section: the long array plus its boxed key and map entry
+    public static final int SECTION_BYTES = SECTION_WORDS * 8 + 16 + 64;
+
+    private final Map<Long, long[]> sections = new HashMap<>();
+    private int size;
+
+    private long lastKey = Long.MIN_VALUE;
+    private long[] lastBits;
+
+    // Section keys ---------------------------------------------------------------------------------------------------
+
+    // 28 bits chunk x, 28 bits chunk z, 8 bits section y; sorting the keys groups the sections of a chunk together
+    public static long sectionKey(int chunkX, int sectionY, int chunkZ) {
+        return ((long) (chunkX & 0xFFFFFFF) << 36) | ((long) (chunkZ & 0xFFFFFFF) << 8) | (sectionY & 0xFF);
+    }
+
+    public static int sectionChunkX(long key) {
+        return (int) (key >> 36);
+    }
+
+    public static int sectionChunkZ(long key) {
+        return (int) (key << 28 >> 36);
+    }
+
+    public static int sectionY(long key) {
+        return (int) (key & 0xFF);
+    }
+
+    public static int bitIndex(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    /**
+     * @return the index of the first set bit at or after {@code from} in a section bitset, or -1 if there is none
+     */
+    public static int nextSetBit(long[] bits, int from) {
+        if (from >= SECTION_BITS) return -1;
+        int word = from >>> 6;
+        long w = bits[word] & (-1L << from);
+        while (true) {
+            if (w != 0) return (word << 6) + Long.numberOfTrailingZeros(w);
+            if (++word == SECTION_WORDS) return -1;
+            w = bits[word];
+        }
+    }
+
+    /**
+     * @return true if every block of a section bitset is set
+     */
+    public static boolean isFull(long[] bits) {
+        for (long w : bits) {
+            if (w != -1L) return false;
+        }
+        return true;
+    }
+
+    // Operations -----------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the position was not in the set yet
+     */
+    public boolean add(int x, int y, int z) {
+        long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        long[] bits;
+        if (key == lastKey) {
+            bits = lastBits;
+        } else {
+            bits = sections.get(key);
+            if (bits == null) {
+                bits = new long[SECTION_WORDS];
+                sections.put(key, bits);
+            }
+            lastKey = key;
+            lastBits = bits;
+        }
+        int i = bitIndex(x, y, z);
+        long mask = 1L << i;
+        if ((bits[i >>> 6] & mask) != 0) return false;
+        bits[i >>> 6] |= mask;
+        size++;
+        return true;
+    }
+
+    /**
+     * Add every position of another mask.
+     */
+    public void addAll(CraterMask other) {
+        for (Map.Entry<Long, long[]> e : other.sections.entrySet()) {
+            long[] src = e.getValue();
+            long[] bits = sections.get(e.getKey());
+            if (bits == null) {
+                bits = new long[SECTION_WORDS];
+                sections.put(e.getKey(), bits);
+            }
+            for (int w = 0; w < SECTION_WORDS; w++) {
+                long added = src[w] & ~bits[w];
+                if (added != 0) {
+                    bits[w] |= added;
+                    size += Long.bitCount(added);
+                }
+            }
+        }
+    }
+
+    public boolean contains(int x, int y, int z) {
+        long[] bits = sections.get(sectionKey(x >> 4, y >> 4, z >> 4));
+        if (bits == null) return false;
+        int i = bitIndex(x, y, z);
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @return the bitset of a section, or null if nothing in it is affected
+     */
+    public long[] getSection(long key) {
+        return sections.get(key);
+    }
+
+    /**
+     * Drop the bitset of a section that is no longer needed. {@link #size()} still counts its positions.
+     */
+    public void release(long key) {
+        sections.remove(key);
+        if (key == lastKey) {
+            lastKey = Long.MIN_VALUE;
+            lastBits = null;
+        }
+    }
+
+    /**
+     * @return the keys of all sections with affected blocks, sorted so the sections of one chunk are adjacent
+     */
+    public long[] sectionKeys() {
+        long[] keys = new long[sections.size()];
+        int n = 0;
+        for (Long key : sections.keySet()) {
+            keys[n++] = key;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * @return the number of positions ever added
+     */
+    public int size() {
+        return size;
+    }
+
+    public int sectionCount() {
+        return sections.size();
+    }
+}
@@ -0,0 +1,139 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Keeps explosions inside {@link Config#explosionMemoryBudgetMb}.
+ * <p>
+ * A crater's memory is bounded by the chunk sections its rays can reach: one {@link CraterMask} bitset per section,
+ * twice while the parallel trace merges partial masks, plus one {@link BlockSnapshot} section when tracing in
+ * parallel. The estimate assumes every section in the bounding box is affected, so it never undershoots. An explosion
+ * whose estimate does not fit is shrunk to the largest radius that does. IC2's and DE's own explosions are shrunk the
+ * same way, unless {@link Config#rerouteOversizedExplosions} runs them as crater jobs instead.
+ */
+public final class CraterMemory {
+
+    // a HashSet<ChunkPosition> entry in IC2's and DE's own explosions, object and table slot included
+    private static final int LEGACY_BYTES_PER_BLOCK = 96;
+    // the least power a ray spends on a block it breaks: air absorption plus a block of no resistance
+    private static final double SOLID_ABSORPTION = RayTracer.AIR_ABSORPTION + 4.0 * 0.3;
+    // partial masks alive at once while the fork/join trace merges them
+    private static final int PARALLEL_MASK_COPIES = 2;
+
+    private CraterMemory() {}
+
+    public static long budgetBytes() {
+        return Config.explosionMemoryBudgetMb * 1024L * 1024L;
+    }
+
+    /**
+     * @return the worst-case heap use of a crater job reaching {@code reach} blocks in a world of the given height
+     */
+    public static double estimateBytes(double reach, int height, boolean parallel) {
+        double chunksAcross = Math.floor(2.0 * reach / 16.0) + 2.0;
+        double sectionsUp = Math.min(Math.max(1, height >> 4), chunksAcross);
+        double sections = chunksAcross * chunksAcross * sectionsUp;
+        double perSection = parallel ? CraterMask.SECTION_BYTES * PARALLEL_MASK_COPIES + BlockSnapshot.SECTION_BYTES
+            : CraterMask.SECTION_BYTES;
+        return sections * perSection;
+    }
+
+    /**
+     * @return the given power, or the largest power whose crater fits the memory budget
+     */
+    public static float clampPower(float power, int height, boolean parallel) {
+        long budget = budgetBytes();
+        double reach = RayTracer.reach(power);
+        if (!(reach > 0) || estimateBytes(reach, height, parallel) <= budget) return power;
+        // the estimate grows with the reach, so bisect for the largest reach that fits
+        double lo = largestFitting(reach, r -> estimateBytes(r, height, parallel) <= budget);
+        float clamped = (float) (lo * RayTracer.AIR_ABSORPTION);
+        EZNuclear.LOG.warn(
+            "[EZNuclear] Explosion power " + power
+                + " exceeds the memory budget of "
+                + Config.explosionMemoryBudgetMb
+                + "MB, clamped to "
+                + clamped);
+        return clamped;
+    }
+
+    /**
+     * @return true if this IC2 nuclear explosion should run as a crater job because IC2's own code would not fit the
+     *         budget, see {@link Config#rerouteOversizedExplosions}
+     */
+    public static boolean rerouteNuclear(float power) {
+        return Config.rerouteOversizedExplosions && !fitsLegacy(nuclearRadius(power));
+    }
+
+    /**
+     * @return true if this DE reactor explosion should run as a crater job because DE's own code would not fit the
+     *         budget, see {@link Config#rerouteOversizedExplosions}
+     */
+    public static boolean rerouteReactor(float power) {
+        return Config.rerouteOversizedExplosions && !fitsLegacy(ExplosionEngine.reactorRadius(power));
+    }
+
+    /**
+     * @return the given power, or the largest power whose IC2 nuclear explosion fits the memory budget
+     */
+    public static float clampNuclear(float power) {
+        return clampLegacy("IC2", power, CraterMemory::nuclearRadius);
+    }
+
+    /**
+     * @return the given power, or the largest power whose DE reactor explosion fits the memory budget
+     */
+    public static float clampReactor(float power) {
+        return clampLegacy("DE", power, p -> ExplosionEngine.reactorRadius((float) p));
+    }
+
+    private static float clampLegacy(String source, float power, DoubleUnaryOperator radius) {
+        if (!(power > 0) || fitsLegacy(radius.applyAsDouble(power))) return power;
+        float clamped = (float) largestFitting(power, p -> fitsLegacy(radius.applyAsDouble(p)));
+        EZNuclear.LOG.warn(
+            "[EZNuclear] " + source
+                + " explosion power "
+                + power
+                + " exceeds the memory budget of "
+                + Config.explosionMemoryBudgetMb
+                + "MB, clamped to "
+                + clamped
+                + "; enable rerouteOversizedExplosions to run such explosions incrementally instead");
+        return clamped;
+    }
+
+    private static double nuclearRadius(double power) {
+        // IC2 keeps only the blocks its rays break, not the air they pass, so the set is about the crater the rays
+        // leave in solid ground
+        return power / SOLID_ABSORPTION;
+    }
+
+    private static boolean fitsLegacy(double radius) {
+        return sphereBlocks(radius) * LEGACY_BYTES_PER_BLOCK <= budgetBytes();
+    }
+
+    /**
+     * @return the largest value in [0, hi] that fits, for a test that only fails above some threshold
+     */
+    private static double largestFitting(double hi, DoublePredicate fits) {
+        double lo = 0.0;
+        hi = Math.min(hi, 1.0E6);
+        for (int i = 0; i < 48; i++) {
+            double mid = (lo + hi) * 0.5;
+            if (fits.test(mid)) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static double sphereBlocks(double radius) {
+        return 4.0 / 3.0 * Math.PI * radius * radius * radius;
+    }
+}
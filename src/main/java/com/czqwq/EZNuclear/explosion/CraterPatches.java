@@ -0,0 +1,123 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Rays parked at unloaded chunks under {@link UnloadedChunkPolicy#PARK}, by dimension and chunk. When a chunk with
+ * parked rays is loaded, its rays are handed to a new {@link CraterJob} on the next tick rather than from inside the
+ * chunk load. At most {@link Config#maxParkedRays} rays are kept; further rays are dropped as if truncated. Parked
+ * rays are not saved with the world.
+ * <p>
+ * Only used from the server thread.
+ */
+final class CraterPatches {
+
+    // dimension -> chunk key -> rays waiting for that chunk
+    private static final Map<Integer, Map<Long, List<ParkedRay>>> PARKED = new HashMap<>();
+    // rays whose chunk was loaded since the last tick
+    private static final List<World> READY_WORLDS = new ArrayList<>();
+    private static final List<List<ParkedRay>> READY_RAYS = new ArrayList<>();
+    private static int parkedCount;
+
+    private CraterPatches() {}
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return CraterMask.sectionKey(chunkX, 0, chunkZ);
+    }
+
+    static int parkedCount() {
+        return parkedCount;
+    }
+
+    static void park(World world, Iterable<ParkedRay> rays) {
+        Map<Long, List<ParkedRay>> byChunk = PARKED.get(world.provider.dimensionId);
+        if (byChunk == null) {
+            byChunk = new HashMap<>();
+            PARKED.put(world.provider.dimensionId, byChunk);
+        }
+        int dropped = 0;
+        for (ParkedRay ray : rays) {
+            if (parkedCount >= Config.maxParkedRays) {
+                dropped++;
+                continue;
+            }
+            long key = chunkKey(ray.chunkX(), ray.chunkZ());
+            List<ParkedRay> list = byChunk.get(key);
+            if (list == null) {
+                list = new ArrayList<>();
+                byChunk.put(key, list);
+            }
+            list.add(ray);
+            parkedCount++;
+        }
+        if (dropped > 0) {
+            EZNuclear.LOG.warn("[EZNuclear] Parked ray limit reached, " + dropped + " explosion rays were truncated");
+        }
+    }
+
+    static void onChunkLoad(World world, Chunk chunk) {
+        Map<Long, List<ParkedRay>> byChunk = PARKED.get(world.provider.dimensionId);
+        if (byChunk == null) return;
+        List<ParkedRay> rays = byChunk.remove(chunkKey(chunk.xPosition, chunk.zPosition));
+        if (rays == null) return;
+        parkedCount -= rays.size();
+        READY_WORLDS.add(world);
+        READY_RAYS.add(rays);
+    }
+
+    /**
+     * @return jobs continuing the rays of the chunks loaded since the last call
+     */
+    static List<CraterJob> takeReady() {
+        if (READY_RAYS.isEmpty()) return Collections.emptyList();
+        List<CraterJob> jobs = new ArrayList<>();
+        for (int i = 0; i < READY_RAYS.size(); i++) {
+            // rays of one chunk may come from explosions with different drop rates
+            Map<Float, List<ParkedRay>> byDropRate = new HashMap<>();
+            for (ParkedRay ray : READY_RAYS.get(i)) {
+                List<ParkedRay> list = byDropRate.get(ray.dropRate);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    byDropRate.put(ray.dropRate, list);
+                }
+                list.add(ray);
+            }
+            for (Map.Entry<Float, List<ParkedRay>> e : byDropRate.entrySet()) {
+                jobs.add(CraterJob.resume(READY_WORLDS.get(i), e.getValue(), e.getKey()));
+            }
+        }
+        READY_WORLDS.clear();
+        READY_RAYS.clear();
+        return jobs;
+    }
+
+    static void onWorldUnload(World world) {
+        Map<Long, List<ParkedRay>> byChunk = PARKED.remove(world.provider.dimensionId);
+        if (byChunk != null) {
+            for (List<ParkedRay> rays : byChunk.values()) {
+                parkedCount -= rays.size();
+            }
+        }
+        Iterator<World> worlds = READY_WORLDS.iterator();
+        Iterator<List<ParkedRay>> rays = READY_RAYS.iterator();
+        while (worlds.hasNext()) {
+            World w = worlds.next();
+            rays.next();
+            if (w == world) {
+                worlds.remove();
+                rays.remove();
+            }
+        }
+    }
+}
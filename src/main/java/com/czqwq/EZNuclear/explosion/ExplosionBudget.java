@@ -0,0 +1,64 @@
+package com.czqwq.EZNuclear.explosion;
+
+/**
+ * Work allowed for explosion jobs in the current server tick: a wall-clock deadline and a number of block changes.
+ * One instance is reset by {@link ExplosionEngine} at the start of each tick and shared by all jobs.
+ */
+public class ExplosionBudget {
+
+    // System.nanoTime() is only read every this many units of work
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+
+    private long deadlineNanos;
+    private int blocksLeft;
+    private int sinceClockCheck;
+    private boolean timeUp;
+
+    public void reset(long budgetNanos, int maxBlockChanges) {
+        this.deadlineNanos = System.nanoTime() + budgetNanos;
+        this.blocksLeft = maxBlockChanges;
+        this.sinceClockCheck = 0;
+        this.timeUp = budgetNanos <= 0;
+    }
+
+    /**
+     * Count one unit of work (a traced ray, a visited block) against the time budget.
+     *
+     * @return true while there is time left in this tick
+     */
+    public boolean tick() {
+        if (timeUp) return false;
+        if (++sinceClockCheck >= CLOCK_CHECK_INTERVAL) {
+            sinceClockCheck = 0;
+            timeUp = System.nanoTime() >= deadlineNanos;
+        }
+        return !timeUp;
+    }
+
+    /**
+     * Take one block change from the budget.
+     *
+     * @return false if no block changes are left in this tick
+     */
+    public boolean takeBlockChange() {
+        if (blocksLeft <= 0) return false;
+        blocksLeft--;
+        return true;
+    }
+
+    /**
+     * Read the clock now, for work units too large to batch.
+     *
+     * @return true while there is time left in this tick
+     */
+    public boolean checkTime() {
+        if (!timeUp) timeUp = System.nanoTime() >= deadlineNanos;
+        return !timeUp;
+    }
+
+    public boolean isExhausted() {
+        if (blocksLeft <= 0 || timeUp) return true;
+        timeUp = System.nanoTime() >= deadlineNanos;
+        return timeUp;
+    }
+}
@@ -0,0 +1,154 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * Runs {@link CraterJob}s at the end of each server tick within the time and block-change limits from
+ * {@link Config#explosionTickBudgetMs} and {@link Config#explosionBlocksPerTick}. Jobs get the budget in submission
+ * order; a job that is waiting for its rays to be traced in the background lets the next one use the tick.
+ * <p>
+ * Only touched from the server thread.
+ */
+public class ExplosionEngine {
+
+    // drop rate IC2 uses for reactor explosions
+    public static final float NUCLEAR_DROP_RATE = 0.01F;
+    // Draconic Evolution reactor explosions do not drop blocks
+    public static final float REACTOR_DROP_RATE = 0.0F;
+
+    private static final ArrayDeque<CraterJob> JOBS = new ArrayDeque<>();
+    private static final ExplosionBudget BUDGET = new ExplosionBudget();
+
+    /**
+     * Queue a crater explosion in place of a nuclear reactor explosion. It starts on the next tick.
+     */
+    public static CraterJob submitNuclear(World world, double x, double y, double z, float power) {
+        CraterJob job = new CraterJob(world, x, y, z, power, NUCLEAR_DROP_RATE);
+        JOBS.add(job);
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Queued incremental explosion at [" + x
+                + ","
+                + y
+                + ","
+                + z
+                + "] with power: "
+                + power
+                + ", jobs: "
+                + JOBS.size());
+        return job;
+    }
+
+    /**
+     * Queue a Draconic Evolution reactor explosion. DE's power is roughly the crater radius, so it is converted to
+     * the ray power that reaches that far through air.
+     */
+    public static CraterJob submitReactor(World world, double x, double y, double z, float power) {
+        CraterJob job = new CraterJob(
+            world,
+            x,
+            y,
+            z,
+            (float) (power * RayTracer.AIR_ABSORPTION),
+            REACTOR_DROP_RATE);
+        JOBS.add(job);
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Queued incremental reactor explosion at [" + x
+                + ","
+                + y
+                + ","
+                + z
+                + "] with power: "
+                + power
+                + ", jobs: "
+                + JOBS.size());
+        return job;
+    }
+
+    /**
+     * @return true if nuclear and reactor explosions should be run by this engine: either incremental explosions are
+     *         enabled, or chunks must not be loaded by explosions, which only the engine can promise
+     */
+    public static boolean isEnabled() {
+        return Config.incrementalExplosions
+            || Config.unloadedChunkPolicy != UnloadedChunkPolicy.LOAD;
+    }
+
+    public static int activeJobs() {
+        return JOBS.size();
+    }
+
+    public static boolean hasJobsIn(World world) {
+        for (CraterJob job : JOBS) {
+            if (job.getWorld() == world) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return how far a crater explosion of this power can reach
+     */
+    public static double nuclearRadius(float power) {
+        return RayTracer.reach(power);
+    }
+
+    /**
+     * @return how far a Draconic Evolution reactor explosion of this power can reach
+     */
+    public static double reactorRadius(float power) {
+        return power;
+    }
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        // rays parked at chunks that have been loaded since the last tick go on
+        JOBS.addAll(CraterPatches.takeReady());
+        if (JOBS.isEmpty()) return;
+        BUDGET.reset(Config.explosionTickBudgetMs * 1000000L, Config.explosionBlocksPerTick);
+        // one pass per tick: a job waiting for its background trace is skipped until the next tick
+        Iterator<CraterJob> it = JOBS.iterator();
+        while (it.hasNext() && !BUDGET.isExhausted()) {
+            CraterJob job = it.next();
+            boolean done;
+            try {
+                done = job.step(BUDGET);
+            } catch (Throwable t) {
+                EZNuclear.LOG.error("[EZNuclear] Incremental explosion failed: " + t.getMessage(), t);
+                job.cancel();
+                done = true;
+            }
+            if (done) it.remove();
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        if (event.world == null || event.world.isRemote) return;
+        CraterPatches.onChunkLoad(event.world, event.getChunk());
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world == null || event.world.isRemote) return;
+        CraterPatches.onWorldUnload(event.world);
+        Iterator<CraterJob> it = JOBS.iterator();
+        while (it.hasNext()) {
+            CraterJob job = it.next();
+            if (job.getWorld() == event.world) {
+                job.cancel();
+                it.remove();
+            }
+        }
+    }
+}
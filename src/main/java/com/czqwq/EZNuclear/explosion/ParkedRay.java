@@ -0,0 +1,32 @@
+package com.czqwq.EZNuclear.explosion;
+
+/**
+ * An explosion ray stopped at the border of an unloaded chunk, with what it needs to continue: where it is, where it
+ * is going, the power it has left and the drop rate of its explosion.
+ */
+final class ParkedRay {
+
+    final double px, py, pz;
+    final double dx, dy, dz;
+    final double power;
+    final float dropRate;
+
+    ParkedRay(double px, double py, double pz, double dx, double dy, double dz, double power, float dropRate) {
+        this.px = px;
+        this.py = py;
+        this.pz = pz;
+        this.dx = dx;
+        this.dy = dy;
+        this.dz = dz;
+        this.power = power;
+        this.dropRate = dropRate;
+    }
+
+    int chunkX() {
+        return (int) Math.floor(px) >> 4;
+    }
+
+    int chunkZ() {
+        return (int) Math.floor(pz) >> 4;
+    }
+}
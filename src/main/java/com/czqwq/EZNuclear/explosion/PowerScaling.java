@@ -0,0 +1,87 @@
+package com.czqwq.EZNuclear.explosion;
+
+import net.minecraft.server.MinecraftServer;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Scales explosion power down while the server is lagging, so a meltdown during a lag spike does not make it worse.
+ * <p>
+ * With {@link Config#tickLoadScaling} on, the mean tick time over the server's last 100 ticks is mapped onto
+ * {@link Config#tickLoadScalingStartMs}..{@link Config#tickLoadScalingEndMs}: below the range explosions keep their
+ * power, above it they get {@link Config#tickLoadPowerFloor} of it, and in between {@link Config#tickLoadScalingCurve}
+ * decides. The crater radius follows the power. Only used from the server thread.
+ */
+public final class PowerScaling {
+
+    // the last factor applied and the tick time it was chosen for, for the metrics
+    private static double lastFactor = 1.0D;
+    private static double lastMeanTickMs;
+    private static long scaledExplosions;
+
+    private PowerScaling() {}
+
+    /**
+     * @param what the kind of explosion, for the log
+     * @return the power to use for an explosion of the given power right now
+     */
+    public static float scale(float power, String what) {
+        if (!Config.tickLoadScaling) return power;
+        MinecraftServer server = MinecraftServer.getServer();
+        if (server == null) return power;
+        double meanTickMs = meanTickMs(server);
+        double factor = factor(meanTickMs);
+        lastFactor = factor;
+        lastMeanTickMs = meanTickMs;
+        if (factor >= 1.0D) return power;
+        scaledExplosions++;
+        float scaled = (float) (power * factor);
+        EZNuclear.LOG.info(
+            "[EZNuclear] Mean tick time is " + String.format("%.1f", meanTickMs)
+                + "ms, scaling "
+                + what
+                + " explosion power from "
+                + power
+                + " to "
+                + scaled);
+        return scaled;
+    }
+
+    /**
+     * @return the share of its power an explosion gets at the given mean tick time
+     */
+    public static double factor(double meanTickMs) {
+        double start = Config.tickLoadScalingStartMs, end = Config.tickLoadScalingEndMs;
+        double floor = Config.tickLoadPowerFloor;
+        if (meanTickMs <= start) return 1.0D;
+        double t = end > start ? Math.min(1.0D, (meanTickMs - start) / (end - start)) : 1.0D;
+        double cut = Config.tickLoadScalingCurve.apply(t);
+        return 1.0D - (1.0D - floor) * cut;
+    }
+
+    private static double meanTickMs(MinecraftServer server) {
+        long[] times = server.tickTimeArray;
+        if (times == null || times.length == 0) return 0.0D;
+        long sum = 0L;
+        for (long t : times) {
+            sum += t;
+        }
+        return sum / (double) times.length / 1.0E6D;
+    }
+
+    public static double lastFactor() {
+        return lastFactor;
+    }
+
+    public static double lastMeanTickMs() {
+        return lastMeanTickMs;
+    }
+
+    /**
+     * @return the number of explosions whose power was scaled down
+     */
+    public static long scaledExplosions() {
+        return scaledExplosions;
+    }
+}
@@ -0,0 +1,183 @@
+package com.czqwq.EZNuclear.explosion;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+import net.minecraft.util.MathHelper;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Explosion rays with this mod's own absorption values, not IC2's: rays are shot from the centre over a regular
+ * phi/theta grid, every block a ray enters costs a fixed air absorption plus {@code (resistance + 4) * 0.3}, and a
+ * ray stops at the first block it cannot afford.
+ * <p>
+ * Rays can be traced on the calling thread or split over a shared {@link ForkJoinPool}. The parallel path must only
+ * be given a thread-safe {@link ResistanceSource} such as a {@link BlockSnapshot}.
+ * <p>
+ * A ray that reaches an {@link ResistanceSource#UNLOADED} position stops there and is handed to the {@link Parking},
+ * if any, with the power it has left.
+ */
+final class RayTracer {
+
+    // power a ray loses per block, even in air
+    static final double AIR_ABSORPTION = 0.5;
+
+    // rays traced by one fork/join leaf
+    private static final int SPLIT_THRESHOLD = 1024;
+
+    private static ForkJoinPool pool;
+
+    private RayTracer() {}
+
+    /**
+     * Receives rays stopped by an unloaded chunk. Must be thread safe when used with {@link #traceAsync}.
+     */
+    interface Parking {
+
+        void park(double px, double py, double pz, double dx, double dy, double dz, double power);
+    }
+
+    /**
+     * @return how far a ray travels through air before running out of power
+     */
+    static double reach(float power) {
+        return power / AIR_ABSORPTION;
+    }
+
+    /**
+     * @return the number of theta steps, chosen so neighbouring rays are about one block apart at full reach
+     */
+    static int gridSteps(float power) {
+        return Math.max(1, (int) Math.ceil(Math.PI / Math.atan(1.0 / Math.max(1.0, reach(power)))));
+    }
+
+    static int rayCount(int steps) {
+        return 2 * steps * steps;
+    }
+
+    /**
+     * Trace one ray of the grid into the mask.
+     *
+     * @param parking receives the ray if it reaches an unloaded chunk, or null to drop it
+     */
+    static void traceRay(ResistanceSource src, int ray, int steps, double ox, double oy, double oz, float power,
+        CraterMask mask, Parking parking) {
+        int phiN = ray / steps;
+        int thetaN = ray % steps;
+        // theta 0 points straight up for every phi; trace that ray once
+        if (thetaN == 0 && phiN != 0) return;
+        double phi = Math.PI * phiN / steps;
+        double theta = Math.PI * thetaN / steps;
+        double sinTheta = Math.sin(theta);
+        double dx = sinTheta * Math.cos(phi);
+        double dy = Math.cos(theta);
+        double dz = sinTheta * Math.sin(phi);
+        trace(src, ox, oy, oz, dx, dy, dz, power, mask, parking);
+    }
+
+    /**
+     * Trace a ray from a position with the power it has left, e.g. one that was parked.
+     */
+    static void trace(ResistanceSource src, double px, double py, double pz, double dx, double dy, double dz,
+        double p, CraterMask mask, Parking parking) {
+        int height = src.getHeight();
+        while (p > 0) {
+            int bx = MathHelper.floor_double(px);
+            int by = MathHelper.floor_double(py);
+            int bz = MathHelper.floor_double(pz);
+            if (by < 0 || by >= height) break;
+            float resistance = src.resistanceAt(bx, by, bz);
+            if (resistance == ResistanceSource.UNLOADED) {
+                if (parking != null) parking.park(px, py, pz, dx, dy, dz, p);
+                break;
+            }
+            double absorption = AIR_ABSORPTION;
+            if (resistance != ResistanceSource.AIR) {
+                absorption += (resistance + 4.0) * 0.3;
+                if (absorption > p) break;
+                mask.add(bx, by, bz);
+            }
+            p -= absorption;
+            px += dx;
+            py += dy;
+            pz += dz;
+        }
+    }
+
+    /**
+     * Trace every ray of the grid on the shared pool.
+     */
+    static ForkJoinTask<CraterMask> traceAsync(ResistanceSource src, double ox, double oy, double oz, float power,
+        Parking parking) {
+        int steps = gridSteps(power);
+        return pool().submit(new TraceTask(src, steps, ox, oy, oz, power, parking, 0, rayCount(steps)));
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = Config.explosionThreads > 0 ? Config.explosionThreads
+                : Math.max(
+                    1,
+                    Runtime.getRuntime()
+                        .availableProcessors() - 1);
+            pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                t.setName("EZNuclear-Explosion-" + t.getPoolIndex());
+                t.setDaemon(true);
+                return t;
+            }, null, false);
+            EZNuclear.LOG.debug("[EZNuclear] Explosion ray tracing pool started with " + threads + " threads");
+        }
+        return pool;
+    }
+
+    private static final class TraceTask extends RecursiveTask<CraterMask> {
+
+        private final ResistanceSource src;
+        private final int steps;
+        private final double ox, oy, oz;
+        private final float power;
+        private final Parking parking;
+        private final int from, to;
+
+        TraceTask(ResistanceSource src, int steps, double ox, double oy, double oz, float power, Parking parking,
+            int from, int to) {
+            this.src = src;
+            this.steps = steps;
+            this.ox = ox;
+            this.oy = oy;
+            this.oz = oz;
+            this.power = power;
+            this.parking = parking;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CraterMask compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                CraterMask mask = new CraterMask();
+                for (int ray = from; ray < to; ray++) {
+                    traceRay(src, ray, steps, ox, oy, oz, power, mask, parking);
+                }
+                return mask;
+            }
+            int mid = (from + to) >>> 1;
+            TraceTask left = new TraceTask(src, steps, ox, oy, oz, power, parking, from, mid);
+            left.fork();
+            CraterMask right = new TraceTask(src, steps, ox, oy, oz, power, parking, mid, to).compute();
+            CraterMask merged = left.join();
+            // fold the smaller mask into the larger one
+            if (merged.sectionCount() < right.sectionCount()) {
+                right.addAll(merged);
+                return right;
+            }
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.czqwq.EZNuclear.explosion;
+
+/**
+ * Explosion resistance lookup used by {@link RayTracer}, backed either by the live world or by a
+ * {@link BlockSnapshot}.
+ */
+interface ResistanceSource {
+
+    // returned for air, which only costs the fixed absorption
+    float AIR = -1.0F;
+    // returned for positions in chunks that are not loaded and must not be loaded; stops the ray
+    float UNLOADED = -2.0F;
+
+    /**
+     * @return the explosion resistance of the block at the position, {@link #AIR} or {@link #UNLOADED}
+     */
+    float resistanceAt(int x, int y, int z);
+
+    int getHeight();
+}
@@ -0,0 +1,44 @@
+package com.czqwq.EZNuclear.explosion;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+
+/**
+ * How {@link PowerScaling} goes from full power to {@link Config#tickLoadPowerFloor} as the mean tick time rises, see
+ * {@link Config#tickLoadScalingCurve}.
+ */
+public enum ScalingCurve implements ConfigEnum {
+
+    // Power falls evenly over the range
+    LINEAR("linear"),
+    // Power falls slowly at first and fast near the end of the range; mild lag costs little
+    QUADRATIC("quadratic"),
+    // Power falls fast at first and slowly near the end of the range; any lag costs a lot
+    SQRT("sqrt");
+
+    private final String configName;
+
+    ScalingCurve(String configName) {
+        this.configName = configName;
+    }
+
+    @Override
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @param t how far into the scaling range the tick time is, from 0 to 1
+     * @return how much of the power is taken away, from 0 to 1
+     */
+    public double apply(double t) {
+        switch (this) {
+            case QUADRATIC:
+                return t * t;
+            case SQRT:
+                return Math.sqrt(t);
+            default:
+                return t;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.czqwq.EZNuclear.explosion;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+
+/**
+ * What an explosion ray does when it reaches a chunk that is not loaded, see {@link Config#unloadedChunkPolicy}.
+ */
+public enum UnloadedChunkPolicy implements ConfigEnum {
+
+    // The chunk is loaded, or generated, on the spot
+    LOAD("load"),
+    // The ray stops at the chunk border
+    TRUNCATE("truncate"),
+    // The ray stops at the chunk border and continues from there once the chunk is loaded by something else
+    PARK("park");
+
+    private final String configName;
+
+    UnloadedChunkPolicy(String configName) {
+        this.configName = configName;
+    }
+
+    @Override
+    public String getConfigName() {
+        return configName;
+    }
+}
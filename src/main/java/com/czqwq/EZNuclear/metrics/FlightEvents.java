@@ -0,0 +1,217 @@
+package com.czqwq.EZNuclear.metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Java Flight Recorder events for the stages of a meltdown, so explosion spikes line up with GC and chunk I/O in one
+ * recording.
+ * <p>
+ * The mod is built against the Java 8 API, which has no {@code jdk.jfr}. The event types are therefore created at
+ * runtime through {@code jdk.jfr.EventFactory}, and every call goes through a {@link MethodHandle} resolved once.
+ * Without the API, or while no recording has an event enabled, {@link #begin} returns null and the commit methods
+ * return at once, before anything is allocated.
+ * <p>
+ * Usage: {@code Object e = FlightEvents.begin(type)} before the work and {@code FlightEvents.commit(e, ...)} after it;
+ * the recorded duration spans the two. {@link #emit} records an instant event.
+ */
+public final class FlightEvents {
+
+    /**
+     * An event type created through the EventFactory, or an inert one if JFR is not available.
+     */
+    public static final class Type {
+
+        final Object factory;
+        final Object eventType;
+
+        Type(Object factory, Object eventType) {
+            this.factory = factory;
+            this.eventType = eventType;
+        }
+    }
+
+    private static final String CATEGORY = "EZNuclear";
+
+    // jdk.jfr handles, all null without the API
+    private static final MethodHandle NEW_EVENT; // (Object factory) -> Object
+    private static final MethodHandle IS_ENABLED; // (Object eventType) -> boolean
+    private static final MethodHandle BEGIN; // (Object event) -> void
+    private static final MethodHandle END; // (Object event) -> void
+    private static final MethodHandle COMMIT; // (Object event) -> void
+    private static final MethodHandle SET; // (Object event, int, Object) -> void
+
+    // kind, x, y, z, dimension, power
+    public static final Type MELTDOWN_INTERCEPTED;
+    public static final Type MELTDOWN_SCHEDULED;
+    public static final Type MELTDOWN_TRIGGERED;
+    public static final Type EXPLOSION_EXECUTED;
+    // processes, updated
+    public static final Type PROCESS_SLICE;
+
+    static {
+        MethodHandle newEvent = null, isEnabled = null, begin = null, end = null, commit = null, set = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            Class<?> typeClass = Class.forName("jdk.jfr.EventType");
+            newEvent = lookup.findVirtual(factoryClass, "newEvent", MethodType.methodType(eventClass))
+                .asType(MethodType.methodType(Object.class, Object.class));
+            isEnabled = lookup.findVirtual(typeClass, "isEnabled", MethodType.methodType(boolean.class))
+                .asType(MethodType.methodType(boolean.class, Object.class));
+            begin = voidCall(lookup, eventClass, "begin");
+            end = voidCall(lookup, eventClass, "end");
+            commit = voidCall(lookup, eventClass, "commit");
+            set = lookup
+                .findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            EZNuclear.LOG.debug("[EZNuclear] JFR events are not available: " + e);
+            newEvent = null;
+        }
+        NEW_EVENT = newEvent;
+        IS_ENABLED = isEnabled;
+        BEGIN = begin;
+        END = end;
+        COMMIT = commit;
+        SET = set;
+
+        String[] meltdownNames = { "kind", "x", "y", "z", "dimension", "power" };
+        Class<?>[] meltdownTypes = { String.class, int.class, int.class, int.class, int.class, float.class };
+        MELTDOWN_INTERCEPTED = create(
+            "MeltdownIntercepted",
+            "Meltdown Intercepted",
+            "A reactor meltdown was caught by a mixin or the reactor scan",
+            meltdownNames,
+            meltdownTypes);
+        MELTDOWN_SCHEDULED = create(
+            "MeltdownScheduled",
+            "Meltdown Scheduled",
+            "A meltdown countdown was started",
+            meltdownNames,
+            meltdownTypes);
+        MELTDOWN_TRIGGERED = create(
+            "MeltdownTriggered",
+            "Meltdown Triggered",
+            "A meltdown task ran, at the end of its countdown or set off by a player",
+            meltdownNames,
+            meltdownTypes);
+        EXPLOSION_EXECUTED = create(
+            "ExplosionExecuted",
+            "Explosion Executed",
+            "An explosion set off by EZNuclear, from start to the last block changed",
+            meltdownNames,
+            meltdownTypes);
+        PROCESS_SLICE = create(
+            "ProcessSlice",
+            "Process Slice",
+            "Draconic Evolution processes updated in one server tick",
+            new String[] { "processes", "updated" },
+            new Class<?>[] { int.class, int.class });
+    }
+
+    private FlightEvents() {}
+
+    private static MethodHandle voidCall(MethodHandles.Lookup lookup, Class<?> eventClass, String name)
+        throws ReflectiveOperationException {
+        return lookup.findVirtual(eventClass, name, MethodType.methodType(void.class))
+            .asType(MethodType.methodType(void.class, Object.class));
+    }
+
+    // Build the event type through EventFactory.create(annotations, fields) and register it
+    private static Type create(String name, String label, String description, String[] fieldNames,
+        Class<?>[] fieldTypes) {
+        if (NEW_EVENT == null) return new Type(null, null);
+        try {
+            Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+            Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            java.lang.reflect.Constructor<?> element = annotationElement.getConstructor(Class.class, Object.class);
+
+            List<Object> annotations = new ArrayList<>();
+            annotations.add(element.newInstance(Class.forName("jdk.jfr.Name"), "eznuclear." + name));
+            annotations.add(element.newInstance(Class.forName("jdk.jfr.Label"), label));
+            annotations.add(element.newInstance(Class.forName("jdk.jfr.Description"), description));
+            annotations.add(element.newInstance(Class.forName("jdk.jfr.Category"), new String[] { CATEGORY }));
+
+            List<Object> fields = new ArrayList<>();
+            java.lang.reflect.Constructor<?> field = valueDescriptor.getConstructor(Class.class, String.class);
+            for (int i = 0; i < fieldNames.length; i++) {
+                fields.add(field.newInstance(fieldTypes[i], fieldNames[i]));
+            }
+
+            Object factory = factoryClass.getMethod("create", List.class, List.class)
+                .invoke(null, annotations, fields);
+            factoryClass.getMethod("register")
+                .invoke(factory);
+            Object eventType = factoryClass.getMethod("getEventType")
+                .invoke(factory);
+            return new Type(factory, eventType);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            EZNuclear.LOG.debug("[EZNuclear] Could not create JFR event " + name + ": " + e);
+            return new Type(null, null);
+        }
+    }
+
+    /**
+     * @return a started event, or null if no recording has the type enabled
+     */
+    public static Object begin(Type type) {
+        if (type.factory == null) return null;
+        try {
+            if (!(boolean) IS_ENABLED.invokeExact(type.eventType)) return null;
+            Object event = (Object) NEW_EVENT.invokeExact(type.factory);
+            BEGIN.invokeExact(event);
+            return event;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * End and commit a meltdown or explosion event started by {@link #begin}; does nothing for null.
+     */
+    public static void commit(Object event, String kind, int x, int y, int z, int dimension, float power) {
+        if (event == null) return;
+        try {
+            END.invokeExact(event);
+            SET.invokeExact(event, 0, (Object) kind);
+            SET.invokeExact(event, 1, (Object) x);
+            SET.invokeExact(event, 2, (Object) y);
+            SET.invokeExact(event, 3, (Object) z);
+            SET.invokeExact(event, 4, (Object) dimension);
+            SET.invokeExact(event, 5, (Object) power);
+            COMMIT.invokeExact(event);
+        } catch (Throwable t) {
+            // a failed event must never break a meltdown
+        }
+    }
+
+    /**
+     * End and commit a {@link #PROCESS_SLICE} event started by {@link #begin}; does nothing for null.
+     */
+    public static void commitSlice(Object event, int processes, int updated) {
+        if (event == null) return;
+        try {
+            END.invokeExact(event);
+            SET.invokeExact(event, 0, (Object) processes);
+            SET.invokeExact(event, 1, (Object) updated);
+            COMMIT.invokeExact(event);
+        } catch (Throwable t) {
+            // a failed event must never break the tick
+        }
+    }
+
+    /**
+     * Record an instant meltdown event.
+     */
+    public static void emit(Type type, String kind, int x, int y, int z, int dimension, float power) {
+        commit(begin(type), kind, x, y, z, dimension, power);
+    }
+}
@@ -0,0 +1,277 @@
+package com.czqwq.EZNuclear.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.czqwq.EZNuclear.data.MeltdownKind;
+import com.czqwq.EZNuclear.data.PendingMeltdown;
+import com.czqwq.EZNuclear.explosion.ExplosionEngine;
+import com.czqwq.EZNuclear.explosion.PowerScaling;
+
+/**
+ * Counters and histograms for the meltdown pipeline, shown by {@code /eznuclear stats} and written out by
+ * {@link MetricsExporter}.
+ * <p>
+ * Everything is recorded where it happens, on events that are rare next to a server tick, so nothing is spent while no
+ * reactor is melting down. Counters are {@link LongAdder}s and histograms are {@link LatencyHistogram}s; both may be
+ * updated from any thread. The meltdown stages are also sent to Java Flight Recorder, see {@link FlightEvents}.
+ */
+public final class Metrics {
+
+    private static final MeltdownKind[] KINDS = MeltdownKind.values();
+
+    // per meltdown kind
+    private static final LongAdder[] INTERCEPTED = perKind();
+    private static final LongAdder[] SCHEDULED = perKind();
+    private static final LongAdder[] DEDUPLICATED = perKind();
+    private static final LongAdder[] COALESCED = perKind();
+    private static final LongAdder[] DROPPED = perKind();
+    private static final LongAdder[] EXPIRED = perKind();
+    private static final LongAdder[] EXECUTED = perKind();
+    private static final LongAdder[] FAILED = perKind();
+
+    // ticks between a task's due tick and the tick it ran, including the wait for explosion admission
+    public static final LatencyHistogram SCHEDULING_LAG_TICKS = new LatencyHistogram();
+    // wall time of incremental crater jobs from submission to the last block, and the blocks each changed
+    public static final LatencyHistogram CRATER_NANOS = new LatencyHistogram();
+    public static final LatencyHistogram CRATER_BLOCKS = new LatencyHistogram();
+    // wall time of IC2 explosions set off in one go
+    public static final LatencyHistogram EXPLOSION_NANOS = new LatencyHistogram();
+    // one periodic scan of the hot reactors
+    public static final LatencyHistogram SCAN_NANOS = new LatencyHistogram();
+    // time DE's ProcessHandler spent on its processes in a tick, for ticks with any process running
+    public static final LatencyHistogram PROCESS_TICK_NANOS = new LatencyHistogram();
+
+    private Metrics() {}
+
+    private static LongAdder[] perKind() {
+        LongAdder[] adders = new LongAdder[MeltdownKind.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // A reactor meltdown was caught by a mixin or the scan
+    public static void intercepted(MeltdownKind kind, int x, int y, int z, int dimension, float power) {
+        INTERCEPTED[kind.ordinal()].increment();
+        FlightEvents.emit(FlightEvents.MELTDOWN_INTERCEPTED, kind.name(), x, y, z, dimension, power);
+    }
+
+    public static void scheduled(MeltdownKind kind, int x, int y, int z, int dimension, float power) {
+        SCHEDULED[kind.ordinal()].increment();
+        FlightEvents.emit(FlightEvents.MELTDOWN_SCHEDULED, kind.name(), x, y, z, dimension, power);
+    }
+
+    // A task of the kind was already pending at the position
+    public static void deduplicated(MeltdownKind kind) {
+        DEDUPLICATED[kind.ordinal()].increment();
+    }
+
+    // The meltdown was merged into a nearby one's explosion, or into another task at the task limit
+    public static void coalesced(MeltdownKind kind) {
+        COALESCED[kind.ordinal()].increment();
+    }
+
+    // The task limit was reached and the task was discarded
+    public static void dropped(MeltdownKind kind) {
+        DROPPED[kind.ordinal()].increment();
+    }
+
+    public static void expired(MeltdownKind kind) {
+        EXPIRED[kind.ordinal()].increment();
+    }
+
+    // A task ran at the end of its countdown, or a player set it or an armed reactor off
+    public static void executed(MeltdownKind kind, long lagTicks, int x, int y, int z, int dimension, float power) {
+        EXECUTED[kind.ordinal()].increment();
+        SCHEDULING_LAG_TICKS.record(lagTicks);
+        FlightEvents.emit(FlightEvents.MELTDOWN_TRIGGERED, kind.name(), x, y, z, dimension, power);
+    }
+
+    public static void failed(MeltdownKind kind) {
+        FAILED[kind.ordinal()].increment();
+    }
+
+    private static long total(LongAdder[] adders) {
+        long n = 0;
+        for (LongAdder a : adders) {
+            n += a.sum();
+        }
+        return n;
+    }
+
+    // Summary -------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the lines shown by {@code /eznuclear stats}
+     */
+    public static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        lines.add("EZNuclear stats");
+        lines.add(
+            String.format(
+                Locale.ROOT,
+                "Meltdowns: %d intercepted, %d scheduled, %d deduplicated, %d coalesced, %d dropped, %d expired,"
+                    + " %d executed, %d failed",
+                total(INTERCEPTED),
+                total(SCHEDULED),
+                total(DEDUPLICATED),
+                total(COALESCED),
+                total(DROPPED),
+                total(EXPIRED),
+                total(EXECUTED),
+                total(FAILED)));
+        for (MeltdownKind kind : KINDS) {
+            int i = kind.ordinal();
+            if (INTERCEPTED[i].sum() == 0 && SCHEDULED[i].sum() == 0) continue;
+            lines.add(
+                String.format(
+                    Locale.ROOT,
+                    "  %s: %d intercepted, %d scheduled, %d executed",
+                    kind,
+                    INTERCEPTED[i].sum(),
+                    SCHEDULED[i].sum(),
+                    EXECUTED[i].sum()));
+        }
+        lines.add(
+            String.format(
+                Locale.ROOT,
+                "Pending: %d tasks, %d explosions waiting, %d crater jobs",
+                PendingMeltdown.pendingTaskCount(),
+                PendingMeltdown.queuedExplosionCount(),
+                ExplosionEngine.activeJobs()));
+        lines.add(line("Scheduling lag (ticks)", SCHEDULING_LAG_TICKS, 1L));
+        lines.add(line("Crater jobs (ms)", CRATER_NANOS, 1000000L));
+        lines.add(line("Crater blocks", CRATER_BLOCKS, 1L));
+        lines.add(line("IC2 explosions (ms)", EXPLOSION_NANOS, 1000000L));
+        lines.add(line("Reactor scan (ms)", SCAN_NANOS, 1000000L));
+        lines.add(line("ProcessHandler tick (ms)", PROCESS_TICK_NANOS, 1000000L));
+        lines.add(
+            String.format(
+                Locale.ROOT,
+                "Power scaling: factor %.2f at %.1f ms/tick, %d explosions scaled",
+                PowerScaling.lastFactor(),
+                PowerScaling.lastMeanTickMs(),
+                PowerScaling.scaledExplosions()));
+        return lines;
+    }
+
+    private static String line(String name, LatencyHistogram h, long unit) {
+        if (h.count() == 0) return name + ": none";
+        return String.format(
+            Locale.ROOT,
+            "%s: p50 %s, p99 %s, max %s (%d)",
+            name,
+            format(h.quantile(0.5), unit),
+            format(h.quantile(0.99), unit),
+            format(h.max(), unit),
+            h.count());
+    }
+
+    private static String format(long value, long unit) {
+        return unit == 1L ? Long.toString(value) : String.format(Locale.ROOT, "%.1f", (double) value / unit);
+    }
+
+    // Prometheus text format ----------------------------------------------------------------------------------------
+
+    /**
+     * @return every metric in the Prometheus text exposition format, histograms as summaries
+     */
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        counter(out, "eznuclear_meltdowns_intercepted_total", "Reactor meltdowns caught", INTERCEPTED);
+        counter(out, "eznuclear_tasks_scheduled_total", "Meltdown tasks scheduled", SCHEDULED);
+        counter(out, "eznuclear_tasks_deduplicated_total", "Meltdowns with a task already pending", DEDUPLICATED);
+        counter(out, "eznuclear_tasks_coalesced_total", "Meltdowns merged into another task", COALESCED);
+        counter(out, "eznuclear_tasks_dropped_total", "Meltdown tasks dropped at the task limit", DROPPED);
+        counter(out, "eznuclear_tasks_expired_total", "Meltdown tasks dropped after the timeout", EXPIRED);
+        counter(out, "eznuclear_tasks_executed_total", "Meltdown tasks run", EXECUTED);
+        counter(out, "eznuclear_tasks_failed_total", "Meltdown tasks that threw", FAILED);
+        gauge(out, "eznuclear_tasks_pending", "Meltdown tasks waiting", PendingMeltdown.pendingTaskCount());
+        gauge(
+            out,
+            "eznuclear_explosions_waiting",
+            "Explosions waiting for admission",
+            PendingMeltdown.queuedExplosionCount());
+        gauge(out, "eznuclear_crater_jobs_active", "Incremental crater jobs running", ExplosionEngine.activeJobs());
+        gauge(out, "eznuclear_power_scaling_factor", "Last explosion power factor", PowerScaling.lastFactor());
+        gauge(
+            out,
+            "eznuclear_power_scaling_tick_milliseconds",
+            "Mean tick time the last factor was chosen for",
+            PowerScaling.lastMeanTickMs());
+        gauge(
+            out,
+            "eznuclear_power_scaled_explosions",
+            "Explosions whose power was scaled down",
+            PowerScaling.scaledExplosions());
+        summary(out, "eznuclear_scheduling_lag_ticks", "Ticks from due to run", SCHEDULING_LAG_TICKS, 1.0D);
+        summary(out, "eznuclear_crater_seconds", "Crater job wall time", CRATER_NANOS, 1e9D);
+        summary(out, "eznuclear_crater_blocks", "Blocks changed per crater job", CRATER_BLOCKS, 1.0D);
+        summary(out, "eznuclear_explosion_seconds", "IC2 explosion wall time", EXPLOSION_NANOS, 1e9D);
+        summary(out, "eznuclear_scan_seconds", "Reactor scan time", SCAN_NANOS, 1e9D);
+        summary(out, "eznuclear_process_tick_seconds", "ProcessHandler time per tick", PROCESS_TICK_NANOS, 1e9D);
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, LongAdder[] perKind) {
+        out.append("# HELP ")
+            .append(name)
+            .append(' ')
+            .append(help)
+            .append("\n# TYPE ")
+            .append(name)
+            .append(" counter\n");
+        for (MeltdownKind kind : KINDS) {
+            out.append(name)
+                .append("{kind=\"")
+                .append(kind.name())
+                .append("\"} ")
+                .append(perKind[kind.ordinal()].sum())
+                .append('\n');
+        }
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        out.append("# HELP ")
+            .append(name)
+            .append(' ')
+            .append(help)
+            .append("\n# TYPE ")
+            .append(name)
+            .append(" gauge\n")
+            .append(name)
+            .append(' ')
+            .append(value)
+            .append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String help, LatencyHistogram h, double unit) {
+        out.append("# HELP ")
+            .append(name)
+            .append(' ')
+            .append(help)
+            .append("\n# TYPE ")
+            .append(name)
+            .append(" summary\n");
+        for (double q : new double[] { 0.5, 0.9, 0.99, 1.0 }) {
+            out.append(name)
+                .append("{quantile=\"")
+                .append(q)
+                .append("\"} ")
+                .append(h.quantile(q) / unit)
+                .append('\n');
+        }
+        out.append(name)
+            .append("_sum ")
+            .append(h.sum() / unit)
+            .append('\n')
+            .append(name)
+            .append("_count ")
+            .append(h.count())
+            .append('\n');
+    }
+}
@@ -0,0 +1,76 @@
+package com.czqwq.EZNuclear.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.storage.IThreadedFileIO;
+import net.minecraft.world.storage.ThreadedFileIOBase;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.EZNuclear;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * Writes {@link Metrics#prometheus()} to {@value #FILE_NAME} in the world folder every
+ * {@link Config#metricsExportSeconds}, for the node exporter's textfile collector. The text is built on the server
+ * thread and written on the vanilla file I/O thread, through a temporary file so a reader never sees half of it.
+ */
+public class MetricsExporter {
+
+    public static final String FILE_NAME = "eznuclear.prom";
+
+    private int ticks;
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || Config.metricsExportSeconds <= 0) return;
+        if (++ticks < Config.metricsExportSeconds * 20) return;
+        ticks = 0;
+        MinecraftServer server = MinecraftServer.getServer();
+        if (server == null || server.worldServers == null || server.worldServers.length == 0) return;
+        WorldServer overworld = server.worldServers[0];
+        if (overworld == null || overworld.getSaveHandler() == null) return;
+        File file = new File(
+            overworld.getSaveHandler()
+                .getWorldDirectory(),
+            FILE_NAME);
+        byte[] text = Metrics.prometheus()
+            .getBytes(StandardCharsets.UTF_8);
+        ThreadedFileIOBase.threadedIOInstance.queueIO(new Write(file, text));
+    }
+
+    // File I/O thread job
+    private static final class Write implements IThreadedFileIO {
+
+        final File file;
+        final byte[] bytes;
+
+        Write(File file, byte[] bytes) {
+            this.file = file;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean writeNextIO() {
+            File tmp = new File(file.getPath() + ".tmp");
+            try {
+                try (OutputStream out = new FileOutputStream(tmp)) {
+                    out.write(bytes);
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                EZNuclear.LOG.warn("[EZNuclear] Failed to write metrics file: " + file + ": " + e.getMessage());
+            }
+            return false;
+        }
+    }
+}
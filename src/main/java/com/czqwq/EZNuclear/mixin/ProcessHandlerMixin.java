@@ -1,6 +1,5 @@
 package com.czqwq.EZNuclear.mixin;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.spongepowered.asm.mixin.Mixin;
@@ -10,17 +9,26 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import com.brandon3055.draconicevolution.common.utils.handlers.IProcess;
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.data.DEProcesses;
+import com.czqwq.EZNuclear.metrics.FlightEvents;
+import com.czqwq.EZNuclear.metrics.Metrics;
 
 import cpw.mods.fml.common.gameevent.TickEvent;
 
 /**
  * Mixin to fix ConcurrentModificationException in ProcessHandler.onServerTick
- * and to add thread-safety via synchronized blocks.
+ * and to keep long-running processes from stalling the server tick.
  *
  * BrandonsCore has been merged into Draconic Evolution. The new DE ProcessHandler
- * already queues additions via newProcesses internally, but this mixin adds
- * synchronized blocks for additional thread-safety and uses snapshot iteration
- * to guard against concurrent modification from other code paths.
+ * already queues additions via newProcesses internally, but additions can still come
+ * from other threads and other code paths, and every process is updated every tick
+ * no matter how long it takes. A ReactorExplosion alone can take hundreds of
+ * milliseconds per update.
+ *
+ * The mixin takes over the handler: processes are run from {@link DEProcesses}, and DE's own processes
+ * list is emptied every tick, so DE code reading it sees no running processes. The processes are
+ * dropped when the server stops.
  *
  * Original reference (BrandonsCore):
  * https://github.com/GTNewHorizons/BrandonsCore/blob/master/src/main/java/com/brandon3055/brandonscore/common/handlers/ProcessHandler.java
@@ -32,66 +40,38 @@ public class ProcessHandlerMixin {
     private static List<IProcess> processes;
 
     /**
-     * Separate list for processes that are added while iterating.
-     * This prevents ConcurrentModificationException by deferring additions until after iteration.
-     * Matches the approach used in GTNewHorizons/BrandonsCore.
-     */
-    private static List<IProcess> newProcesses = new ArrayList<IProcess>();
-
-    /**
-     * Fix ConcurrentModificationException by iterating over a snapshot copy of the process list.
-     * 
-     * Unlike the GTNewHorizons source code fix (which modifies ProcessHandler directly),
-     * this mixin approach must be more defensive because:
-     * 1. The processes list can be modified from other code paths we don't control
-     * 2. Dimension changes and chunk unloading can trigger concurrent modifications
-     * 3. We cannot guarantee all modification paths go through our intercepted addProcess
-     * 
+     * Replaces ProcessHandler.onServerTick.
+     *
      * The fix works by:
-     * 1. Creating a snapshot copy of the processes list before iteration (synchronized)
-     * 2. Iterating over the snapshot to safely check and update each process
-     * 3. Removing dead processes from the original list after iteration (synchronized)
-     * 4. Adding queued processes from newProcesses after iteration completes (synchronized)
+     * 1. Moving queued processes, and any that were put into the processes list directly, into the run list
+     * 2. Updating processes round-robin from where the last tick stopped, until Config.processTickBudgetMs
+     * has passed; at least one process is updated per tick, and the rest go first on the next tick
+     * 3. Dropping dead processes from the run list in place
      */
     @Inject(method = "onServerTick", at = @At("HEAD"), cancellable = true, remap = false)
     private void onServerTickFix(TickEvent.ServerTickEvent event, CallbackInfo ci) {
         if (event.phase == TickEvent.Phase.START) {
-            // Create a snapshot copy to iterate over safely
-            // Synchronized to prevent concurrent modification during copy
-            List<IProcess> snapshot;
-            synchronized (processes) {
-                snapshot = new ArrayList<IProcess>(processes);
-            }
-
-            // Collect dead processes for efficient batch removal
-            List<IProcess> deadProcesses = new ArrayList<IProcess>();
-
-            // Iterate over the snapshot, not the original list
-            // This is safe even if processes list is modified during iteration
-            for (IProcess process : snapshot) {
-                if (process.isDead()) {
-                    // Collect dead processes for batch removal
-                    deadProcesses.add(process);
-                } else {
-                    // Update the process
-                    process.updateProcess();
+            // Processes added to the list by code paths that bypass addProcess
+            if (!processes.isEmpty()) {
+                synchronized (processes) {
+                    for (IProcess process : processes) {
+                        DEProcesses.RING.add(process);
+                    }
+                    processes.clear();
                 }
             }
+            IProcess added;
+            while ((added = DEProcesses.INCOMING.poll()) != null) {
+                DEProcesses.RING.add(added);
+            }
 
-            // Remove all dead processes and add new processes in one synchronized block
-            // This ensures atomic operations and prevents race conditions
-            synchronized (processes) {
-                // Remove all dead processes in one operation (O(n) instead of O(n²))
-                if (!deadProcesses.isEmpty()) {
-                    processes.removeAll(deadProcesses);
-                }
-
-                // Add any new processes that were queued during iteration
-                // Check and clear are atomic within this synchronized block
-                if (!newProcesses.isEmpty()) {
-                    processes.addAll(newProcesses);
-                    newProcesses.clear();
-                }
+            if (DEProcesses.RING.size() > 0) {
+                Object slice = FlightEvents.begin(FlightEvents.PROCESS_SLICE);
+                int processCount = DEProcesses.RING.size();
+                long started = System.nanoTime();
+                int updated = DEProcesses.RING.update(started + Config.processTickBudgetMs * 1000000L);
+                Metrics.PROCESS_TICK_NANOS.record(System.nanoTime() - started);
+                FlightEvents.commitSlice(slice, processCount, updated);
             }
 
             // Cancel the original method execution to prevent ConcurrentModificationException
@@ -102,18 +82,15 @@ public class ProcessHandlerMixin {
     /**
      * Intercept addProcess to queue new processes instead of adding them directly.
      * This prevents ConcurrentModificationException when processes are added during iteration.
-     * 
+     *
      * Note: All processes will be queued and added during the onServerTick START phase,
      * after the current iteration completes. This matches the behavior of GTNewHorizons/BrandonsCore fix.
-     * Synchronized with processes list to ensure thread-safety.
+     * The queue is lock-free, so adding never blocks the caller.
      */
     @Inject(method = "addProcess", at = @At("HEAD"), cancellable = true, remap = false)
     private static void addProcessFix(IProcess process, CallbackInfo ci) {
-        // Queue the process to be added after the current iteration completes
-        // Use synchronization to match the thread-safety guarantees in onServerTickFix
-        synchronized (processes) {
-            newProcesses.add(process);
-        }
+        // Queue the process to be added at the start of the next tick
+        DEProcesses.INCOMING.offer(process);
         ci.cancel();
     }
 }
@@ -0,0 +1,266 @@
+package com.czqwq.EZNuclear.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.explosion.CraterMask;
+
+import cpw.mods.fml.common.network.ByteBufUtils;
+import cpw.mods.fml.common.network.simpleimpl.IMessage;
+import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
+import cpw.mods.fml.common.network.simpleimpl.MessageContext;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Server to client description of an applied crater: centre, radius, power, a seed for client-side effects and the
+ * destroyed-block bitmap of every affected chunk section, deflated. Fully destroyed sections are sent as a flag
+ * instead of a bitmap. A large crater is split over several messages; {@link #getPart()} is 0 for the first one.
+ */
+public class CraterMessage implements IMessage {
+
+    // raw size stays below the 32k custom payload limit even if deflate gains nothing
+    public static final int MAX_SECTIONS_PER_MESSAGE = 48;
+
+    private static final int MAX_PAYLOAD = 1 << 16;
+    private static final byte SECTION_FULL = 0;
+    private static final byte SECTION_BITMAP = 1;
+
+    private int dimension;
+    private double x, y, z;
+    private float radius;
+    private float power;
+    private long seed;
+    private int part;
+    private long[] sectionKeys;
+    // null entries are fully destroyed sections
+    private long[][] sectionBits;
+
+    public CraterMessage() {}
+
+    private CraterMessage(int dimension, double x, double y, double z, float radius, float power, long seed, int part,
+        long[] sectionKeys, long[][] sectionBits) {
+        this.dimension = dimension;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.radius = radius;
+        this.power = power;
+        this.seed = seed;
+        this.part = part;
+        this.sectionKeys = sectionKeys;
+        this.sectionBits = sectionBits;
+    }
+
+    /**
+     * Split the sections {@code keys[from, to)} of a crater into messages of at most
+     * {@link #MAX_SECTIONS_PER_MESSAGE} sections, numbered from {@code firstPart}.
+     *
+     * @param keys the section keys of the mask, as returned by {@link CraterMask#sectionKeys()}
+     */
+    public static List<CraterMessage> of(int dimension, double x, double y, double z, float radius, float power,
+        long seed, CraterMask mask, long[] keys, int from, int to, int firstPart) {
+        List<CraterMessage> messages = new ArrayList<>();
+        for (int start = from; start < to; start += MAX_SECTIONS_PER_MESSAGE) {
+            int end = Math.min(to, start + MAX_SECTIONS_PER_MESSAGE);
+            long[] partKeys = new long[end - start];
+            long[][] partBits = new long[end - start][];
+            for (int i = start; i < end; i++) {
+                long[] bits = mask.getSection(keys[i]);
+                partKeys[i - start] = keys[i];
+                partBits[i - start] = CraterMask.isFull(bits) ? null : bits;
+            }
+            messages.add(
+                new CraterMessage(
+                    dimension,
+                    x,
+                    y,
+                    z,
+                    radius,
+                    power,
+                    seed,
+                    firstPart + messages.size(),
+                    partKeys,
+                    partBits));
+        }
+        return messages;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public float getPower() {
+        return power;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getPart() {
+        return part;
+    }
+
+    public int getSectionCount() {
+        return sectionKeys.length;
+    }
+
+    public long getSectionKey(int i) {
+        return sectionKeys[i];
+    }
+
+    /**
+     * @return the destroyed-block bitmap of a section, or null if the whole section is destroyed
+     */
+    public long[] getSectionBits(int i) {
+        return sectionBits[i];
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        buf.writeInt(dimension);
+        buf.writeFloat((float) x);
+        buf.writeFloat((float) y);
+        buf.writeFloat((float) z);
+        buf.writeFloat(radius);
+        buf.writeFloat(power);
+        buf.writeLong(seed);
+        ByteBufUtils.writeVarInt(buf, part, 5);
+        byte[] payload = deflate();
+        ByteBufUtils.writeVarInt(buf, payload.length, 5);
+        buf.writeBytes(payload);
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        dimension = buf.readInt();
+        x = buf.readFloat();
+        y = buf.readFloat();
+        z = buf.readFloat();
+        radius = buf.readFloat();
+        power = buf.readFloat();
+        seed = buf.readLong();
+        part = ByteBufUtils.readVarInt(buf, 5);
+        int length = ByteBufUtils.readVarInt(buf, 5);
+        if (length < 0 || length > buf.readableBytes()) throw new IllegalArgumentException("Bad crater payload length");
+        byte[] payload = new byte[length];
+        buf.readBytes(payload);
+        try {
+            inflate(payload);
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalArgumentException("Bad crater payload", e);
+        }
+    }
+
+    private byte[] deflate() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeShort(sectionKeys.length);
+            for (int i = 0; i < sectionKeys.length; i++) {
+                out.writeLong(sectionKeys[i]);
+                long[] bits = sectionBits[i];
+                if (bits == null) {
+                    out.writeByte(SECTION_FULL);
+                } else {
+                    out.writeByte(SECTION_BITMAP);
+                    for (long w : bits) {
+                        out.writeLong(w);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // in-memory streams do not fail
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private void inflate(byte[] payload) throws IOException, DataFormatException {
+        try (DataInputStream in = new DataInputStream(
+            new BoundedInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)), MAX_PAYLOAD))) {
+            int count = in.readUnsignedShort();
+            if (count > MAX_SECTIONS_PER_MESSAGE) throw new DataFormatException("Too many sections: " + count);
+            sectionKeys = new long[count];
+            sectionBits = new long[count][];
+            for (int i = 0; i < count; i++) {
+                sectionKeys[i] = in.readLong();
+                byte kind = in.readByte();
+                if (kind == SECTION_FULL) continue;
+                if (kind != SECTION_BITMAP) throw new DataFormatException("Unknown section kind: " + kind);
+                long[] bits = new long[CraterMask.SECTION_WORDS];
+                for (int w = 0; w < bits.length; w++) {
+                    bits[w] = in.readLong();
+                }
+                sectionBits[i] = bits;
+            }
+        }
+    }
+
+    // stops a malicious payload from inflating without bound
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long left;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.left = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (left <= 0) throw new IOException("Crater payload too large");
+            int b = super.read();
+            if (b >= 0) left--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (left <= 0) throw new IOException("Crater payload too large");
+            int n = super.read(b, off, (int) Math.min(len, left));
+            if (n > 0) left -= n;
+            return n;
+        }
+    }
+
+    public static class Handler implements IMessageHandler<CraterMessage, IMessage> {
+
+        @Override
+        public IMessage onMessage(CraterMessage message, MessageContext ctx) {
+            // runs on the network thread; the proxy hands it to the client thread
+            EZNuclear.proxy.handleCrater(message);
+            return null;
+        }
+    }
+}
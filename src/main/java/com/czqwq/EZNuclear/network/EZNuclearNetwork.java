@@ -0,0 +1,54 @@
+package com.czqwq.EZNuclear.network;
+
+import java.util.List;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+
+import com.czqwq.EZNuclear.EZNuclear;
+import com.czqwq.EZNuclear.explosion.CraterMask;
+
+import cpw.mods.fml.common.network.NetworkRegistry;
+import cpw.mods.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import cpw.mods.fml.relauncher.Side;
+
+/**
+ * EZNuclear's network channel.
+ */
+public class EZNuclearNetwork {
+
+    public static final SimpleNetworkWrapper CHANNEL = NetworkRegistry.INSTANCE.newSimpleChannel(EZNuclear.MODID);
+
+    private static final int CRATER_MESSAGE_ID = 0;
+
+    public static void init() {
+        CHANNEL.registerMessage(CraterMessage.Handler.class, CraterMessage.class, CRATER_MESSAGE_ID, Side.CLIENT);
+    }
+
+    /**
+     * Send the applied sections {@code keys[from, to)} of a crater to every player close enough to have any of its
+     * chunks loaded.
+     *
+     * @return the number of messages sent, so the next batch can continue the part numbering
+     */
+    public static int sendCrater(World world, double x, double y, double z, float radius, float power, long seed,
+        CraterMask mask, long[] keys, int from, int to, int firstPart) {
+        if (from >= to) return 0;
+        int dimension = world.provider.dimensionId;
+        double range = radius;
+        MinecraftServer server = MinecraftServer.getServer();
+        if (server != null) {
+            range += server.getConfigurationManager()
+                .getViewDistance() * 16;
+        }
+        NetworkRegistry.TargetPoint target = new NetworkRegistry.TargetPoint(dimension, x, y, z, range);
+        List<CraterMessage> messages = CraterMessage
+            .of(dimension, x, y, z, radius, power, seed, mask, keys, from, to, firstPart);
+        for (CraterMessage message : messages) {
+            CHANNEL.sendToAllAround(message, target);
+        }
+        EZNuclear.LOG.debug(
+            "[EZNuclear] Sent " + (to - from) + " crater sections in " + messages.size() + " messages");
+        return messages.size();
+    }
+}
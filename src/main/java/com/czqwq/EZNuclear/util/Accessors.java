@@ -0,0 +1,337 @@
+package com.czqwq.EZNuclear.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minecraft.world.World;
+
+import com.czqwq.EZNuclear.EZNuclear;
+
+/**
+ * Central cache for every reflective call EZNuclear makes.
+ * <p>
+ * Each target is resolved once (once per class for per-instance lookups) into a {@link MethodHandle}. Failed lookups
+ * are remembered as well, so a missing mod or field costs one map read instead of a fresh reflective search every
+ * time the scan or a scheduled task runs.
+ */
+public class Accessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // Candidate names for the reactor temperature field, in lookup order
+    private static final String[] TEMPERATURE_FIELDS = new String[] { "reactionTemperature", "temperature", "temp",
+        "coreTemp", "reactorTemperature", "heat", "coreTemperature" };
+    // DE's containment field charge; it is down to 0 when a reactor fails
+    private static final String[] FIELD_CHARGE_FIELDS = new String[] { "fieldCharge" };
+    // DE's flag for a complete reactor structure
+    private static final String[] STRUCTURE_VALID_FIELDS = new String[] { "isStructureValid" };
+
+    @FunctionalInterface
+    private interface Resolver {
+
+        MethodHandle resolve() throws ReflectiveOperationException;
+    }
+
+    /**
+     * A handle that is resolved on first use. A failed resolution is cached as a null handle.
+     */
+    private static final class LazyHandle {
+
+        private final String name;
+        private final Resolver resolver;
+        private volatile boolean resolved;
+        private MethodHandle handle;
+
+        LazyHandle(String name, Resolver resolver) {
+            this.name = name;
+            this.resolver = resolver;
+        }
+
+        MethodHandle get() {
+            if (!resolved) {
+                synchronized (this) {
+                    if (!resolved) {
+                        try {
+                            handle = resolver.resolve();
+                        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                            EZNuclear.LOG.debug("[EZNuclear] " + name + " is not available: " + e);
+                            handle = null;
+                        }
+                        resolved = true;
+                    }
+                }
+            }
+            return handle;
+        }
+    }
+
+    // DE process handling ------------------------------------------------------------------------------------------
+
+    // (World, int, int, int, float) -> Object
+    private static final LazyHandle REACTOR_EXPLOSION_CTOR = new LazyHandle("ReactorExplosion constructor", () -> {
+        Class<?> reClass = Class.forName(Constants.REACTOR_EXPLOSION_CLASS);
+        return LOOKUP
+            .findConstructor(
+                reClass,
+                MethodType.methodType(void.class, World.class, int.class, int.class, int.class, float.class))
+            .asType(MethodType.methodType(Object.class, World.class, int.class, int.class, int.class, float.class));
+    });
+
+    // (Object) -> void
+    private static final LazyHandle ADD_PROCESS = new LazyHandle("ProcessHandler.addProcess", () -> {
+        Class<?> processHandlerClass = Class.forName(Constants.PROCESS_HANDLER_CLASS);
+        Class<?> iProcessClass = Class.forName(Constants.IPROCESS_CLASS);
+        return LOOKUP.findStatic(processHandlerClass, "addProcess", MethodType.methodType(void.class, iProcessClass))
+            .asType(MethodType.methodType(void.class, Object.class));
+    });
+
+    /**
+     * Create a DE ReactorExplosion process.
+     *
+     * @throws ClassNotFoundException if Draconic Evolution's ReactorExplosion is not available
+     */
+    public static Object newReactorExplosion(World world, int x, int y, int z, float power) throws Exception {
+        MethodHandle ctor = REACTOR_EXPLOSION_CTOR.get();
+        if (ctor == null) throw new ClassNotFoundException(Constants.REACTOR_EXPLOSION_CLASS);
+        try {
+            return (Object) ctor.invokeExact(world, x, y, z, power);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Hand a process to DE's ProcessHandler.
+     *
+     * @throws ClassNotFoundException if the ProcessHandler is not available
+     */
+    public static void addProcess(Object process) throws Exception {
+        MethodHandle add = ADD_PROCESS.get();
+        if (add == null) throw new ClassNotFoundException(Constants.PROCESS_HANDLER_CLASS);
+        try {
+            add.invokeExact(process);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    // Reactor tile entities ----------------------------------------------------------------------------------------
+
+    // (Object) -> double
+    private static final ClassValue<Optional<MethodHandle>> TEMPERATURE = numberField(
+        "temperature",
+        TEMPERATURE_FIELDS);
+    // (Object) -> double
+    private static final ClassValue<Optional<MethodHandle>> FIELD_CHARGE = numberField(
+        "field charge",
+        FIELD_CHARGE_FIELDS);
+    // (Object) -> double, 1 or 0
+    private static final ClassValue<Optional<MethodHandle>> STRUCTURE_VALID = numberField(
+        "structure",
+        STRUCTURE_VALID_FIELDS);
+
+    // Getters for the first of the named fields a class or its superclasses declare, read as a double
+    private static ClassValue<Optional<MethodHandle>> numberField(String what, String[] names) {
+        return new ClassValue<Optional<MethodHandle>>() {
+
+            @Override
+            protected Optional<MethodHandle> computeValue(Class<?> cls) {
+                for (String fn : names) {
+                    for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+                        Field f;
+                        try {
+                            f = c.getDeclaredField(fn);
+                        } catch (NoSuchFieldException e) {
+                            continue;
+                        }
+                        MethodHandle h = numberGetter(f);
+                        if (h != null) return Optional.of(h);
+                    }
+                }
+                EZNuclear.LOG.warn("[EZNuclear] No " + what + " field found on reactor class " + cls.getName());
+                return Optional.empty();
+            }
+        };
+    }
+
+    private static MethodHandle numberGetter(Field f) {
+        Class<?> type = f.getType();
+        try {
+            f.setAccessible(true);
+            MethodHandle getter = LOOKUP.unreflectGetter(f);
+            if (type == boolean.class) {
+                MethodHandle toDouble = LOOKUP
+                    .findStatic(Accessors.class, "booleanToDouble", MethodType.methodType(double.class, boolean.class));
+                return MethodHandles
+                    .filterReturnValue(getter.asType(MethodType.methodType(boolean.class, Object.class)), toDouble);
+            }
+            if (type.isPrimitive() && type != char.class) {
+                return getter.asType(MethodType.methodType(double.class, Object.class));
+            }
+            if (Number.class.isAssignableFrom(type)) {
+                MethodHandle doubleValue = LOOKUP
+                    .findVirtual(Number.class, "doubleValue", MethodType.methodType(double.class));
+                return MethodHandles.filterReturnValue(
+                    getter.asType(MethodType.methodType(Number.class, Object.class)),
+                    doubleValue);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            EZNuclear.LOG.debug("[EZNuclear] Cannot access field " + f + ": " + e);
+        }
+        return null;
+    }
+
+    private static double booleanToDouble(boolean value) {
+        return value ? 1.0 : 0.0;
+    }
+
+    // (Object) -> void
+    private static final ClassValue<Optional<MethodHandle>> GO_BOOM = new ClassValue<Optional<MethodHandle>>() {
+
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> cls) {
+            try {
+                Method m = cls.getMethod("goBoom");
+                m.setAccessible(true);
+                return Optional.of(
+                    LOOKUP.unreflect(m)
+                        .asType(MethodType.methodType(void.class, Object.class)));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    /**
+     * Read a reactor's temperature.
+     *
+     * @return the temperature, or NaN if the class has no known temperature field
+     */
+    public static double readTemperature(Object te) {
+        return readNumber(TEMPERATURE, te);
+    }
+
+    /**
+     * Read a reactor's containment field charge.
+     *
+     * @return the charge, or NaN if the class has no known field charge field
+     */
+    public static double readFieldCharge(Object te) {
+        return readNumber(FIELD_CHARGE, te);
+    }
+
+    /**
+     * @return true if the reactor reports its structure as broken; false if it is complete or cannot be told
+     */
+    public static boolean isStructureBroken(Object te) {
+        return readNumber(STRUCTURE_VALID, te) == 0.0;
+    }
+
+    private static double readNumber(ClassValue<Optional<MethodHandle>> field, Object te) {
+        Optional<MethodHandle> h = field.get(te.getClass());
+        if (!h.isPresent()) return Double.NaN;
+        try {
+            return (double) h.get()
+                .invokeExact(te);
+        } catch (Throwable t) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Call goBoom() on a tile entity.
+     *
+     * @return false if the class has no public goBoom method
+     */
+    public static boolean invokeGoBoom(Object tile) throws Throwable {
+        Optional<MethodHandle> h = GO_BOOM.get(tile.getClass());
+        if (!h.isPresent()) return false;
+        h.get()
+            .invokeExact(tile);
+        return true;
+    }
+
+    // Class presence -----------------------------------------------------------------------------------------------
+
+    private static final Map<String, Boolean> CLASS_PRESENT = new ConcurrentHashMap<>();
+
+    public static boolean isClassPresent(String className) {
+        return CLASS_PRESENT.computeIfAbsent(className, n -> {
+            try {
+                Class.forName(n, false, Accessors.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        });
+    }
+
+    // Client side --------------------------------------------------------------------------------------------------
+
+    // () -> Object
+    private static final LazyHandle GET_MINECRAFT = new LazyHandle("Minecraft.getMinecraft", () -> {
+        Class<?> mcClass = Class.forName(Constants.MINECRAFT_CLASS);
+        return LOOKUP.findStatic(mcClass, Constants.GET_MINECRAFT_METHOD, MethodType.methodType(mcClass))
+            .asType(MethodType.methodType(Object.class));
+    });
+
+    // (Object) -> Object
+    private static final LazyHandle THE_PLAYER = new LazyHandle("Minecraft.thePlayer", () -> {
+        Class<?> mcClass = Class.forName(Constants.MINECRAFT_CLASS);
+        return LOOKUP.unreflectGetter(mcClass.getField(Constants.THE_PLAYER_FIELD))
+            .asType(MethodType.methodType(Object.class, Object.class));
+    });
+
+    // (String, Object[]) -> Object
+    private static final LazyHandle CHAT_COMPONENT_CTOR = new LazyHandle("ChatComponentTranslation constructor", () -> {
+        Class<?> chatClass = Class.forName(Constants.CHAT_COMPONENT_CLASS);
+        return LOOKUP.findConstructor(chatClass, MethodType.methodType(void.class, String.class, Object[].class))
+            .asType(MethodType.methodType(Object.class, String.class, Object[].class));
+    });
+
+    // (Object, Object) -> void
+    private static final LazyHandle ADD_CHAT_MESSAGE = new LazyHandle("EntityClientPlayerMP.addChatMessage", () -> {
+        Class<?> mcClass = Class.forName(Constants.MINECRAFT_CLASS);
+        Class<?> playerClass = mcClass.getField(Constants.THE_PLAYER_FIELD)
+            .getType();
+        Class<?> iChatClass = Class.forName(Constants.ICHAT_COMPONENT_CLASS);
+        return LOOKUP.unreflect(playerClass.getMethod(Constants.ADD_CHAT_MESSAGE_METHOD, iChatClass))
+            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+    });
+
+    /**
+     * @return the client player, or null if there is none or this is not a client
+     */
+    public static Object getClientPlayer() throws Throwable {
+        MethodHandle getMinecraft = GET_MINECRAFT.get();
+        MethodHandle thePlayer = THE_PLAYER.get();
+        if (getMinecraft == null || thePlayer == null) return null;
+        Object mc = (Object) getMinecraft.invokeExact();
+        if (mc == null) return null;
+        return (Object) thePlayer.invokeExact(mc);
+    }
+
+    /**
+     * Send a translated chat message to the client player returned by {@link #getClientPlayer()}.
+     *
+     * @return false if the client chat classes are not available
+     */
+    public static boolean addClientChatMessage(Object player, String messageKey, Object[] params) throws Throwable {
+        MethodHandle ctor = CHAT_COMPONENT_CTOR.get();
+        MethodHandle add = ADD_CHAT_MESSAGE.get();
+        if (ctor == null || add == null) return false;
+        Object chat = (Object) ctor.invokeExact(messageKey, params);
+        add.invokeExact(player, chat);
+        return true;
+    }
+}
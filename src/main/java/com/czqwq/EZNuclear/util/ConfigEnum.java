@@ -0,0 +1,41 @@
+package com.czqwq.EZNuclear.util;
+
+import java.util.Locale;
+
+/**
+ * An enum set by name in the config file. Config options of such a type are parsed once when the config is read, see
+ * {@code Config.synchronizeConfiguration}, and used as constants after that.
+ */
+public interface ConfigEnum {
+
+    /**
+     * @return the lower case name of this constant in the config file
+     */
+    String getConfigName();
+
+    /**
+     * @return the config names of every constant of the enum, in declaration order
+     */
+    static String[] names(Class<? extends ConfigEnum> type) {
+        ConfigEnum[] values = type.getEnumConstants();
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].getConfigName();
+        }
+        return names;
+    }
+
+    /**
+     * @return the constant with the given config name, ignoring case and surrounding spaces, or null if there is none
+     */
+    static <E extends ConfigEnum> E find(Class<E> type, String name) {
+        if (name == null) return null;
+        String n = name.trim()
+            .toLowerCase(Locale.ROOT);
+        for (E value : type.getEnumConstants()) {
+            if (value.getConfigName()
+                .equals(n)) return value;
+        }
+        return null;
+    }
+}
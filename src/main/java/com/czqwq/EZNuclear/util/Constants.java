@@ -6,6 +6,10 @@ public class Constants {
     public static final String MINECRAFT_CLASS = "net.minecraft.client.Minecraft";
     public static final String CHAT_COMPONENT_CLASS = "net.minecraft.util.ChatComponentTranslation";
     public static final String ICHAT_COMPONENT_CLASS = "net.minecraft.util.IChatComponent";
+    public static final String PROCESS_HANDLER_CLASS = "com.brandon3055.draconicevolution.common.utils.handlers.ProcessHandler";
+    public static final String IPROCESS_CLASS = "com.brandon3055.draconicevolution.common.utils.handlers.IProcess";
+    public static final String REACTOR_EXPLOSION_CLASS = "com.brandon3055.draconicevolution.common.tileentities.multiblocktiles.reactor.ReactorExplosion";
+    public static final String GT_UTILITY_CLASS = "gregtech.api.util.GTUtility";
 
     // 字段名常量
     public static final String THE_PLAYER_FIELD = "thePlayer";
@@ -1,57 +1,90 @@
 package com.czqwq.EZNuclear.util;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.play.server.S02PacketChat;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.util.StatCollector;
+import net.minecraft.server.management.ServerConfigurationManager;
+import net.minecraft.util.ChatComponentTranslation;
 
+import com.czqwq.EZNuclear.Config;
 import com.czqwq.EZNuclear.EZNuclear;
-
-import gregtech.api.util.GTUtility;
+import com.czqwq.EZNuclear.data.MeltdownTable;
 
 public class MessageUtils {
 
+    // One chat packet per message key, built once and sent to every recipient. The component is translated by each
+    // client in its own language
+    private static final Map<String, S02PacketChat> PACKETS = new HashMap<>();
+    // When each (message, dimension, position) warning was last sent, for dropping repeats within the window. Kept in
+    // send order, so expired warnings are always at the head
+    private static final Map<String, Long> LAST_SENT = new LinkedHashMap<>();
+
+    private static synchronized S02PacketChat packet(String messageKey) {
+        return PACKETS.computeIfAbsent(messageKey, k -> new S02PacketChat(new ChatComponentTranslation(k)));
+    }
+
+    // true if the same warning went out for the position within the coalescing window
+    private static synchronized boolean isRepeat(String messageKey, int dimension, int x, int y, int z) {
+        long now = System.currentTimeMillis();
+        long window = Config.notificationCoalesceSeconds * 1000L;
+        if (window <= 0) return false;
+        // only the expired head is looked at, however many warnings are live
+        for (Iterator<Long> it = LAST_SENT.values()
+            .iterator(); it.hasNext();) {
+            if (now - it.next() < window) break;
+            it.remove();
+        }
+        String key = messageKey + '@' + dimension + ':' + MeltdownTable.pack(x, y, z);
+        Long last = LAST_SENT.get(key);
+        if (last != null && now - last < window) return true;
+        // re-inserted so it moves to the tail
+        LAST_SENT.remove(key);
+        LAST_SENT.put(key, now);
+        return false;
+    }
+
+    /**
+     * Warn the players concerned by a meltdown at x/y/z, as set by {@link Config#notificationScope}. The same warning
+     * for the same position is sent once per {@link Config#notificationCoalesceSeconds}.
+     */
+    public static void notify(String messageKey, int dimension, int x, int y, int z) {
+        if (isRepeat(messageKey, dimension, x, y, z)) return;
+        MinecraftServer server = MinecraftServer.getServer();
+        ServerConfigurationManager players = server != null ? server.getConfigurationManager() : null;
+        if (players == null) return;
+        S02PacketChat packet = packet(messageKey);
+        switch (Config.notificationScope) {
+            case DIMENSION:
+                players.sendPacketToAllPlayersInDimension(packet, dimension);
+                break;
+            case RADIUS:
+                players.sendToAllNear(x + 0.5D, y + 0.5D, z + 0.5D, Config.notificationRadius, dimension, packet);
+                break;
+            default:
+                players.sendPacketToAllPlayers(packet);
+                break;
+        }
+    }
+
     public static void sendToAllPlayers(String messageKey) {
         MinecraftServer server = MinecraftServer.getServer();
-        if (server != null) {
-            if (!server.isSinglePlayer()) {
-                if (server.getConfigurationManager() != null
-                    && server.getConfigurationManager().playerEntityList != null) {
-                    List<EntityPlayerMP> players = server.getConfigurationManager().playerEntityList;
-                    for (EntityPlayerMP p : players) {
-                        if (p != null) {
-                            GTUtility.sendChatToPlayer(p, StatCollector.translateToLocal(messageKey));
-                        }
-                    }
-                }
-            } else {
-                sendToSinglePlayer(messageKey);
-            }
+        if (server != null && server.getConfigurationManager() != null) {
+            server.getConfigurationManager()
+                .sendPacketToAllPlayers(packet(messageKey));
         }
     }
 
     public static void sendToSinglePlayer(String messageKey) {
         try {
-            Class<?> mcClass = Class.forName("net.minecraft.client.Minecraft");
-            Object mc = mcClass.getMethod("getMinecraft")
-                .invoke(null);
-            if (mc != null) {
-                Object thePlayer = mcClass.getField("thePlayer")
-                    .get(mc);
-                if (thePlayer != null) {
-                    Class<?> chatClass = Class.forName("net.minecraft.util.ChatComponentTranslation");
-                    Object chat = chatClass.getConstructor(String.class, Object[].class)
-                        .newInstance(messageKey, new Object[0]);
-                    Class<?> iChatClass = Class.forName("net.minecraft.util.IChatComponent");
-                    thePlayer.getClass()
-                        .getMethod("addChatMessage", iChatClass)
-                        .invoke(thePlayer, chat);
-                }
+            // Client classes are resolved once; on a dedicated server this is a cached no-op
+            Object thePlayer = Accessors.getClientPlayer();
+            if (thePlayer != null) {
+                Accessors.addClientChatMessage(thePlayer, messageKey, new Object[0]);
             }
-        } catch (ClassNotFoundException e) {
-            EZNuclear.LOG.debug(
-                "Client-side Minecraft classes not available, skipping single player message: " + e.getMessage());
         } catch (Throwable t) {
             EZNuclear.LOG.warn("Failed to send message to single player: " + t.getMessage());
         }
@@ -60,44 +93,20 @@ public class MessageUtils {
     // 重载方法，支持带参数的消息
     public static void sendToAllPlayers(String messageKey, Object... params) {
         MinecraftServer server = MinecraftServer.getServer();
-        if (server != null) {
-            if (!server.isSinglePlayer()) {
-                if (server.getConfigurationManager() != null
-                    && server.getConfigurationManager().playerEntityList != null) {
-                    List<EntityPlayerMP> players = server.getConfigurationManager().playerEntityList;
-                    for (EntityPlayerMP p : players) {
-                        if (p != null) {
-                            GTUtility.sendChatToPlayer(p, StatCollector.translateToLocalFormatted(messageKey, params));
-                        }
-                    }
-                }
-            } else {
-                sendToSinglePlayer(messageKey, params);
-            }
+        if (server != null && server.getConfigurationManager() != null) {
+            // one component for everyone, translated by each client
+            server.getConfigurationManager()
+                .sendChatMsg(new ChatComponentTranslation(messageKey, params));
         }
     }
 
     public static void sendToSinglePlayer(String messageKey, Object... params) {
         try {
-            Class<?> mcClass = Class.forName("net.minecraft.client.Minecraft");
-            Object mc = mcClass.getMethod("getMinecraft")
-                .invoke(null);
-            if (mc != null) {
-                Object thePlayer = mcClass.getField("thePlayer")
-                    .get(mc);
-                if (thePlayer != null) {
-                    Class<?> chatClass = Class.forName("net.minecraft.util.ChatComponentTranslation");
-                    Object chat = chatClass.getConstructor(String.class, Object[].class)
-                        .newInstance(messageKey, params);
-                    Class<?> iChatClass = Class.forName("net.minecraft.util.IChatComponent");
-                    thePlayer.getClass()
-                        .getMethod("addChatMessage", iChatClass)
-                        .invoke(thePlayer, chat);
-                }
+            // Client classes are resolved once; on a dedicated server this is a cached no-op
+            Object thePlayer = Accessors.getClientPlayer();
+            if (thePlayer != null) {
+                Accessors.addClientChatMessage(thePlayer, messageKey, params);
             }
-        } catch (ClassNotFoundException e) {
-            EZNuclear.LOG.debug(
-                "Client-side Minecraft classes not available, skipping single player message: " + e.getMessage());
         } catch (Throwable t) {
             EZNuclear.LOG.warn("Failed to send message to single player: " + t.getMessage());
         }
@@ -0,0 +1,27 @@
+package com.czqwq.EZNuclear.util;
+
+import com.czqwq.EZNuclear.Config;
+
+/**
+ * Which players receive a meltdown warning, see {@link Config#notificationScope}.
+ */
+public enum NotificationScope implements ConfigEnum {
+
+    // Every player on the server
+    ALL("all"),
+    // Players in the dimension of the reactor
+    DIMENSION("dimension"),
+    // Players within Config.notificationRadius blocks of the reactor, in its dimension
+    RADIUS("radius");
+
+    private final String configName;
+
+    NotificationScope(String configName) {
+        this.configName = configName;
+    }
+
+    @Override
+    public String getConfigName() {
+        return configName;
+    }
+}
@@ -0,0 +1,261 @@
+package com.czqwq.EZNuclear.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import net.minecraft.world.WorldServer;
+
+import com.brandon3055.draconicevolution.common.tileentities.multiblocktiles.reactor.TileReactorCore;
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.data.MeltdownInterceptor;
+import com.czqwq.EZNuclear.data.PendingMeltdown;
+import com.czqwq.EZNuclear.data.ReactorRegistry;
+import com.czqwq.EZNuclear.data.TriggerRequest;
+import com.czqwq.EZNuclear.explosion.ExplosionEngine;
+import com.czqwq.EZNuclear.metrics.LatencyHistogram;
+import com.czqwq.EZNuclear.metrics.Metrics;
+
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * Runs a meltdown storm through the mod without a game: reactors in stand-in worlds go critical as a
+ * {@link Scenario} says, and every tick drives the same entry points the mixins and the tick handler use in a real
+ * server. Prints tick time percentiles, allocations and the final state of the pipeline.
+ * <p>
+ * There is no terrain, so explosions are carried as far as the explosion factories queueing their crater jobs; the
+ * cost of digging the craters is not part of the tick times. Run it with {@code ./gradlew runMeltdownSimulation}.
+ */
+public final class MeltdownSimulation {
+
+    // running reactors are well above the overheat threshold; they fail when their containment field is gone
+    private static final double RUNNING_TEMPERATURE = 7000.0;
+    private static final double RUNNING_FIELD_CHARGE = 5000.0;
+
+    private final Scenario scenario;
+    private final PendingMeltdown handler = new PendingMeltdown();
+    private final TickEvent.ServerTickEvent start = new TickEvent.ServerTickEvent(TickEvent.Phase.START);
+    private final TickEvent.ServerTickEvent end = new TickEvent.ServerTickEvent(TickEvent.Phase.END);
+    private final List<Reactor> reactors = new ArrayList<>();
+    private StandInWorld[] worlds;
+
+    private final LatencyHistogram tickNanos = new LatencyHistogram();
+    private final LatencyHistogram tickBytes = new LatencyHistogram();
+    private long totalBytes;
+    // explosions the mod let through to IC2 or DE
+    private int letThrough;
+
+    private MeltdownSimulation(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    private static final class Reactor {
+
+        final StandInWorld world;
+        final int x, y, z;
+        final int criticalTick;
+        // DE reactor core, or null for an IC2 reactor
+        final TileReactorCore core;
+        boolean gone;
+
+        Reactor(StandInWorld world, int x, int y, int z, int criticalTick, boolean de) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.criticalTick = criticalTick;
+            if (de) {
+                core = new TileReactorCore();
+                core.xCoord = x;
+                core.yCoord = y;
+                core.zCoord = z;
+                core.reactionTemperature = RUNNING_TEMPERATURE;
+                core.fieldCharge = RUNNING_FIELD_CHARGE;
+                core.isStructureValid = true;
+                world.place(core);
+            } else {
+                core = null;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario;
+        try {
+            scenario = Scenario.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Scenario.USAGE);
+            System.exit(2);
+            return;
+        }
+        new MeltdownSimulation(scenario).run();
+    }
+
+    private void run() throws Exception {
+        // explosions must end in crater jobs and chunks cannot be preloaded without terrain
+        Config.incrementalExplosions = true;
+        Config.preloadBlastChunks = false;
+        scenario.applyConfig();
+
+        setUp();
+        System.out.println("Scenario: " + scenario.describe());
+
+        int windowTicks = (int) Math.round(scenario.windowSeconds * 20.0);
+        int maxTicks = (int) Math.round(scenario.seconds * 20.0);
+        int triggerTick = scenario.triggerAtSeconds < 0 ? -1 : (int) Math.round(scenario.triggerAtSeconds * 20.0);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread()
+            .getId();
+        long wallStart = System.nanoTime();
+        int tick = 0;
+        while (tick < maxTicks) {
+            long bytesBefore = allocatedBytes(threads, thread);
+            long tickStart = System.nanoTime();
+            if (tick == triggerTick) {
+                PendingMeltdown.requestTrigger(
+                    new TriggerRequest(TriggerRequest.Type.MANUAL_TRIGGER, "simulation", 0, 0, 64, 0));
+            }
+            handler.onServerTick(start);
+            for (Reactor r : reactors) {
+                update(r, tick);
+            }
+            handler.onServerTick(end);
+            tickNanos.record(System.nanoTime() - tickStart);
+            long bytes = allocatedBytes(threads, thread) - bytesBefore;
+            if (bytes >= 0) {
+                tickBytes.record(bytes);
+                totalBytes += bytes;
+            }
+            tick++;
+            if (tick > windowTicks && tick > triggerTick && isDrained()) break;
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+
+        report(tick, wallNanos, bytesSupported(threads));
+    }
+
+    private void setUp() throws ReflectiveOperationException {
+        Random random = new Random(scenario.seed);
+        worlds = new StandInWorld[scenario.dimensions];
+        for (int i = 0; i < worlds.length; i++) {
+            worlds[i] = StandInWorld.create(scenario.dimension(i), scenario.seed + i);
+        }
+        StandIns.installServer(Arrays.copyOf(worlds, worlds.length, WorldServer[].class));
+
+        int windowTicks = Math.max(1, (int) Math.round(scenario.windowSeconds * 20.0));
+        for (int i = 0; i < scenario.reactors; i++) {
+            StandInWorld world = worlds[random.nextInt(worlds.length)];
+            int x = scenario.spread == 0 ? 0 : random.nextInt(2 * scenario.spread + 1) - scenario.spread;
+            int z = scenario.spread == 0 ? 0 : random.nextInt(2 * scenario.spread + 1) - scenario.spread;
+            int y = 8 + random.nextInt(240);
+            boolean de = random.nextDouble() < scenario.deShare;
+            reactors.add(new Reactor(world, x, y, z, random.nextInt(windowTicks), de));
+        }
+    }
+
+    // One tick of a reactor, as its own update and IC2 or DE would drive it
+    private void update(Reactor r, int tick) {
+        if (r.gone) return;
+        if (r.core == null) {
+            // an IC2 reactor explodes once, and is gone with it
+            if (tick < r.criticalTick) return;
+            r.gone = true;
+            if (!MeltdownInterceptor.onNuclearExplosion(new Object(), r.world, r.x, r.y, r.z, scenario.ic2Power)) {
+                letThrough++;
+            }
+            return;
+        }
+        if (r.core.isInvalid()) {
+            // removed by its explosion
+            r.gone = true;
+            return;
+        }
+        if (tick >= r.criticalTick) r.core.fieldCharge = 0.0;
+        ReactorRegistry.onReactorUpdate(r.core);
+        // a failing DE reactor calls goBoom every tick until it is gone
+        if (tick >= r.criticalTick && !MeltdownInterceptor.onReactorGoBoom(r.core)) {
+            // DE blows the reactor up itself
+            letThrough++;
+            r.world.setBlockToAir(r.x, r.y, r.z);
+            r.gone = true;
+        }
+    }
+
+    private boolean isDrained() {
+        return PendingMeltdown.pendingTaskCount() == 0 && PendingMeltdown.queuedExplosionCount() == 0;
+    }
+
+    // bytes allocated by the thread so far, or -1 if the JVM does not count them
+    private static long allocatedBytes(ThreadMXBean threads, long thread) {
+        if (!bytesSupported(threads)) return -1L;
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread);
+    }
+
+    private static boolean bytesSupported(ThreadMXBean threads) {
+        return threads instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled();
+    }
+
+    private void report(int ticks, long wallNanos, boolean bytesCounted) {
+        System.out.println(
+            String.format(
+                Locale.ROOT,
+                "Simulated %d ticks (%.1f s of game time) in %.2f s",
+                ticks,
+                ticks / 20.0,
+                wallNanos / 1e9));
+        System.out.println(
+            String.format(
+                Locale.ROOT,
+                "Tick time (ms): mean %.3f, p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f",
+                tickNanos.count() == 0 ? 0.0 : tickNanos.sum() / 1e6 / tickNanos.count(),
+                tickNanos.quantile(0.5) / 1e6,
+                tickNanos.quantile(0.9) / 1e6,
+                tickNanos.quantile(0.99) / 1e6,
+                tickNanos.quantile(0.999) / 1e6,
+                tickNanos.max() / 1e6));
+        if (bytesCounted) {
+            System.out.println(
+                String.format(
+                    Locale.ROOT,
+                    "Allocated (KiB): %.1f in total, per tick p50 %.1f, p99 %.1f, max %.1f",
+                    totalBytes / 1024.0,
+                    tickBytes.quantile(0.5) / 1024.0,
+                    tickBytes.quantile(0.99) / 1024.0,
+                    tickBytes.max() / 1024.0));
+        } else {
+            System.out.println("Allocated: not counted by this JVM");
+        }
+
+        int standing = 0;
+        for (Reactor r : reactors) {
+            if (!r.gone && (r.core == null || !r.core.isInvalid())) standing++;
+        }
+        System.out.println(
+            String.format(
+                Locale.ROOT,
+                "Final state: %d of %d reactors standing, %d explosions let through to IC2/DE,"
+                    + " %d crater jobs queued, %d reactors registered",
+                standing,
+                reactors.size(),
+                letThrough,
+                ExplosionEngine.activeJobs(),
+                ReactorRegistry.size()));
+        for (StandInWorld world : worlds) {
+            System.out.println(
+                String.format(
+                    Locale.ROOT,
+                    "  dimension %d: %d DE reactor cores left",
+                    world.provider.dimensionId,
+                    world.tileCount()));
+        }
+        for (String line : Metrics.summary()) {
+            System.out.println(line);
+        }
+    }
+}
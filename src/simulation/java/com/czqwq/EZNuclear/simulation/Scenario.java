@@ -0,0 +1,153 @@
+package com.czqwq.EZNuclear.simulation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.czqwq.EZNuclear.Config;
+import com.czqwq.EZNuclear.util.ConfigEnum;
+
+/**
+ * What a simulation run sets up, read from {@code --name=value} arguments. {@code --config.<field>=value} overrides a
+ * field of {@link Config} for the run.
+ */
+final class Scenario {
+
+    static final String USAGE = String.join(
+        "\n",
+        "Options:",
+        "  --reactors=N       reactors that go critical (500)",
+        "  --dimensions=N     dimensions they are spread over: 0, -1, 1, 2, ... (3)",
+        "  --window=S         seconds over which they go critical (2)",
+        "  --de-share=F       share of Draconic Evolution reactors, the rest are IC2 (0.5)",
+        "  --spread=N         blocks from the origin reactors are placed within (2048)",
+        "  --ic2-power=F      power of the IC2 nuclear explosions (20)",
+        "  --trigger-at=S     send a manual trigger at this second, for requireCommandToExplode (off)",
+        "  --seconds=S        longest simulated time; the run stops earlier once the pipeline is empty (120)",
+        "  --seed=N           random seed (1)",
+        "  --config.<field>=V set a Config field, e.g. --config.maxExplosionsPerTick=4");
+
+    int reactors = 500;
+    int dimensions = 3;
+    double windowSeconds = 2.0;
+    double deShare = 0.5;
+    int spread = 2048;
+    float ic2Power = 20.0F;
+    double triggerAtSeconds = -1.0;
+    double seconds = 120.0;
+    long seed = 1L;
+    // Config fields set for the run, as given
+    final Map<String, String> config = new LinkedHashMap<>();
+
+    static Scenario parse(String[] args) {
+        Scenario s = new Scenario();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("Not --name=value: " + arg);
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            try {
+                switch (name) {
+                    case "reactors":
+                        s.reactors = Integer.parseInt(value);
+                        break;
+                    case "dimensions":
+                        s.dimensions = Integer.parseInt(value);
+                        break;
+                    case "window":
+                        s.windowSeconds = Double.parseDouble(value);
+                        break;
+                    case "de-share":
+                        s.deShare = Double.parseDouble(value);
+                        break;
+                    case "spread":
+                        s.spread = Integer.parseInt(value);
+                        break;
+                    case "ic2-power":
+                        s.ic2Power = Float.parseFloat(value);
+                        break;
+                    case "trigger-at":
+                        s.triggerAtSeconds = Double.parseDouble(value);
+                        break;
+                    case "seconds":
+                        s.seconds = Double.parseDouble(value);
+                        break;
+                    case "seed":
+                        s.seed = Long.parseLong(value);
+                        break;
+                    default:
+                        if (!name.startsWith("config.")) throw new IllegalArgumentException("Unknown option: " + arg);
+                        s.config.put(name.substring("config.".length()), value);
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number: " + arg);
+            }
+        }
+        if (s.reactors < 0 || s.dimensions < 1 || s.spread < 0 || s.deShare < 0.0 || s.deShare > 1.0) {
+            throw new IllegalArgumentException(
+                "Out of range: reactors >= 0, dimensions >= 1, spread >= 0, de-share 0..1");
+        }
+        return s;
+    }
+
+    // id of the index-th dimension: the overworld, the Nether, the End, then 2, 3, ...
+    int dimension(int index) {
+        switch (index) {
+            case 0:
+                return 0;
+            case 1:
+                return -1;
+            default:
+                return index - 1;
+        }
+    }
+
+    /**
+     * Set the {@link Config} fields given with {@code --config.}.
+     */
+    void applyConfig() {
+        for (Map.Entry<String, String> e : config.entrySet()) {
+            String value = e.getValue();
+            try {
+                Field field = Config.class.getField(e.getKey());
+                if (!Modifier.isStatic(field.getModifiers())) throw new NoSuchFieldException(e.getKey());
+                Class<?> type = field.getType();
+                if (type == int.class) field.setInt(null, Integer.parseInt(value));
+                else if (type == double.class) field.setDouble(null, Double.parseDouble(value));
+                else if (type == boolean.class) field.setBoolean(null, Boolean.parseBoolean(value));
+                else if (type == String.class) field.set(null, value);
+                else if (ConfigEnum.class.isAssignableFrom(type))
+                    field.set(null, configEnum(e.getKey(), type.asSubclass(ConfigEnum.class), value));
+                else throw new IllegalArgumentException("Cannot set Config." + e.getKey() + " of type " + type);
+            } catch (NoSuchFieldException | IllegalAccessException ex) {
+                throw new IllegalArgumentException("No Config field: " + e.getKey());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Not a number for Config." + e.getKey() + ": " + value);
+            }
+        }
+    }
+
+    private static ConfigEnum configEnum(String name, Class<? extends ConfigEnum> type, String value) {
+        ConfigEnum parsed = ConfigEnum.find(type, value);
+        if (parsed == null) {
+            throw new IllegalArgumentException(
+                "Config." + name + " must be one of: " + String.join(", ", ConfigEnum.names(type)));
+        }
+        return parsed;
+    }
+
+    String describe() {
+        return String.format(
+            Locale.ROOT,
+            "%d reactors (%.0f%% DE) in %d dimensions within %.1f s, spread over %d blocks, seed %d",
+            reactors,
+            deShare * 100.0,
+            dimensions,
+            windowSeconds,
+            spread,
+            seed);
+    }
+}
@@ -0,0 +1,59 @@
+package com.czqwq.EZNuclear.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldServer;
+
+import com.czqwq.EZNuclear.data.MeltdownTable;
+
+/**
+ * A server world with nothing in it but the tile entities a scenario places. There is no terrain: blocks other than
+ * those tile entities do not exist, and explosions end as queued crater jobs.
+ */
+final class StandInWorld extends WorldServer {
+
+    // packed position -> tile entity; set by create, since the constructor never runs
+    private Map<Long, TileEntity> tiles;
+
+    private StandInWorld() {
+        super(null, null, null, 0, null, null);
+        throw new AssertionError("allocated by create");
+    }
+
+    static StandInWorld create(int dimension, long seed) throws ReflectiveOperationException {
+        StandInWorld world = StandIns.allocate(StandInWorld.class);
+        WorldProviderSurface provider = new WorldProviderSurface();
+        provider.dimensionId = dimension;
+        StandIns.set(World.class, world, "provider", provider);
+        world.rand = new Random(seed);
+        world.tiles = new HashMap<>();
+        return world;
+    }
+
+    void place(TileEntity te) {
+        te.setWorldObj(this);
+        tiles.put(MeltdownTable.pack(te.xCoord, te.yCoord, te.zCoord), te);
+    }
+
+    int tileCount() {
+        return tiles.size();
+    }
+
+    @Override
+    public TileEntity getTileEntity(int x, int y, int z) {
+        return tiles.get(MeltdownTable.pack(x, y, z));
+    }
+
+    @Override
+    public boolean setBlockToAir(int x, int y, int z) {
+        TileEntity te = tiles.remove(MeltdownTable.pack(x, y, z));
+        if (te == null) return false;
+        te.invalidate();
+        return true;
+    }
+}
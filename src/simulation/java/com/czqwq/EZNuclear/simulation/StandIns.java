@@ -0,0 +1,49 @@
+package com.czqwq.EZNuclear.simulation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
+
+/**
+ * Puts stand-ins for the server and its worlds in place. Their constructors want a save directory, a network and a
+ * profiler, so they are allocated without running one and only the fields the meltdown pipeline reads are set.
+ */
+final class StandIns {
+
+    private static Object unsafe;
+    private static Method allocateInstance;
+
+    private StandIns() {}
+
+    // Unsafe is looked up reflectively, so this compiles against the Java 8 API
+    static synchronized <T> T allocate(Class<T> type) throws ReflectiveOperationException {
+        if (unsafe == null) {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+        }
+        return type.cast(allocateInstance.invoke(unsafe, type));
+    }
+
+    static void set(Class<?> owner, Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * Make a dedicated server holding {@code worlds} the one {@link MinecraftServer#getServer()} returns. It has no
+     * players, so meltdown warnings go nowhere.
+     */
+    static MinecraftServer installServer(WorldServer[] worlds) throws ReflectiveOperationException {
+        Class<?> dedicated = Class.forName("net.minecraft.server.dedicated.DedicatedServer");
+        MinecraftServer server = (MinecraftServer) allocate(dedicated);
+        server.worldServers = worlds;
+        set(MinecraftServer.class, null, "mcServer", server);
+        return server;
+    }
+}